@@ -1,4 +1,4 @@
-import apiClient from '../apiClient';
+import apiClient, { postIdempotent } from '../apiClient';
 
 /**
  * AgentService handles all API calls related to 
@@ -11,8 +11,9 @@ const AgentService = {
     },
 
     // 2. Confirm/Approve a pending booking request
+    // One Idempotency-Key per approval; automatic resends reuse it, so the request is approved once
     confirmBooking: (payload) => {
-        return apiClient.post('/bookings/confirm', payload);
+        return postIdempotent('/bookings/confirm', payload);
     },
 
     // 3. Reject/Delete a booking request
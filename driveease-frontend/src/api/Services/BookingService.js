@@ -1,4 +1,4 @@
-import apiClient from '../apiClient';
+import apiClient, { postIdempotent } from '../apiClient';
 
 /**
  * BookingService handles vehicle searching, 
@@ -13,13 +13,14 @@ const BookingService = {
 
     // 2. Create a new booking directly (Support Agent logic)
     // 404 Error eka fix kala backend eken, dan meka supiriyata weda
+    // One Idempotency-Key per call; automatic resends reuse it, so a lost response cannot book twice
     createBooking: (bookingData) => {
-        return apiClient.post('/bookings/create', bookingData);
+        return postIdempotent('/bookings/create', bookingData);
     },
 
     // 3. Send a booking request (Customer request logic)
     sendRequest: (requestData) => {
-        return apiClient.post('/bookings/request', requestData);
+        return postIdempotent('/bookings/request', requestData);
     },
 
     // 4. Get requests assigned to an agent
@@ -31,4 +31,54 @@ apiClient.interceptors.response.use(
     }
 );
 
+const RESEND_ATTEMPTS = 3;
+const RESEND_DELAY_MS = 1000;
+
+/**
+ * Random key for one user action. crypto.randomUUID only exists in secure contexts (https, localhost),
+ * so plain-http deployments fall back to getRandomValues, and very old browsers to Math.random.
+ */
+export const newIdempotencyKey = () => {
+    const c = typeof window !== 'undefined' ? window.crypto : undefined;
+    if (c && typeof c.randomUUID === 'function') {
+        return c.randomUUID();
+    }
+    const bytes = new Uint8Array(16);
+    if (c && typeof c.getRandomValues === 'function') {
+        c.getRandomValues(bytes);
+    } else {
+        for (let i = 0; i < bytes.length; i++) {
+            bytes[i] = Math.floor(Math.random() * 256);
+        }
+    }
+    bytes[6] = (bytes[6] & 0x0f) | 0x40; // version 4
+    bytes[8] = (bytes[8] & 0x3f) | 0x80; // RFC 4122 variant
+    const hex = Array.from(bytes, (b) => b.toString(16).padStart(2, '0')).join('');
+    return `${hex.slice(0, 8)}-${hex.slice(8, 12)}-${hex.slice(12, 16)}-${hex.slice(16, 20)}-${hex.slice(20)}`;
+};
+
+// No answer (network error, timeout), still in progress (409) or a server error: the write may or may not
+// have run, and resending with the same key is safe. Anything else is final.
+const shouldResend = (error) =>
+    !error.response || error.response.status === 409 || error.response.status >= 500;
+
+/**
+ * POSTs a booking write with an Idempotency-Key and resends it with the SAME key while the outcome is unknown,
+ * so the server runs it once and answers the resends with the first response.
+ * Callers create the key once per user action (one click), not once per attempt.
+ */
+export const postIdempotent = async (url, data, idempotencyKey = newIdempotencyKey()) => {
+    const config = { headers: { 'Idempotency-Key': idempotencyKey } };
+    for (let attempt = 1; ; attempt++) {
+        try {
+            return await apiClient.post(url, data, config);
+        } catch (error) {
+            if (attempt >= RESEND_ATTEMPTS || !shouldResend(error)) {
+                throw error;
+            }
+            await new Promise((resolve) => setTimeout(resolve, RESEND_DELAY_MS * attempt));
+        }
+    }
+};
+
 export default apiClient;
\ No newline at end of file
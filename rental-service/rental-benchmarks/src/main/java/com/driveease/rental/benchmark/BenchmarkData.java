@@ -0,0 +1,144 @@
+package com.driveease.rental.benchmark;
+
+import com.driveease.rental.dto.VehicleSearchView;
+import com.driveease.rental.model.Booking;
+import com.driveease.rental.model.Provider;
+import com.driveease.rental.model.User;
+import com.driveease.rental.model.VehicleContract;
+import com.driveease.rental.repository.VehicleContractRepository;
+
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Deterministic test data shared by the benchmarks.
+ * A fixed seed keeps the inputs identical between runs, so results can be compared.
+ */
+final class BenchmarkData {
+
+    static final String[] VEHICLE_TYPES = {"SUV", "Sedan", "Hatchback", "Van", "Luxury", "Pickup"};
+
+    private static final long SEED = 42L;
+
+    private BenchmarkData() { }
+
+    /**
+     * Daily rates between 25.00 and 499.99 with two decimals, like the 'base_rate_per_day' column.
+     */
+    static BigDecimal[] baseRates(int size) {
+        Random random = new Random(SEED);
+        BigDecimal[] rates = new BigDecimal[size];
+        for (int i = 0; i < size; i++) {
+            rates[i] = BigDecimal.valueOf(2_500 + random.nextInt(47_500), 2);
+        }
+        return rates;
+    }
+
+    static List<VehicleContract> contracts(int size) {
+        Random random = new Random(SEED);
+        List<Provider> providers = providers();
+        List<VehicleContract> contracts = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            VehicleContract contract = new VehicleContract();
+            contract.setContractId((long) i + 1);
+            contract.setVehicleType(VEHICLE_TYPES[i % VEHICLE_TYPES.length]);
+            contract.setBaseRatePerDay(BigDecimal.valueOf(2_500 + random.nextInt(47_500), 2));
+            contract.setAvailabilityStatus(true);
+            contract.setProvider(providers.get(i % providers.size()));
+            contract.setAgent(user(1000L + i % 20, "agent" + i % 20, User.Role.AGENT));
+            contracts.add(contract);
+        }
+        return contracts;
+    }
+
+    static List<Booking> bookings(int size) {
+        Random random = new Random(SEED);
+        List<VehicleContract> contracts = contracts(Math.max(1, size / 4));
+        LocalDate firstPickup = LocalDate.of(2026, 1, 1);
+        List<Booking> bookings = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            Booking booking = new Booking();
+            booking.setBookingId((long) i + 1);
+            booking.setVehicleContract(contracts.get(i % contracts.size()));
+            booking.setCustomer(user(5000L + i, "customer" + i, User.Role.CUSTOMER));
+            booking.setAgent(contracts.get(i % contracts.size()).getAgent());
+            booking.setCustomerName("Customer " + i);
+            booking.setRequirements(i % 3 == 0 ? "Child seat" : null);
+            booking.setPickupDate(firstPickup.plusDays(random.nextInt(365)));
+            booking.setRentalDays(1 + random.nextInt(14));
+            booking.setVehicleCount(1 + random.nextInt(3));
+            booking.setFinalPrice(BigDecimal.valueOf(10_000 + random.nextInt(900_000), 2));
+            bookings.add(booking);
+        }
+        return bookings;
+    }
+
+    static List<VehicleSearchView> searchViews(int size) {
+        List<VehicleSearchView> views = new ArrayList<>(size);
+        for (VehicleContract contract : contracts(size)) {
+            views.add(new SearchView(contract.getContractId(), contract.getVehicleType(), contract.getBaseRatePerDay(),
+                    contract.isAvailabilityStatus(), contract.getProvider().getProviderName(), contract.getTotalUnits()));
+        }
+        return views;
+    }
+
+    /**
+     * A VehicleContractRepository that answers the two search projection queries from memory.
+     * Any other repository method fails loudly, so a benchmark cannot silently measure a stub.
+     */
+    static VehicleContractRepository searchRepository(List<VehicleSearchView> views) {
+        return (VehicleContractRepository) Proxy.newProxyInstance(
+                VehicleContractRepository.class.getClassLoader(),
+                new Class<?>[]{VehicleContractRepository.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "findAvailableSearchViews" -> views;
+                    case "findAvailableSearchViewsByType" -> views.stream()
+                            .filter(view -> view.getVehicleType().equalsIgnoreCase((String) args[0]))
+                            .toList();
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    private static List<Provider> providers() {
+        List<Provider> providers = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            Provider provider = new Provider();
+            provider.setProviderId((long) i + 1);
+            provider.setProviderName("Provider " + i);
+            provider.setContactDetails("+94 11 000 00" + i);
+            providers.add(provider);
+        }
+        return providers;
+    }
+
+    private static User user(Long id, String username, User.Role role) {
+        return new User(id, username, "$2a$10$abcdefghijklmnopqrstuuQ0J3p5TtN6v4m3p7mQe6Jb2wHh1Y6Zy", username + "@example.com", role);
+    }
+
+    private record SearchView(Long contractId, String vehicleType, BigDecimal baseRatePerDay,
+                              boolean availabilityStatus, String providerName, int totalUnits)
+            implements VehicleSearchView {
+
+        @Override
+        public Long getContractId() { return contractId; }
+
+        @Override
+        public String getVehicleType() { return vehicleType; }
+
+        @Override
+        public BigDecimal getBaseRatePerDay() { return baseRatePerDay; }
+
+        @Override
+        public boolean isAvailabilityStatus() { return availabilityStatus; }
+
+        @Override
+        public String getProviderName() { return providerName; }
+
+        @Override
+        public int getTotalUnits() { return totalUnits; }
+    }
+}
@@ -0,0 +1,77 @@
+package com.driveease.rental.benchmark;
+
+import com.driveease.rental.config.JwtFilter;
+import com.driveease.rental.config.JwtUtils;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token issuing and the per-request JwtFilter work.
+ * Logic:
+ * 1. generateToken measures signing a fresh token (done on every login).
+ * 2. filterRequest runs JwtFilter on a request carrying a Bearer token; with verifiedCache = false
+ *    the verified-token cache is disabled, so every call pays for HMAC verification and claim parsing.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class JwtBenchmark {
+
+    @Param({"false", "true"})
+    public boolean verifiedCache;
+
+    private JwtUtils jwtUtils;
+
+    private JwtFilter jwtFilter;
+
+    private MockHttpServletRequest request;
+
+    private MockHttpServletResponse response;
+
+    private final FilterChain chain = (req, res) -> { };
+
+    @Setup
+    public void setUp() {
+        jwtUtils = new JwtUtils(verifiedCache ? 10_000 : 0, new SimpleMeterRegistry());
+        jwtFilter = new JwtFilter(jwtUtils);
+        request = new MockHttpServletRequest("GET", "/api/bookings/all");
+        request.addHeader("Authorization", "Bearer " + jwtUtils.generateToken("agent.nimal", "AGENT"));
+        response = new MockHttpServletResponse();
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtUtils.generateToken("agent.nimal", "AGENT");
+    }
+
+    @Benchmark
+    public Authentication filterRequest() throws ServletException, IOException {
+        jwtFilter.doFilter(request, response, chain);
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        // Each iteration must look like a new request to the filter
+        SecurityContextHolder.clearContext();
+        return authentication;
+    }
+}
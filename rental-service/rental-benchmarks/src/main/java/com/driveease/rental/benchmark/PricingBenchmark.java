@@ -0,0 +1,79 @@
+package com.driveease.rental.benchmark;
+
+import com.driveease.rental.service.BookingService;
+import com.driveease.rental.service.PricingEngine;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pricing cost.
+ * Logic:
+ * 1. calculateFinalPrice: one BookingService.calculateFinalPrice call; rates, days and counts rotate
+ *    through a fixed table so the JIT cannot constant-fold the inputs.
+ * 2. quoteAll: PricingEngine batch API pricing a whole search page (every rate x one scenario).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class PricingBenchmark {
+
+    private static final int TABLE_SIZE = 1024;
+
+    private static final int SEARCH_PAGE_SIZE = 100;
+
+    private PricingEngine pricingEngine;
+
+    private BookingService bookingService;
+
+    private PricingEngine.RateTable searchPage;
+
+    private BigDecimal[] rates;
+
+    private int[] days;
+
+    private int[] counts;
+
+    private int next;
+
+    @Setup
+    public void setUp() {
+        // calculateFinalPrice is pure, so none of the collaborators are needed
+        pricingEngine = new PricingEngine();
+        bookingService = new BookingService(null, null, null, pricingEngine, null, null, null, null, null);
+        rates = BenchmarkData.baseRates(TABLE_SIZE);
+        days = new int[TABLE_SIZE];
+        counts = new int[TABLE_SIZE];
+        for (int i = 0; i < TABLE_SIZE; i++) {
+            days[i] = 1 + i % 30;
+            counts[i] = 1 + i % 4;
+        }
+        searchPage = PricingEngine.RateTable.of(Arrays.asList(BenchmarkData.baseRates(SEARCH_PAGE_SIZE)));
+    }
+
+    @Benchmark
+    public BigDecimal calculateFinalPrice() {
+        int i = next++ & (TABLE_SIZE - 1);
+        return bookingService.calculateFinalPrice(rates[i], days[i], counts[i]);
+    }
+
+    @Benchmark
+    public PricingEngine.QuoteMatrix quoteAll() {
+        int i = next++ & (TABLE_SIZE - 1);
+        return pricingEngine.quoteAll(searchPage, new int[]{days[i]}, new int[]{counts[i]});
+    }
+}
@@ -0,0 +1,60 @@
+package com.driveease.rental.benchmark;
+
+import com.driveease.rental.service.BookingService;
+import com.driveease.rental.service.PricingEngine;
+import com.driveease.rental.service.VehicleSearchCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Building the public search response: one row map per contract, each with a computed quote.
+ * The inventory comes from an in-memory repository, so only the mapping and pricing are measured.
+ * Logic:
+ * 1. cached = false disables the search cache, so every call rebuilds every row (cold path).
+ * 2. cached = true measures the steady state where results are served from VehicleSearchCache.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class SearchRowsBenchmark {
+
+    @Param({"10", "100", "1000"})
+    public int contracts;
+
+    @Param({"false", "true"})
+    public boolean cached;
+
+    private BookingService bookingService;
+
+    @Setup
+    public void setUp() {
+        long cacheSize = cached ? 1_000 : 0;
+        VehicleSearchCache searchCache = new VehicleSearchCache(cacheSize, Duration.ofHours(1), new SimpleMeterRegistry());
+        bookingService = new BookingService(
+                BenchmarkData.searchRepository(BenchmarkData.searchViews(contracts)),
+                null, searchCache, new PricingEngine(), null, null, null, null, null);
+    }
+
+    @Benchmark
+    public List<Map<String, Object>> searchAllTypes() {
+        return bookingService.searchVehicleRows("All", 3, 1, null);
+    }
+}
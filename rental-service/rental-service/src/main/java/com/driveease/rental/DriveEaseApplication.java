@@ -2,13 +2,16 @@ package com.driveease.rental;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 /**
  * DriveEaseApplication is the main entry point for the Spring Boot application.
  * The @SpringBootApplication annotation enables auto-configuration, component scanning,
  * and allows the application to start an embedded web server (like Tomcat).
+ * @EnableScheduling activates background jobs such as the email outbox dispatcher.
  */
 @SpringBootApplication
+@EnableScheduling
 public class DriveEaseApplication {
 
 	/**
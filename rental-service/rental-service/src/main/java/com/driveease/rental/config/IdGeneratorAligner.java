@@ -0,0 +1,90 @@
+package com.driveease.rental.config;
+
+import com.driveease.rental.model.IdGenerators;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.TableGenerator;
+import jakarta.persistence.metamodel.EntityType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.reflect.Field;
+
+/**
+ * IdGeneratorAligner keeps the id_generator rows (seeded by the V2 migration) ahead of the IDs in their tables.
+ * Logic:
+ * 1. For every entity whose ID uses a @TableGenerator, read the highest ID already in its table.
+ * 2. Create the generator row when it is missing (INSERT IGNORE), then raise 'next_val' when it is behind,
+ *    so the next reserved block of IDs always starts above the existing rows.
+ * Runs at startup before any request is served. It never lowers a value and tolerates a row inserted
+ * by another instance starting at the same time, so it is safe to repeat and to run concurrently.
+ */
+@Component
+public class IdGeneratorAligner {
+
+    private static final Logger log = LoggerFactory.getLogger(IdGeneratorAligner.class);
+
+    private static final String INSERT_SQL = "INSERT IGNORE INTO " + IdGenerators.TABLE + " (" + IdGenerators.NAME_COLUMN
+            + ", " + IdGenerators.VALUE_COLUMN + ") VALUES (?, ?)";
+    private static final String UPDATE_SQL = "UPDATE " + IdGenerators.TABLE + " SET " + IdGenerators.VALUE_COLUMN
+            + " = ? WHERE " + IdGenerators.NAME_COLUMN + " = ? AND " + IdGenerators.VALUE_COLUMN + " < ?";
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final TransactionTemplate transactionTemplate;
+
+    public IdGeneratorAligner(EntityManagerFactory entityManagerFactory, JdbcTemplate jdbcTemplate,
+                              PlatformTransactionManager transactionManager) {
+        this.entityManagerFactory = entityManagerFactory;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @PostConstruct
+    public void alignAll() {
+        for (EntityType<?> entity : entityManagerFactory.getMetamodel().getEntities()) {
+            for (Field field : entity.getJavaType().getDeclaredFields()) {
+                TableGenerator generator = field.getAnnotation(TableGenerator.class);
+                if (generator != null && IdGenerators.TABLE.equals(generator.table())) {
+                    align(generator.pkColumnValue(), maxId(entity.getName(), field.getName()));
+                }
+            }
+        }
+    }
+
+    /**
+     * Raises the generator row for 'segment' so that every ID it hands out is greater than maxId.
+     * The pooled optimizer hands out the block just below the stored value, hence the extra ALLOCATION_SIZE.
+     * * @param segment The sequence_name of the generator row (the table name).
+     * @param maxId Highest ID currently stored in the table (0 when empty).
+     */
+    void align(String segment, long maxId) {
+        long required = maxId + IdGenerators.ALLOCATION_SIZE + 1;
+        transactionTemplate.executeWithoutResult(status -> {
+            // No check-then-insert: a concurrent instance may create the row in between, the IGNORE absorbs that
+            if (jdbcTemplate.update(INSERT_SQL, segment, required) > 0) {
+                log.info("Created id generator '{}' at {}", segment, required);
+            } else if (jdbcTemplate.update(UPDATE_SQL, required, segment, required) > 0) {
+                log.info("Raised id generator '{}' to {}", segment, required);
+            }
+        });
+    }
+
+    private long maxId(String entityName, String idAttribute) {
+        EntityManager entityManager = entityManagerFactory.createEntityManager();
+        try {
+            Long max = entityManager.createQuery(
+                    "SELECT MAX(e." + idAttribute + ") FROM " + entityName + " e", Long.class).getSingleResult();
+            return max == null ? 0 : max;
+        } finally {
+            entityManager.close();
+        }
+    }
+}
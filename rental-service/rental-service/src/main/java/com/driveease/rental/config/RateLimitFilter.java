@@ -0,0 +1,121 @@
+package com.driveease.rental.config;
+
+import com.driveease.rental.service.RateLimiter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throttles the write endpoints that are cheap to call and expensive to serve
+ * (BCrypt on login/signup, an INSERT per contact message or booking request).
+ * Runs in the security chain right before JwtFilter, so rejected requests cost neither a token check nor a query.
+ * Clients are identified by the subject of a valid bearer token, otherwise by IP address.
+ * Behind a reverse proxy, set server.forward-headers-strategy so the IP address is the real client's.
+ */
+@Component
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private final RateLimiter rateLimiter;
+
+    private final JwtUtils jwtUtils;
+
+    private final List<Route> routes = new ArrayList<>();
+
+    public RateLimitFilter(RateLimiter rateLimiter, JwtUtils jwtUtils, MeterRegistry meterRegistry,
+                           @Value("${driveease.ratelimit.enabled:true}") boolean enabled,
+                           @Value("${driveease.ratelimit.login:10/1m}") String login,
+                           @Value("${driveease.ratelimit.signup:5/10m}") String signup,
+                           @Value("${driveease.ratelimit.contact:5/10m}") String contact,
+                           @Value("${driveease.ratelimit.booking-request:30/1m}") String bookingRequest) {
+        this.rateLimiter = rateLimiter;
+        this.jwtUtils = jwtUtils;
+        if (enabled) {
+            addRoute("login", "/api/auth/login", login, meterRegistry);
+            addRoute("signup", "/api/auth/signup", signup, meterRegistry);
+            addRoute("contact", "/api/contact/send", contact, meterRegistry);
+            addRoute("booking-request", "/api/bookings/request", bookingRequest, meterRegistry);
+        }
+    }
+
+    private void addRoute(String name, String path, String spec, MeterRegistry meterRegistry) {
+        RateLimiter.Limit limit = RateLimiter.Limit.parse(spec);
+        if (limit == null) {
+            return;
+        }
+        Counter rejected = Counter.builder("driveease.ratelimit.rejected")
+                .description("Requests answered with 429 by the rate limiter")
+                .tag("route", name)
+                .register(meterRegistry);
+        routes.add(new Route(name, path, limit, rejected));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+
+        Route route = routeOf(request);
+        if (route != null) {
+            long waitNanos = rateLimiter.tryAcquire(route.name() + ' ' + clientOf(request), route.limit());
+            if (waitNanos > 0) {
+                route.rejected().increment();
+                long retryAfterSeconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999L));
+                response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+                response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+                response.setContentType(MediaType.TEXT_PLAIN_VALUE);
+                response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+                response.getWriter().write("Error: Too many requests, please retry in " + retryAfterSeconds + " s.");
+                return;
+            }
+        }
+
+        filterChain.doFilter(request, response);
+    }
+
+    private Route routeOf(HttpServletRequest request) {
+        if (routes.isEmpty() || !"POST".equals(request.getMethod())) {
+            return null;
+        }
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        for (Route route : routes) {
+            if (route.path().equals(path)) {
+                return route;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * "user:<subject>" for a valid bearer token (verified-token cache, so usually no HMAC), else "ip:<address>".
+     */
+    private String clientOf(HttpServletRequest request) {
+        String authHeader = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (authHeader != null && authHeader.startsWith("Bearer ")) {
+            try {
+                String username = jwtUtils.verify(authHeader.substring(7)).username();
+                if (username != null) {
+                    return "user:" + username;
+                }
+            } catch (Exception e) {
+                // Invalid token: limited by address; JwtFilter and the security rules deal with the token itself
+            }
+        }
+        return "ip:" + request.getRemoteAddr();
+    }
+
+    private record Route(String name, String path, RateLimiter.Limit limit, Counter rejected) { }
+}
@@ -0,0 +1,76 @@
+package com.driveease.rental.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Read/write split, active only when 'driveease.datasource.replica-urls' is set.
+ * Without it Spring Boot creates the single primary DataSource exactly as before.
+ * The DataSource everything uses (JPA, JdbcTemplate) is:
+ * LazyConnectionDataSourceProxy -> ReadReplicaRoutingDataSource -> primary pool / one pool per replica.
+ * Routing is decided per connection, so it needs spring.jpa.open-in-view=false: an EntityManager kept open
+ * for the whole request would hold on to the replica connection of its first read and send later writes there.
+ */
+@Configuration
+@ConditionalOnProperty(name = "driveease.datasource.replica-urls")
+public class ReadReplicaConfig {
+
+    /**
+     * The primary pool, configured from the usual spring.datasource.* (and spring.datasource.hikari.*) properties.
+     */
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    @Bean
+    public ReadReplicaRoutingDataSource readReplicaRoutingDataSource(
+            HikariDataSource primaryDataSource, DataSourceProperties properties, MeterRegistry meterRegistry,
+            @Value("${driveease.datasource.replica-urls}") List<String> replicaUrls,
+            @Value("${driveease.datasource.replica-username:}") String username,
+            @Value("${driveease.datasource.replica-password:}") String password,
+            @Value("${driveease.datasource.replica-pool-size:10}") int poolSize) {
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        for (String url : replicaUrls) {
+            if (url.isBlank()) {
+                continue;
+            }
+            String name = "replica-" + replicas.size();
+            HikariDataSource replica = DataSourceBuilder.create()
+                    .type(HikariDataSource.class)
+                    .url(url.trim())
+                    .username(username.isEmpty() ? properties.determineUsername() : username)
+                    .password(username.isEmpty() ? properties.determinePassword() : password)
+                    .build();
+            replica.setPoolName(name);
+            replica.setMaximumPoolSize(poolSize);
+            replica.setReadOnly(true);
+            replica.setMetricRegistry(meterRegistry);
+            replicas.put(name, replica);
+        }
+        return new ReadReplicaRoutingDataSource(primaryDataSource, replicas);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ReadReplicaRoutingDataSource readReplicaRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(readReplicaRoutingDataSource);
+    }
+}
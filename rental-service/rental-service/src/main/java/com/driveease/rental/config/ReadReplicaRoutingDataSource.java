@@ -0,0 +1,204 @@
+package com.driveease.rental.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * ReadReplicaRoutingDataSource sends read-only transactions to a replica and everything else to the primary.
+ * Logic (per connection):
+ * 1. Read-write transactions and plain auto-commit work use the primary.
+ * 2. Read-only transactions (every Spring Data find/count, @Transactional(readOnly = true)) take the next
+ *    healthy replica, round-robin. A replica is healthy while ReplicaHealthMonitor sees it answering
+ *    and no further behind than the allowed lag.
+ * 3. With no healthy replica, or when the replica refuses the connection, the primary serves the read.
+ *
+ * Must be wrapped in a LazyConnectionDataSourceProxy: the read-only flag of a transaction is only set
+ * after the transaction manager asked for its connection, so the real connection has to be fetched lazily.
+ */
+public class ReadReplicaRoutingDataSource extends AbstractRoutingDataSource implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(ReadReplicaRoutingDataSource.class);
+
+    static final String PRIMARY = "primary";
+
+    /**
+     * Set while a caller needs reads that are not behind the primary (see onPrimary).
+     */
+    private static final ThreadLocal<Boolean> PRIMARY_ONLY = new ThreadLocal<>();
+
+    private final DataSource primary;
+
+    private final List<Replica> replicas;
+
+    private final Map<Object, Replica> replicasByKey = new HashMap<>();
+
+    private final AtomicInteger nextReplica = new AtomicInteger();
+
+    public ReadReplicaRoutingDataSource(DataSource primary, Map<String, DataSource> replicaDataSources) {
+        this.primary = primary;
+        List<Replica> list = new ArrayList<>();
+        Map<Object, Object> targets = new LinkedHashMap<>();
+        targets.put(PRIMARY, primary);
+        replicaDataSources.forEach((name, dataSource) -> {
+            Replica replica = new Replica(name, dataSource);
+            list.add(replica);
+            replicasByKey.put(name, replica);
+            targets.put(name, dataSource);
+        });
+        this.replicas = Collections.unmodifiableList(list);
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        setLenientFallback(false);
+        afterPropertiesSet();
+    }
+
+    /**
+     * Runs 'reads' against the primary even inside read-only transactions.
+     * For code that compares query results with state kept up to date by events (reconcile jobs,
+     * index rebuilds), where a lagging replica would "correct" the state back to an older value.
+     * Has no effect when no replicas are configured.
+     */
+    public static <T> T onPrimary(Supplier<T> reads) {
+        if (PRIMARY_ONLY.get() != null) {
+            return reads.get();
+        }
+        PRIMARY_ONLY.set(Boolean.TRUE);
+        try {
+            return reads.get();
+        } finally {
+            PRIMARY_ONLY.remove();
+        }
+    }
+
+    public DataSource getPrimary() {
+        return primary;
+    }
+
+    public List<Replica> getReplicas() {
+        return replicas;
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (PRIMARY_ONLY.get() != null || !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return PRIMARY;
+        }
+        int size = replicas.size();
+        if (size == 0) {
+            return PRIMARY;
+        }
+        int start = Math.floorMod(nextReplica.getAndIncrement(), size);
+        for (int i = 0; i < size; i++) {
+            Replica replica = replicas.get((start + i) % size);
+            if (replica.isHealthy()) {
+                return replica.getName();
+            }
+        }
+        return PRIMARY;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        Object key = determineCurrentLookupKey();
+        Replica replica = replicasByKey.get(key);
+        if (replica == null) {
+            return primary.getConnection();
+        }
+        try {
+            return replica.getDataSource().getConnection();
+        } catch (SQLException e) {
+            replica.markDown("connection failed: " + e.getMessage());
+            return primary.getConnection();
+        }
+    }
+
+    /**
+     * Closes the replica pools; the primary is a bean of its own and closed by the context.
+     */
+    @Override
+    public void destroy() throws Exception {
+        for (Replica replica : replicas) {
+            if (replica.getDataSource() instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+    }
+
+    /**
+     * One replica with the state last reported by the health check.
+     * Starts unhealthy, so nothing is read from it before the first check has measured its lag.
+     */
+    public static final class Replica {
+
+        private final String name;
+
+        private final DataSource dataSource;
+
+        private volatile boolean healthy;
+
+        private volatile long lagMillis = -1;
+
+        Replica(String name, DataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public DataSource getDataSource() {
+            return dataSource;
+        }
+
+        public boolean isHealthy() {
+            return healthy;
+        }
+
+        /**
+         * Replication lag measured by the last check in milliseconds, -1 if it could not be measured.
+         */
+        public long getLagMillis() {
+            return lagMillis;
+        }
+
+        /**
+         * Records a successful lag measurement.
+         */
+        void update(long lagMillis, long maxLagMillis) {
+            this.lagMillis = lagMillis;
+            boolean nowHealthy = lagMillis <= maxLagMillis;
+            if (nowHealthy != healthy) {
+                if (nowHealthy) {
+                    log.info("Read replica '{}' back in rotation (lag {} ms)", name, lagMillis);
+                } else {
+                    log.warn("Read replica '{}' taken out of rotation: lag {} ms exceeds {} ms", name, lagMillis, maxLagMillis);
+                }
+            }
+            healthy = nowHealthy;
+        }
+
+        void markDown(String reason) {
+            lagMillis = -1;
+            if (healthy) {
+                log.warn("Read replica '{}' taken out of rotation: {}", name, reason);
+            }
+            healthy = false;
+        }
+    }
+}
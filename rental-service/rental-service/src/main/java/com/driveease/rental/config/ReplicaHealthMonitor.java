@@ -0,0 +1,116 @@
+package com.driveease.rental.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * ReplicaHealthMonitor decides which read replicas may serve reads.
+ * Logic (every 'replica-check-interval'):
+ * 1. Write this instance's heartbeat (current time in millis) into 'replica_heartbeat' on the primary
+ *    (the table comes from the Flyway migrations, like the rest of the schema).
+ * 2. Read the same row back from each replica: the lag is "now - beat that has arrived there".
+ *    Each instance only compares against its own row, so clock differences between instances do not matter.
+ * 3. A replica whose lag is within 'replica-max-lag' stays in rotation; a replica that is behind,
+ *    does not answer within the query timeout or has no heartbeat yet is skipped until a later check passes.
+ * The lag can only be measured to the resolution of the check interval.
+ */
+@Component
+@ConditionalOnProperty(name = "driveease.datasource.replica-urls")
+public class ReplicaHealthMonitor {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicaHealthMonitor.class);
+
+    static final String HEARTBEAT_TABLE = "replica_heartbeat";
+
+    private static final String UPDATE_SQL = "UPDATE " + HEARTBEAT_TABLE + " SET beat = ? WHERE instance_id = ?";
+    private static final String INSERT_SQL = "INSERT INTO " + HEARTBEAT_TABLE + " (instance_id, beat) VALUES (?, ?)";
+    private static final String SELECT_SQL = "SELECT beat FROM " + HEARTBEAT_TABLE + " WHERE instance_id = ?";
+    private static final String PURGE_SQL = "DELETE FROM " + HEARTBEAT_TABLE + " WHERE beat < ?";
+
+    /**
+     * Rows of instances that stopped beating this long ago are removed at startup.
+     */
+    private static final long STALE_HEARTBEAT_MILLIS = Duration.ofDays(1).toMillis();
+
+    private final ReadReplicaRoutingDataSource routingDataSource;
+
+    private final JdbcTemplate primary;
+
+    private final long maxLagMillis;
+
+    private final int checkTimeoutSeconds;
+
+    private final String instanceId = UUID.randomUUID().toString();
+
+    public ReplicaHealthMonitor(ReadReplicaRoutingDataSource routingDataSource,
+                                @Value("${driveease.datasource.replica-max-lag:5s}") Duration maxLag,
+                                @Value("${driveease.datasource.replica-check-timeout:2s}") Duration checkTimeout,
+                                MeterRegistry meterRegistry) {
+        this.routingDataSource = routingDataSource;
+        this.primary = new JdbcTemplate(routingDataSource.getPrimary());
+        this.maxLagMillis = maxLag.toMillis();
+        this.checkTimeoutSeconds = (int) Math.max(1, checkTimeout.toSeconds());
+        for (ReadReplicaRoutingDataSource.Replica replica : routingDataSource.getReplicas()) {
+            Gauge.builder("driveease.datasource.replica.lag", replica, ReadReplicaRoutingDataSource.Replica::getLagMillis)
+                    .description("Replication lag measured by the last health check, -1 if unknown")
+                    .baseUnit("milliseconds")
+                    .tag("replica", replica.getName())
+                    .register(meterRegistry);
+            Gauge.builder("driveease.datasource.replica.healthy", replica, r -> r.isHealthy() ? 1 : 0)
+                    .description("1 while the replica serves read-only transactions")
+                    .tag("replica", replica.getName())
+                    .register(meterRegistry);
+        }
+    }
+
+    @PostConstruct
+    public void init() {
+        primary.update(PURGE_SQL, System.currentTimeMillis() - STALE_HEARTBEAT_MILLIS);
+        check();
+    }
+
+    @Scheduled(initialDelayString = "${driveease.datasource.replica-check-interval:1s}",
+            fixedDelayString = "${driveease.datasource.replica-check-interval:1s}")
+    public void check() {
+        try {
+            long beat = System.currentTimeMillis();
+            if (primary.update(UPDATE_SQL, beat, instanceId) == 0) {
+                primary.update(INSERT_SQL, instanceId, beat);
+            }
+        } catch (DataAccessException e) {
+            // Replicas are still measured: their lag keeps growing and takes them out of rotation
+            log.warn("Replica heartbeat could not be written to the primary: {}", e.getMessage());
+        }
+        for (ReadReplicaRoutingDataSource.Replica replica : routingDataSource.getReplicas()) {
+            checkReplica(replica);
+        }
+    }
+
+    private void checkReplica(ReadReplicaRoutingDataSource.Replica replica) {
+        JdbcTemplate template = new JdbcTemplate(replica.getDataSource());
+        template.setQueryTimeout(checkTimeoutSeconds);
+        try {
+            List<Long> beats = template.queryForList(SELECT_SQL, Long.class, instanceId);
+            if (beats.isEmpty()) {
+                replica.markDown("heartbeat not replicated yet");
+            } else {
+                replica.update(Math.max(0, System.currentTimeMillis() - beats.get(0)), maxLagMillis);
+            }
+        } catch (DataAccessException e) {
+            replica.markDown("health check failed: " + e.getMessage());
+        }
+    }
+}
@@ -1,7 +1,12 @@
 package com.driveease.rental.config;
 
+import com.driveease.rental.service.IdempotencyService;
+import jakarta.servlet.DispatcherType;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpHeaders;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
@@ -21,8 +26,11 @@ public class SecurityConfig {
 
     private final JwtFilter jwtFilter;
 
-    public SecurityConfig(JwtFilter jwtFilter) {
+    private final RateLimitFilter rateLimitFilter;
+
+    public SecurityConfig(JwtFilter jwtFilter, RateLimitFilter rateLimitFilter) {
         this.jwtFilter = jwtFilter;
+        this.rateLimitFilter = rateLimitFilter;
     }
 
     @Bean
@@ -34,26 +42,62 @@ public class SecurityConfig {
                     cfg.setAllowedOrigins(List.of("http://localhost:3000"));
                     cfg.setAllowedMethods(List.of("GET", "POST", "PUT", "DELETE", "PATCH", "OPTIONS"));
                     cfg.setAllowedHeaders(List.of("*"));
+                    cfg.setExposedHeaders(List.of(IdempotencyService.REPLAYED_HEADER, HttpHeaders.RETRY_AFTER));
                     cfg.setAllowCredentials(true);
                     return cfg;
                 }))
                 .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
                 .authorizeHttpRequests(auth -> auth
+                        // Async re-dispatches (event streams, CompletableFuture results) were authorized on the original request
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                         .requestMatchers("/api/auth/**").permitAll()
                         // 🔥 Vehicle dropdown එකට සහ පෙනෙන්න ඕන data වලට ලොගින් නැතුව ඉඩ දෙනවා
                         .requestMatchers("/api/vehicles/available").permitAll()
+                        // Health checks and the Prometheus scrape endpoint (no other actuator endpoints are exposed)
+                        .requestMatchers("/actuator/health", "/actuator/prometheus").permitAll()
                         .requestMatchers("/api/admin/**").hasAuthority("ROLE_ADMIN")
                         .anyRequest().authenticated()
                 );
 
         http.addFilterBefore(jwtFilter, UsernamePasswordAuthenticationFilter.class);
+        // After CORS (so browsers can read the 429), before any token or database work
+        http.addFilterBefore(rateLimitFilter, JwtFilter.class);
 
         return http.build();
     }
 
+    /**
+     * BCrypt with a configurable work factor.
+     * upgradeEncoding() reports every stored hash whose cost differs from the configured one,
+     * so the password is rehashed on the next successful login (AuthController.login writes it back).
+     */
+    @Bean
+    public PasswordEncoder passwordEncoder(@Value("${driveease.security.bcrypt.strength:10}") int strength) {
+        return new BCryptPasswordEncoder(strength) {
+            @Override
+            public boolean upgradeEncoding(String encodedPassword) {
+                // BCrypt hashes look like $2a$10$..., where '10' is the cost
+                if (encodedPassword == null || encodedPassword.length() < 7 || encodedPassword.charAt(0) != '$') {
+                    return false;
+                }
+                try {
+                    return Integer.parseInt(encodedPassword.substring(4, 6)) != strength;
+                } catch (NumberFormatException e) {
+                    return false;
+                }
+            }
+        };
+    }
+
+    /**
+     * Keeps Spring Boot from also registering the rate limiter as a plain servlet filter;
+     * it only runs inside the security chain.
+     */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public FilterRegistrationBean<RateLimitFilter> rateLimitFilterRegistration() {
+        FilterRegistrationBean<RateLimitFilter> registration = new FilterRegistrationBean<>(rateLimitFilter);
+        registration.setEnabled(false);
+        return registration;
     }
 
     @Bean
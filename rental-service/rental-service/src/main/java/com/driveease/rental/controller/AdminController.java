@@ -1,16 +1,30 @@
 package com.driveease.rental.controller;
 
+import com.driveease.rental.config.ReadReplicaRoutingDataSource;
+import com.driveease.rental.dto.ContractProfile;
+import com.driveease.rental.dto.CursorPage;
+import com.driveease.rental.dto.KeysetCursor;
+import com.driveease.rental.event.ContractChangedEvent;
 import com.driveease.rental.model.Provider;
 import com.driveease.rental.model.VehicleContract;
 import com.driveease.rental.model.User;
 import com.driveease.rental.repository.ProviderRepository;
 import com.driveease.rental.repository.VehicleContractRepository;
 import com.driveease.rental.repository.UserRepository;
+import com.driveease.rental.service.AgentAssignmentService;
+import com.driveease.rental.service.CapacityExceededException;
+import com.driveease.rental.service.ReservationService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
 
 @RestController
 @RequestMapping("/api/admin")
@@ -26,6 +40,15 @@ public class AdminController {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private AgentAssignmentService agentAssignmentService;
+
+    @Autowired
+    private ReservationService reservationService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher; // Notifies caches about inventory changes
+
     // PROVIDER MANAGEMENT
     @GetMapping("/providers")
     public List<Provider> getAllProviders() {
@@ -42,38 +65,103 @@ public class AdminController {
         Provider provider = providerRepository.findById(id).orElseThrow();
         provider.setProviderName(details.getProviderName());
         provider.setContactDetails(details.getContactDetails());
-        return providerRepository.save(provider);
+        Provider saved = providerRepository.save(provider);
+        publishProviderContractsChanged(contractRepository.findProfilesByProvider(id));
+        return saved;
     }
 
     @DeleteMapping("/providers/{id}")
     public ResponseEntity<?> deleteProvider(@PathVariable Long id) {
+        List<ContractProfile> contracts = contractRepository.findProfilesByProvider(id);
         providerRepository.deleteById(id);
+        publishProviderContractsChanged(contracts);
         return ResponseEntity.ok("Provider removed!");
     }
 
+    /**
+     * A provider edit changes what each of its contracts shows (the provider name in search rows),
+     * so every one of them is announced as edited, without a change of type.
+     */
+    private void publishProviderContractsChanged(List<ContractProfile> contracts) {
+        for (ContractProfile contract : contracts) {
+            eventPublisher.publishEvent(
+                    new ContractChangedEvent(contract.contractId(), contract.vehicleType(), contract.vehicleType()));
+        }
+    }
+
     // VEHICLE CONTRACT MANAGEMENT
     @GetMapping("/contracts")
     public List<VehicleContract> getAllContracts() {
         return contractRepository.findAll();
     }
 
+    /**
+     * Keyset-paginated inventory listing (primary key order).
+     * @param cursor The 'nextCursor' of the previous page (omit for the first page).
+     * @param limit Page size, capped at CursorPage.MAX_LIMIT.
+     */
+    @GetMapping("/contracts/page")
+    public ResponseEntity<?> getContractsPage(@RequestParam(required = false) String cursor,
+                                              @RequestParam(required = false) Integer limit) {
+        try {
+            int size = CursorPage.clampLimit(limit);
+            KeysetCursor after = KeysetCursor.decode(cursor);
+            List<VehicleContract> rows = contractRepository.findByContractIdGreaterThanOrderByContractIdAsc(
+                    after == null ? 0L : after.id(), PageRequest.ofSize(size + 1));
+            return ResponseEntity.ok(CursorPage.of(rows, size, c -> new KeysetCursor(null, c.getContractId())));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body("Error: " + e.getMessage());
+        }
+    }
+
     @PostMapping("/contracts")
     public VehicleContract addContract(@RequestBody VehicleContract contract) {
-        return contractRepository.save(contract);
+        VehicleContract saved = contractRepository.save(contract);
+        eventPublisher.publishEvent(ContractChangedEvent.created(saved.getContractId(), saved.getVehicleType()));
+        return saved;
     }
 
+    /**
+     * Edits a contract under its reservation lock, so no booking can be confirmed between the fleet size check
+     * and the write. 'totalUnits' may not drop below the units already booked on any day from today.
+     * Answers 409 when bookings prevent the new size or other instances keep changing the contract.
+     */
     @PutMapping("/contracts/{id}")
-    public VehicleContract updateContract(@PathVariable Long id, @RequestBody VehicleContract details) {
-        VehicleContract contract = contractRepository.findById(id).orElseThrow();
-        contract.setVehicleType(details.getVehicleType());
-        contract.setBaseRatePerDay(details.getBaseRatePerDay());
-        contract.setAvailabilityStatus(details.isAvailabilityStatus());
-        return contractRepository.save(contract);
+    public ResponseEntity<?> updateContract(@PathVariable Long id, @RequestBody VehicleContract details) {
+        String[] typeBefore = new String[1];
+        try {
+            VehicleContract saved = reservationService.reserve(id, null, () -> {
+                VehicleContract contract = contractRepository.findById(id).orElseThrow();
+                typeBefore[0] = contract.getVehicleType();
+                contract.setVehicleType(details.getVehicleType());
+                contract.setBaseRatePerDay(details.getBaseRatePerDay());
+                contract.setAvailabilityStatus(details.isAvailabilityStatus());
+                if (details.getTotalUnits() > 0) {
+                    reservationService.checkTotalUnits(id, details.getTotalUnits());
+                    contract.setTotalUnits(details.getTotalUnits());
+                }
+                // Flushed now, so the version bump reserve() makes afterwards sees this write's version
+                return contractRepository.saveAndFlush(contract);
+            });
+            eventPublisher.publishEvent(new ContractChangedEvent(id, typeBefore[0], saved.getVehicleType()));
+        } catch (NoSuchElementException e) {
+            return ResponseEntity.status(404).body("Error: Contract not found");
+        } catch (CapacityExceededException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body("Error: " + e.getMessage());
+        } catch (OptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body("Error: The contract was changed by someone else, please reload and try again");
+        }
+        // The saved copy only holds proxies of provider and agent; answer with the row as just written
+        return ResponseEntity.ok(ReadReplicaRoutingDataSource.onPrimary(
+                () -> contractRepository.findWithDetailsByContractId(id)).orElseThrow());
     }
 
     @DeleteMapping("/contracts/{id}")
     public ResponseEntity<?> deleteContract(@PathVariable Long id) {
+        String typeBefore = contractRepository.findById(id).map(VehicleContract::getVehicleType).orElse(null);
         contractRepository.deleteById(id);
+        eventPublisher.publishEvent(ContractChangedEvent.deleted(id, typeBefore));
         return ResponseEntity.ok("Vehicle removed!");
     }
 
@@ -83,6 +171,27 @@ public class AdminController {
         return userRepository.findAll();
     }
 
+    /**
+     * Keyset-paginated user listing (primary key order), optionally restricted to one role.
+     */
+    @GetMapping("/users/page")
+    public ResponseEntity<?> getUsersPage(@RequestParam(required = false) String cursor,
+                                          @RequestParam(required = false) Integer limit,
+                                          @RequestParam(required = false) User.Role role) {
+        try {
+            int size = CursorPage.clampLimit(limit);
+            KeysetCursor after = KeysetCursor.decode(cursor);
+            long afterId = after == null ? 0L : after.id();
+            PageRequest fetch = PageRequest.ofSize(size + 1);
+            List<User> rows = role == null
+                    ? userRepository.findByUserIdGreaterThanOrderByUserIdAsc(afterId, fetch)
+                    : userRepository.findByRoleAndUserIdGreaterThanOrderByUserIdAsc(role, afterId, fetch);
+            return ResponseEntity.ok(CursorPage.of(rows, size, u -> new KeysetCursor(null, u.getUserId())));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body("Error: " + e.getMessage());
+        }
+    }
+
     @DeleteMapping("/users/{id}")
     public ResponseEntity<?> deleteUser(@PathVariable Long id) {
         try {
@@ -91,6 +200,7 @@ public class AdminController {
             }
             // User-wa delete karanna kalin eyaage links check wenawa
             userRepository.deleteById(id);
+            agentAssignmentService.onUserDeleted(id);
             return ResponseEntity.ok("User account deleted successfully!");
         } catch (Exception e) {
             // Salli saha booking data thibboth delete karanna baha
@@ -102,4 +212,12 @@ public class AdminController {
     public List<User> getAllAdmins() {
         return userRepository.findByRole(User.Role.ADMIN);
     }
+
+    /**
+     * Live pending-queue depth per agent (agent ID -> PENDING requests), as used for automatic assignment.
+     */
+    @GetMapping("/agents/load")
+    public Map<Long, Integer> getAgentLoad() {
+        return agentAssignmentService.getPendingCounts();
+    }
 }
\ No newline at end of file
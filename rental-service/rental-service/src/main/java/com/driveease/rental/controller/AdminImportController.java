@@ -0,0 +1,54 @@
+package com.driveease.rental.controller;
+
+import com.driveease.rental.service.BulkImportService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * AdminImportController lets admins onboard providers and their fleets from a file
+ * instead of one POST per record. The request body is the raw file (not multipart),
+ * read as a stream, e.g.:
+ * curl -X POST --data-binary @fleet.csv -H "Content-Type: text/csv" /api/admin/imports/contracts?format=csv
+ */
+@RestController
+@RequestMapping("/api/admin/imports")
+@CrossOrigin(origins = "http://localhost:3000")
+public class AdminImportController {
+
+    @Autowired
+    private BulkImportService bulkImportService;
+
+    /**
+     * Bulk provider import.
+     * * @param format 'csv' (default, header line required) or 'ndjson'.
+     * @return An ImportReport with per-row errors (HTTP 200 even if some rows were rejected).
+     */
+    @PostMapping("/providers")
+    public ResponseEntity<?> importProviders(@RequestParam(required = false, defaultValue = "csv") String format,
+                                             InputStream body) throws IOException {
+        try {
+            return ResponseEntity.ok(bulkImportService.importProviders(body, format));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body("Error: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Bulk vehicle contract import. Providers are referenced by providerId or providerName.
+     * * @param format 'csv' (default, header line required) or 'ndjson'.
+     * @return An ImportReport with per-row errors (HTTP 200 even if some rows were rejected).
+     */
+    @PostMapping("/contracts")
+    public ResponseEntity<?> importContracts(@RequestParam(required = false, defaultValue = "csv") String format,
+                                             InputStream body) throws IOException {
+        try {
+            return ResponseEntity.ok(bulkImportService.importContracts(body, format));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body("Error: " + e.getMessage());
+        }
+    }
+}
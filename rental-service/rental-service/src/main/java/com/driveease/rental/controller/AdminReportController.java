@@ -1,12 +1,23 @@
 package com.driveease.rental.controller;
 
-import com.driveease.rental.repository.BookingRepository;
-import com.driveease.rental.repository.VehicleContractRepository;
+import com.driveease.rental.service.AdminSummaryRollup;
+import com.driveease.rental.service.BookingExportService;
+import com.driveease.rental.service.DataVersions;
+import com.driveease.rental.service.FleetUtilizationEngine;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.context.request.async.AsyncWebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.math.BigDecimal;
-import java.util.*;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Map;
 
 /**
  * AdminReportController provides high-level analytics and summary data
@@ -18,37 +29,92 @@ import java.util.*;
 public class AdminReportController {
 
     @Autowired
-    private BookingRepository bookingRepository;
+    private AdminSummaryRollup adminSummaryRollup;
 
     @Autowired
-    private VehicleContractRepository vehicleContractRepository;
+    private BookingExportService bookingExportService;
+
+    @Autowired
+    private DataVersions dataVersions;
+
+    @Autowired
+    private FleetUtilizationEngine fleetUtilizationEngine;
+
+    /**
+     * Async timeout of the streamed export only (the global spring.mvc.async.request-timeout stays short).
+     */
+    @Value("${driveease.export.timeout:30m}")
+    private Duration exportTimeout;
 
     /**
      * Fetches a summarized report of the entire system performance.
      * This data includes revenue, booking volume, and fleet distribution.
+     * The figures are pre-aggregated by AdminSummaryRollup, so auto-refreshing dashboards
+     * no longer trigger full-table scans. Unchanged reports are answered with 304 (ETag = report version).
      * * @return A map containing revenue metrics, booking counts, and vehicle statistics.
      */
     @GetMapping("/summary")
-    public Map<String, Object> getAdminSummary() {
-        Map<String, Object> report = new HashMap<>();
-
-        // 1. ANALYZING TOTAL REVENUE
-        // Calculates the sum of all 'finalPrice' columns from the booking table.
-        // If no bookings exist, it defaults to 0 to prevent null errors in frontend.
-        BigDecimal totalRevenue = bookingRepository.getTotalRevenue();
-        report.put("totalRevenue", totalRevenue != null ? totalRevenue : 0);
-
-        // 2. CALCULATING TOTAL BOOKING VOLUME
-        // Returns the total count of confirmed booking records in the system.
-        Long totalBookings = bookingRepository.getTotalBookingCount();
-        report.put("totalBookings", totalBookings != null ? totalBookings : 0);
-
-        // 3. GENERATING VEHICLE DISTRIBUTION STATS (FOR CHARTS)
-        // Fetches a grouped list of vehicle types and their counts (e.g., SUV: 5, Sedan: 8).
-        // Note: This relies on a custom @Query in the VehicleContractRepository.
-        List<Object[]> vehicleStats = vehicleContractRepository.getVehicleTypeStats();
-        report.put("vehicleStats", vehicleStats);
-
-        return report;
+    public ResponseEntity<Map<String, Object>> getAdminSummary(WebRequest request) {
+        String etag = dataVersions.tag("summary", adminSummaryRollup.getReportVersion());
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+        return ResponseEntity.ok().cacheControl(DataVersions.REVALIDATE).eTag(etag).body(adminSummaryRollup.getSummary());
+    }
+
+    /**
+     * Fleet utilization over a date range, answered from in-memory occupancy bitsets (no query per request).
+     * * @param from First day of the range (ISO date).
+     * @param to Last day of the range, inclusive (ISO date).
+     * @param groupBy 'contract', 'provider', 'type' (default) or 'agent'.
+     * @return Utilization %, idle days and peak overlap per group, busiest first.
+     */
+    @GetMapping("/utilization")
+    public ResponseEntity<?> getUtilization(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false, defaultValue = "type") String groupBy) {
+        try {
+            return ResponseEntity.ok(fleetUtilizationEngine.report(from, to, FleetUtilizationEngine.GroupBy.parse(groupBy)));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body("Error: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Streams the booking history for finance reporting.
+     * Rows go straight from the database cursor to the HTTP response, so the export size is not limited by heap.
+     * The stream gets its own async timeout ('driveease.export.timeout') instead of the global one.
+     * * @param format 'csv' (default) or 'ndjson'.
+     * @param from Earliest pickup date to include (optional, ISO date).
+     * @param to Latest pickup date to include (optional, ISO date).
+     * @param agentId Restrict to bookings handled by one agent (optional).
+     * @return A streamed file download.
+     */
+    @GetMapping("/bookings/export")
+    public ResponseEntity<StreamingResponseBody> exportBookings(
+            @RequestParam(required = false, defaultValue = "csv") String format,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) Long agentId,
+            WebRequest request) {
+
+        // The request Spring MVC will start async processing on; the streaming task inherits its timeout
+        if (request instanceof AsyncWebRequest asyncRequest) {
+            asyncRequest.setTimeout(exportTimeout.toMillis());
+        }
+        if ("ndjson".equalsIgnoreCase(format)) {
+            return ResponseEntity.ok()
+                    .contentType(MediaType.parseMediaType("application/x-ndjson"))
+                    .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"bookings.ndjson\"")
+                    .body(out -> bookingExportService.writeNdjson(out, from, to, agentId));
+        }
+        if (!"csv".equalsIgnoreCase(format)) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("text/csv; charset=UTF-8"))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"bookings.csv\"")
+                .body(out -> bookingExportService.writeCsv(out, from, to, agentId));
     }
 }
\ No newline at end of file
@@ -1,21 +1,27 @@
 package com.driveease.rental.controller;
 
+import com.driveease.rental.dto.CursorPage;
+import com.driveease.rental.dto.KeysetCursor;
 import com.driveease.rental.model.User;
 import com.driveease.rental.repository.UserRepository;
 import com.driveease.rental.config.JwtUtils;
+import com.driveease.rental.service.AgentAssignmentService;
+import com.driveease.rental.service.PasswordHashingService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.authentication.AuthenticationManager;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
 
 @RestController
 @RequestMapping("/api/auth")
@@ -26,77 +32,114 @@ public class AuthController {
     private UserRepository userRepository;
 
     @Autowired
-    private AuthenticationManager authenticationManager;
+    private JwtUtils jwtUtils;
 
     @Autowired
-    private JwtUtils jwtUtils;
+    private PasswordHashingService passwordHashingService;
+
+    @Autowired
+    private AgentAssignmentService agentAssignmentService;
 
+    /**
+     * Spring MVC's async request executor. Repository work after a BCrypt step continues here,
+     * so hashing threads never block on JDBC and the pool keeps the capacity its 429 limit is sized for.
+     */
     @Autowired
-    private PasswordEncoder passwordEncoder;
+    @Qualifier(TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME)
+    private Executor requestExecutor;
 
     /**
      * User Login: Authenticates and returns JWT
      * 🔥 Fixed: generateToken method eka parameters 2k ekka update kala
+     * Logic:
+     * 1. The user is read on the request executor.
+     * 2. Only the BCrypt check (and a rehash when the stored cost is outdated) runs on the dedicated hashing pool;
+     *    when it is saturated the login is answered with 429 + Retry-After instead of waiting.
+     * 3. The rehashed password is saved and the token built back on the request executor.
      */
     @PostMapping("/login")
-    public ResponseEntity<?> login(@RequestBody Map<String, String> loginRequest) {
+    public CompletableFuture<ResponseEntity<?>> login(@RequestBody Map<String, String> loginRequest) {
         String username = loginRequest.get("username");
         String password = loginRequest.get("password");
 
         try {
-            Authentication authentication = authenticationManager.authenticate(
-                    new UsernamePasswordAuthenticationToken(username, password)
-            );
-
-            SecurityContextHolder.getContext().setAuthentication(authentication);
+            return CompletableFuture.supplyAsync(() -> userRepository.findByUsername(username), requestExecutor)
+                    .thenCompose(account -> passwordHashingService
+                            .verify(password, account.map(User::getPassword).orElse(null))
+                            .<ResponseEntity<?>>thenApplyAsync(verification -> {
+                                if (!verification.matches()) {
+                                    return invalidCredentials();
+                                }
+                                User user = account.get();
+                                if (verification.upgradedHash() != null) {
+                                    user.setPassword(verification.upgradedHash());
+                                    userRepository.save(user);
+                                }
+                                return loginResponse(user);
+                            }, requestExecutor))
+                    .exceptionally(e -> e.getCause() instanceof RejectedExecutionException
+                            ? tooManyRequests() : invalidCredentials());
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.completedFuture(tooManyRequests());
+        }
+    }
 
-            User user = userRepository.findByUsername(username).orElseThrow();
-            String userRole = user.getRole().name();
+    private ResponseEntity<?> loginResponse(User user) {
+        String userRole = user.getRole().name();
 
-            // 🔥 MEKA THAMAI FIX EKA: userRole eka 2nd parameter widiyata danna oni
-            String jwtToken = jwtUtils.generateToken(username, userRole);
+        // 🔥 MEKA THAMAI FIX EKA: userRole eka 2nd parameter widiyata danna oni
+        String jwtToken = jwtUtils.generateToken(user.getUsername(), userRole);
 
-            Map<String, Object> response = new HashMap<>();
-            response.put("token", jwtToken);
-            response.put("userId", user.getUserId());
-            response.put("username", user.getUsername());
-            response.put("role", userRole);
+        Map<String, Object> response = new HashMap<>();
+        response.put("token", jwtToken);
+        response.put("userId", user.getUserId());
+        response.put("username", user.getUsername());
+        response.put("role", userRole);
 
-            // Redirect Logic
-            String redirectUrl = "/search-results";
-            if ("ADMIN".equalsIgnoreCase(userRole)) {
-                redirectUrl = "/admin";
-            } else if ("AGENT".equalsIgnoreCase(userRole)) {
-                redirectUrl = "/agent-dashboard";
-            }
-            response.put("redirectUrl", redirectUrl);
+        // Redirect Logic
+        String redirectUrl = "/search-results";
+        if ("ADMIN".equalsIgnoreCase(userRole)) {
+            redirectUrl = "/admin";
+        } else if ("AGENT".equalsIgnoreCase(userRole)) {
+            redirectUrl = "/agent-dashboard";
+        }
+        response.put("redirectUrl", redirectUrl);
 
-            return ResponseEntity.ok(response);
+        return ResponseEntity.ok(response);
+    }
 
-        } catch (Exception e) {
-            return ResponseEntity.status(401).body("Error: Invalid username or password!");
-        }
+    private ResponseEntity<?> invalidCredentials() {
+        return ResponseEntity.status(401).body("Error: Invalid username or password!");
     }
 
     /**
      * User Signup: Hashes password before saving to DB
+     * Hashing runs on the dedicated hashing pool (429 + Retry-After when it is saturated).
      */
     @PostMapping("/signup")
-    public ResponseEntity<?> registerUser(@RequestBody User user) {
+    public CompletableFuture<ResponseEntity<?>> registerUser(@RequestBody User user) {
         if (userRepository.findByUsername(user.getUsername()).isPresent()) {
-            return ResponseEntity.badRequest().body("Error: Username is already taken!");
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().body("Error: Username is already taken!"));
         }
 
-        user.setPassword(passwordEncoder.encode(user.getPassword()));
-        userRepository.save(user);
-        return ResponseEntity.ok("User registered successfully!");
+        try {
+            return passwordHashingService.encode(user.getPassword())
+                    .thenApplyAsync(hash -> {
+                        user.setPassword(hash);
+                        agentAssignmentService.onUserSaved(userRepository.save(user));
+                        return ResponseEntity.ok("User registered successfully!");
+                    }, requestExecutor);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.completedFuture(tooManyRequests());
+        }
     }
 
+    /**
+     * Agents only (role filter runs in SQL, the user table is not loaded).
+     */
     @GetMapping("/agents")
     public List<User> getAvailableAgents() {
-        return userRepository.findAll().stream()
-                .filter(user -> user.getRole() != null && "AGENT".equalsIgnoreCase(user.getRole().name()))
-                .collect(Collectors.toList());
+        return userRepository.findByRole(User.Role.AGENT);
     }
 
     @GetMapping("/users")
@@ -104,23 +147,59 @@ public class AuthController {
         return userRepository.findAll();
     }
 
+    /**
+     * Keyset-paginated alternative to /users (primary key order).
+     */
+    @GetMapping("/users/page")
+    public ResponseEntity<?> getUsersPage(@RequestParam(required = false) String cursor,
+                                          @RequestParam(required = false) Integer limit) {
+        try {
+            int size = CursorPage.clampLimit(limit);
+            KeysetCursor after = KeysetCursor.decode(cursor);
+            List<User> rows = userRepository.findByUserIdGreaterThanOrderByUserIdAsc(
+                    after == null ? 0L : after.id(), PageRequest.ofSize(size + 1));
+            return ResponseEntity.ok(CursorPage.of(rows, size, u -> new KeysetCursor(null, u.getUserId())));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body("Error: " + e.getMessage());
+        }
+    }
+
     @PutMapping("/users/{id}")
-    public ResponseEntity<?> updateUser(@PathVariable Long id, @RequestBody User userDetails) {
+    public CompletableFuture<ResponseEntity<?>> updateUser(@PathVariable Long id, @RequestBody User userDetails) {
         User user = userRepository.findById(id).orElseThrow(() -> new RuntimeException("User not found"));
         user.setUsername(userDetails.getUsername());
+        user.setRole(userDetails.getRole());
 
-        if(userDetails.getPassword() != null && !userDetails.getPassword().isEmpty()) {
-            user.setPassword(passwordEncoder.encode(userDetails.getPassword()));
+        if (userDetails.getPassword() == null || userDetails.getPassword().isEmpty()) {
+            agentAssignmentService.onUserSaved(userRepository.save(user));
+            return CompletableFuture.completedFuture(ResponseEntity.ok("User updated successfully!"));
         }
 
-        user.setRole(userDetails.getRole());
-        userRepository.save(user);
-        return ResponseEntity.ok("User updated successfully!");
+        try {
+            return passwordHashingService.encode(userDetails.getPassword())
+                    .thenApplyAsync(hash -> {
+                        user.setPassword(hash);
+                        agentAssignmentService.onUserSaved(userRepository.save(user));
+                        return ResponseEntity.ok("User updated successfully!");
+                    }, requestExecutor);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.completedFuture(tooManyRequests());
+        }
     }
 
     @DeleteMapping("/users/{id}")
     public ResponseEntity<?> deleteUser(@PathVariable Long id) {
         userRepository.deleteById(id);
+        agentAssignmentService.onUserDeleted(id);
         return ResponseEntity.ok("User deleted successfully!");
     }
+
+    /**
+     * 429 response used when the password hashing pool is saturated.
+     */
+    private ResponseEntity<?> tooManyRequests() {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(passwordHashingService.getRetryAfterSeconds()))
+                .body("Error: Too many authentication requests, please retry shortly.");
+    }
 }
\ No newline at end of file
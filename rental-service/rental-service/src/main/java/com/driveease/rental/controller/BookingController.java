@@ -1,27 +1,51 @@
 package com.driveease.rental.controller;
 
+import com.driveease.rental.dto.AgentBookingView;
+import com.driveease.rental.dto.BatchQuoteRequest;
+import com.driveease.rental.dto.BookingRequestSnapshot;
+import com.driveease.rental.dto.CursorPage;
+import com.driveease.rental.dto.KeysetCursor;
+import com.driveease.rental.event.BookingRequestChangedEvent;
 import com.driveease.rental.model.*;
 import com.driveease.rental.repository.*;
+import com.driveease.rental.service.AgentAssignmentService;
+import com.driveease.rental.service.BookingRequestStream;
 import com.driveease.rental.service.BookingService;
-import com.driveease.rental.service.EmailService; // Import the new EmailService
+import com.driveease.rental.service.CapacityExceededException;
+import com.driveease.rental.service.DataVersions;
+import com.driveease.rental.service.IdempotencyService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * BookingController manages the entire lifecycle of a car rental booking.
- * Now integrated with EmailService for professional HTML notifications.
+ * Confirmation emails are queued in the email outbox and delivered asynchronously.
  */
 @RestController
 @RequestMapping("/api/bookings")
 @CrossOrigin(origins = "http://localhost:3000")
 public class BookingController {
 
+    private static final Logger log = LoggerFactory.getLogger(BookingController.class);
+
     @Autowired
     private BookingService bookingService;
 
@@ -38,15 +62,49 @@ public class BookingController {
     private BookingRequestRepository bookingRequestRepository;
 
     @Autowired
-    private EmailService emailService; // Using the professional EmailService
+    private AgentAssignmentService agentAssignmentService;
+
+    @Autowired
+    private BookingRequestStream bookingRequestStream;
+
+    @Autowired
+    private IdempotencyService idempotencyService;
+
+    @Autowired
+    private DataVersions dataVersions; // ETags of the polled lists
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher; // Notifies agent queues and dashboards about new requests
+
+    @Autowired
+    private MeterRegistry meterRegistry;
 
     // ========================================================================
     // BOOKING RETRIEVAL SECTION
     // ========================================================================
 
     @GetMapping("/agent/{agentId}")
-    public List<Booking> getBookingsByAgent(@PathVariable Long agentId) {
-        return bookingRepository.findByAgentUserId(agentId);
+    public ResponseEntity<List<Booking>> getBookingsByAgent(@PathVariable Long agentId, WebRequest request) {
+        String etag = dataVersions.agentBookingsTag(agentId);
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+        return ResponseEntity.ok().cacheControl(DataVersions.REVALIDATE).eTag(etag)
+                .body(bookingRepository.findByAgentUserId(agentId));
+    }
+
+    /**
+     * Compact projection of an agent's bookings (flat rows, one SQL statement).
+     */
+    @GetMapping("/agent/{agentId}/summary")
+    public ResponseEntity<List<AgentBookingView>> getBookingSummariesByAgent(@PathVariable Long agentId,
+                                                                             WebRequest request) {
+        String etag = dataVersions.agentBookingsTag(agentId);
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+        return ResponseEntity.ok().cacheControl(DataVersions.REVALIDATE).eTag(etag)
+                .body(bookingRepository.findAgentBookingViews(agentId));
     }
 
     @GetMapping("/all")
@@ -54,35 +112,71 @@ public class BookingController {
         return bookingRepository.findAll();
     }
 
+    /**
+     * Keyset-paginated alternative to /all.
+     * @param cursor The 'nextCursor' of the previous page (omit for the first page).
+     * @param limit Page size, capped at CursorPage.MAX_LIMIT.
+     * @param sort 'id' (default, oldest first) or 'recent' (newest first).
+     */
+    @GetMapping("/page")
+    public ResponseEntity<?> getBookingsPage(@RequestParam(required = false) String cursor,
+                                             @RequestParam(required = false) Integer limit,
+                                             @RequestParam(required = false, defaultValue = CursorPage.SORT_ID) String sort) {
+        try {
+            int size = CursorPage.clampLimit(limit);
+            KeysetCursor after = KeysetCursor.decode(cursor);
+            Pageable fetch = PageRequest.ofSize(size + 1); // one extra row tells us whether another page exists
+
+            if (CursorPage.isRecentFirst(sort)) {
+                List<Booking> rows = after == null
+                        ? bookingRepository.findRecentPage(fetch)
+                        : bookingRepository.findRecentPageBefore(after.sortKeyAsDateTime(), after.id(), fetch);
+                return ResponseEntity.ok(CursorPage.of(rows, size,
+                        b -> new KeysetCursor(b.getBookingDate().toString(), b.getBookingId())));
+            }
+
+            List<Booking> rows = bookingRepository.findByBookingIdGreaterThanOrderByBookingIdAsc(
+                    after == null ? 0L : after.id(), fetch);
+            return ResponseEntity.ok(CursorPage.of(rows, size, b -> new KeysetCursor(null, b.getBookingId())));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body("Error: " + e.getMessage());
+        }
+    }
+
     // ========================================================================
     // SEARCH & AVAILABILITY SECTION
     // ========================================================================
 
     @GetMapping("/search")
-    public List<Map<String, Object>> searchVehicles(
+    public ResponseEntity<List<Map<String, Object>>> searchVehicles(
             @RequestParam(required = false, defaultValue = "") String type,
             @RequestParam(required = false, defaultValue = "1") int days,
-            @RequestParam(required = false, defaultValue = "1") int count) {
-
-        List<VehicleContract> contracts = bookingService.searchAvailableVehicles(type);
-        List<Map<String, Object>> resultList = new ArrayList<>();
-
-        for (VehicleContract contract : contracts) {
-            Map<String, Object> response = new HashMap<>();
-            response.put("contractId", contract.getContractId());
-            response.put("vehicleType", contract.getVehicleType());
-            response.put("providerName", contract.getProvider() != null ? contract.getProvider().getProviderName() : "DriveEase Elite");
-
-            BigDecimal totalPrice = bookingService.calculateFinalPrice(contract.getBaseRatePerDay(), days, count);
-
-            response.put("finalPrice", totalPrice);
-            response.put("baseRate", contract.getBaseRatePerDay());
-            response.put("availability", contract.isAvailabilityStatus() ? "Available" : "Not Available");
-            response.put("imageUrl", "https://images.unsplash.com/photo-1494976388531-d1058494cdd8?w=600");
+            @RequestParam(required = false, defaultValue = "1") int count,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate pickupDate,
+            WebRequest request) {
+
+        // The tag only changes with the data, so a repeated search (same URL) can be answered with 304
+        String etag = dataVersions.searchTag();
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+        // Rows are served from the search cache; a pickup date additionally filters out booked contracts
+        return ResponseEntity.ok().cacheControl(DataVersions.REVALIDATE).eTag(etag)
+                .body(bookingService.searchVehicleRows(type, days, count, pickupDate));
+    }
 
-            resultList.add(response);
+    /**
+     * Price matrix for the fleet comparison view: every available contract of the requested types
+     * priced for every (days, count) scenario, from one inventory read.
+     * Example body: {"types": ["SUV", "Sedan"], "scenarios": [{"days": 3, "count": 1}, {"days": 7, "count": 2}]}
+     */
+    @PostMapping("/quotes")
+    public ResponseEntity<?> quoteScenarios(@RequestBody BatchQuoteRequest request) {
+        try {
+            return ResponseEntity.ok(bookingService.quoteScenarios(request));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body("Error: " + e.getMessage());
         }
-        return resultList;
     }
 
     // ========================================================================
@@ -90,10 +184,19 @@ public class BookingController {
     // ========================================================================
 
     /**
-     * Approves a pending request and triggers a rich HTML email via EmailService.
+     * Approves a pending request. The booking, the request status change and the
+     * confirmation email (queued in the outbox) are committed in one transaction.
+     * Answers 409 when the contract has no free units left for the dates or the request was already approved.
+     * Retries carrying the same Idempotency-Key get the first response back instead of confirming again.
      */
     @PostMapping("/confirm")
-    public ResponseEntity<?> confirmBooking(@RequestBody Map<String, Object> data) {
+    public CompletableFuture<ResponseEntity<?>> confirmBooking(
+            @RequestBody Map<String, Object> data,
+            @RequestHeader(value = IdempotencyService.KEY_HEADER, required = false) String idempotencyKey) {
+        return idempotencyService.execute(idempotencyKey, "POST /api/bookings/confirm", data, () -> doConfirmBooking(data));
+    }
+
+    private ResponseEntity<?> doConfirmBooking(Map<String, Object> data) {
         try {
             Booking booking = new Booking();
             booking.setRentalDays(Integer.parseInt(data.get("rentalDays").toString()));
@@ -109,31 +212,37 @@ public class BookingController {
             booking.setAgent(agent);
             booking.setVehicleContract(contract);
 
-            bookingRepository.save(booking);
-
-            BookingRequest req = bookingRequestRepository.findById(Long.valueOf(data.get("requestId").toString())).orElseThrow();
-            req.setStatus("APPROVED");
-            bookingRequestRepository.save(req);
-
-            // UPDATED: Trigger HTML Email Notification using the template
-            if (customer.getEmail() != null && !customer.getEmail().isEmpty()) {
-                emailService.sendBookingConfirmation(
-                        customer.getEmail(),
-                        customer.getUsername(), // Passing customer name
-                        req.getVehicleType(),   // Passing vehicle model
-                        LocalDate.now().toString(), // Pickup date
-                        req.getFinalPrice().toString() // Price
-                );
-            }
-
-            return ResponseEntity.ok("Booking confirmed and HTML Email sent successfully!");
+            // Email is queued in the outbox and sent in the background, so SMTP never blocks this thread
+            bookingService.confirmRequest(booking, Long.valueOf(data.get("requestId").toString()));
+            meterRegistry.counter("driveease.booking.confirmations", "outcome", "success").increment();
+
+            return ResponseEntity.ok("Booking confirmed and HTML Email queued successfully!");
+        } catch (CapacityExceededException | IllegalStateException e) {
+            // Sold out for these dates, or the request was already approved: nothing was written
+            meterRegistry.counter("driveease.booking.confirmations", "outcome", "conflict").increment();
+            return ResponseEntity.status(HttpStatus.CONFLICT).body("Error: " + e.getMessage());
+        } catch (IllegalArgumentException e) {
+            // Days, vehicle count or pickup date outside the reservation limits (or not a number)
+            meterRegistry.counter("driveease.booking.confirmations", "outcome", "rejected").increment();
+            return ResponseEntity.badRequest().body("Error: " + e.getMessage());
         } catch (Exception e) {
+            meterRegistry.counter("driveease.booking.confirmations", "outcome", "failure").increment();
+            log.warn("Booking confirmation failed: {}", e.getMessage());
             return ResponseEntity.status(500).body("Error: " + e.getMessage());
         }
     }
 
+    /**
+     * Direct booking by an agent. Idempotency-Key works as for /confirm.
+     */
     @PostMapping("/create")
-    public ResponseEntity<?> createBooking(@RequestBody Map<String, Object> data) {
+    public CompletableFuture<ResponseEntity<?>> createBooking(
+            @RequestBody Map<String, Object> data,
+            @RequestHeader(value = IdempotencyService.KEY_HEADER, required = false) String idempotencyKey) {
+        return idempotencyService.execute(idempotencyKey, "POST /api/bookings/create", data, () -> doCreateBooking(data));
+    }
+
+    private ResponseEntity<?> doCreateBooking(Map<String, Object> data) {
         try {
             Booking booking = new Booking();
             booking.setRentalDays(Integer.parseInt(data.get("rentalDays").toString()));
@@ -149,8 +258,12 @@ public class BookingController {
             booking.setAgent(agent);
             booking.setVehicleContract(contract);
 
-            bookingRepository.save(booking);
+            bookingService.createBooking(booking);
             return ResponseEntity.ok("Booking created successfully!");
+        } catch (CapacityExceededException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body("Error: " + e.getMessage());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body("Error: " + e.getMessage());
         } catch (Exception e) {
             return ResponseEntity.status(500).body("Error: " + e.getMessage());
         }
@@ -160,9 +273,36 @@ public class BookingController {
     // REQUEST MANAGEMENT SECTION
     // ========================================================================
 
+    /**
+     * Polled by the agent dashboard; answers 304 until one of the agent's requests changes.
+     */
     @GetMapping("/requests/agent/{agentId}")
-    public List<BookingRequest> getAgentRequests(@PathVariable Long agentId) {
-        return bookingRequestRepository.findByAgentUserId(agentId);
+    public ResponseEntity<List<BookingRequest>> getAgentRequests(@PathVariable Long agentId, WebRequest request) {
+        String etag = dataVersions.agentRequestsTag(agentId);
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+        return ResponseEntity.ok().cacheControl(DataVersions.REVALIDATE).eTag(etag)
+                .body(bookingRequestRepository.findByAgentUserId(agentId));
+    }
+
+    /**
+     * Server-Sent Events feed of the agent's queue, replacing periodic polling of /requests/agent/{agentId}.
+     * Sends a "request" event (BookingRequestSnapshot) whenever a request is assigned to the agent or changes status.
+     * Reconnecting clients send Last-Event-ID (browsers do this automatically; 'lastEventId' works too)
+     * and receive only what they missed, or a "reset" event when a full reload is needed.
+     * Unknown agent IDs get 404.
+     */
+    @GetMapping(value = "/requests/agent/{agentId}/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamAgentRequests(@PathVariable Long agentId,
+                                                          @RequestHeader(value = "Last-Event-ID", required = false) String lastEventIdHeader,
+                                                          @RequestParam(required = false) String lastEventId) {
+        try {
+            return ResponseEntity.ok(bookingRequestStream.subscribe(agentId,
+                    lastEventIdHeader != null ? lastEventIdHeader : lastEventId));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.notFound().build();
+        }
     }
 
     @GetMapping("/requests/customer/{customerId}")
@@ -170,18 +310,105 @@ public class BookingController {
         return bookingRequestRepository.findByCustomerUserId(customerId);
     }
 
+    /**
+     * Keyset-paginated agent queue. Same parameters as /page.
+     */
+    @GetMapping("/requests/agent/{agentId}/page")
+    public ResponseEntity<?> getAgentRequestsPage(@PathVariable Long agentId,
+                                                  @RequestParam(required = false) String cursor,
+                                                  @RequestParam(required = false) Integer limit,
+                                                  @RequestParam(required = false, defaultValue = CursorPage.SORT_ID) String sort) {
+        try {
+            int size = CursorPage.clampLimit(limit);
+            KeysetCursor after = KeysetCursor.decode(cursor);
+            Pageable fetch = PageRequest.ofSize(size + 1);
+
+            List<BookingRequest> rows;
+            if (CursorPage.isRecentFirst(sort)) {
+                rows = after == null
+                        ? bookingRequestRepository.findRecentByAgent(agentId, fetch)
+                        : bookingRequestRepository.findRecentByAgentBefore(agentId, after.sortKeyAsDateTime(), after.id(), fetch);
+                return ResponseEntity.ok(CursorPage.of(rows, size, BookingController::recentCursor));
+            }
+            rows = bookingRequestRepository.findByAgentUserIdAndRequestIdGreaterThanOrderByRequestIdAsc(
+                    agentId, after == null ? 0L : after.id(), fetch);
+            return ResponseEntity.ok(CursorPage.of(rows, size, r -> new KeysetCursor(null, r.getRequestId())));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body("Error: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Keyset-paginated customer request history. Same parameters as /page.
+     */
+    @GetMapping("/requests/customer/{customerId}/page")
+    public ResponseEntity<?> getCustomerRequestsPage(@PathVariable Long customerId,
+                                                     @RequestParam(required = false) String cursor,
+                                                     @RequestParam(required = false) Integer limit,
+                                                     @RequestParam(required = false, defaultValue = CursorPage.SORT_ID) String sort) {
+        try {
+            int size = CursorPage.clampLimit(limit);
+            KeysetCursor after = KeysetCursor.decode(cursor);
+            Pageable fetch = PageRequest.ofSize(size + 1);
+
+            List<BookingRequest> rows;
+            if (CursorPage.isRecentFirst(sort)) {
+                rows = after == null
+                        ? bookingRequestRepository.findRecentByCustomer(customerId, fetch)
+                        : bookingRequestRepository.findRecentByCustomerBefore(customerId, after.sortKeyAsDateTime(), after.id(), fetch);
+                return ResponseEntity.ok(CursorPage.of(rows, size, BookingController::recentCursor));
+            }
+            rows = bookingRequestRepository.findByCustomerUserIdAndRequestIdGreaterThanOrderByRequestIdAsc(
+                    customerId, after == null ? 0L : after.id(), fetch);
+            return ResponseEntity.ok(CursorPage.of(rows, size, r -> new KeysetCursor(null, r.getRequestId())));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body("Error: " + e.getMessage());
+        }
+    }
+
+    private static KeysetCursor recentCursor(BookingRequest request) {
+        return new KeysetCursor(request.getRequestDate().toString(), request.getRequestId());
+    }
+
+    /**
+     * Submits a booking request. 'agentId' is optional: when it is missing (or "auto") the request
+     * is routed to the least-loaded agent by AgentAssignmentService.
+     * Idempotency-Key works as for /confirm.
+     */
     @PostMapping("/request")
-    public ResponseEntity<?> createBookingRequest(@RequestBody Map<String, Object> data) {
+    public CompletableFuture<ResponseEntity<?>> createBookingRequest(
+            @RequestBody Map<String, Object> data,
+            @RequestHeader(value = IdempotencyService.KEY_HEADER, required = false) String idempotencyKey) {
+        return idempotencyService.execute(idempotencyKey, "POST /api/bookings/request", data, () -> doCreateBookingRequest(data));
+    }
+
+    private ResponseEntity<?> doCreateBookingRequest(Map<String, Object> data) {
         try {
             BookingRequest request = new BookingRequest();
             request.setCustomer(userRepository.findById(Long.valueOf(data.get("customerId").toString())).orElseThrow());
-            request.setAgent(userRepository.findById(Long.valueOf(data.get("agentId").toString())).orElseThrow());
             request.setVehicleContract(contractRepository.findById(Long.valueOf(data.get("contractId").toString())).orElseThrow());
             request.setVehicleType(data.get("vehicleType").toString());
             request.setFinalPrice(new BigDecimal(data.get("finalPrice").toString()));
-            request.setStatus("PENDING");
+            request.setStatus(BookingRequest.STATUS_PENDING);
             request.setRequestDate(LocalDateTime.now());
-            bookingRequestRepository.save(request);
+
+            Object agentId = data.get("agentId");
+            Long countedAgentId;
+            if (agentId == null || agentId.toString().isBlank() || "auto".equalsIgnoreCase(agentId.toString())) {
+                countedAgentId = agentAssignmentService.assign();
+                request.setAgent(userRepository.getReferenceById(countedAgentId));
+            } else {
+                request.setAgent(userRepository.findById(Long.valueOf(agentId.toString())).orElseThrow());
+                countedAgentId = request.getAgent().getUserId();
+                agentAssignmentService.recordAssigned(countedAgentId);
+            }
+            try {
+                bookingRequestRepository.save(request);
+            } catch (RuntimeException e) {
+                agentAssignmentService.release(countedAgentId); // the request never reached the agent's queue
+                throw e;
+            }
+            eventPublisher.publishEvent(BookingRequestChangedEvent.created(BookingRequestSnapshot.of(request)));
             return ResponseEntity.ok("Request sent successfully!");
         } catch (Exception e) {
             return ResponseEntity.status(500).body("Error: " + e.getMessage());
@@ -195,11 +422,14 @@ public class BookingController {
     @PutMapping("/{id}")
     public ResponseEntity<?> updateBooking(@PathVariable Long id, @RequestBody Map<String, Object> data) {
         try {
-            Booking booking = bookingRepository.findById(id).orElseThrow();
-            if (data.containsKey("customerName")) booking.setCustomerName(data.get("customerName").toString());
-            if (data.containsKey("pickupDate")) booking.setPickupDate(LocalDate.parse(data.get("pickupDate").toString()));
-            bookingRepository.save(booking);
+            String customerName = data.containsKey("customerName") ? data.get("customerName").toString() : null;
+            LocalDate pickupDate = data.containsKey("pickupDate") ? LocalDate.parse(data.get("pickupDate").toString()) : null;
+            bookingService.updateBooking(id, customerName, pickupDate);
             return ResponseEntity.ok("Booking record updated successfully!");
+        } catch (CapacityExceededException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body("Error: " + e.getMessage());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body("Error: " + e.getMessage());
         } catch (Exception e) {
             return ResponseEntity.status(404).body("Booking not found: " + e.getMessage());
         }
@@ -208,8 +438,7 @@ public class BookingController {
     @DeleteMapping("/{id}")
     public ResponseEntity<?> deleteBooking(@PathVariable Long id) {
         try {
-            if (!bookingRepository.existsById(id)) return ResponseEntity.status(404).body("Record not found.");
-            bookingRepository.deleteById(id);
+            if (!bookingService.deleteBooking(id)) return ResponseEntity.status(404).body("Record not found.");
             return ResponseEntity.ok("Booking record deleted permanently!");
         } catch (Exception e) {
             return ResponseEntity.status(500).body("Error: " + e.getMessage());
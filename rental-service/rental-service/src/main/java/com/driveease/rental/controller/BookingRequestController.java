@@ -1,8 +1,13 @@
 package com.driveease.rental.controller;
 
+import com.driveease.rental.dto.BookingRequestSnapshot;
+import com.driveease.rental.event.BookingRequestChangedEvent;
 import com.driveease.rental.model.BookingRequest;
 import com.driveease.rental.repository.BookingRequestRepository;
+import com.driveease.rental.repository.UserRepository;
+import com.driveease.rental.service.AgentAssignmentService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.web.bind.annotation.*;
 
 import java.time.LocalDateTime;
@@ -20,20 +25,50 @@ public class BookingRequestController {
     @Autowired
     private BookingRequestRepository repository;
 
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private AgentAssignmentService agentAssignmentService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     /**
      * Handles the submission of a new booking inquiry by a customer.
      * Sets the default status to 'PENDING' and records the current timestamp.
+     * Requests without an agent are routed to the least-loaded agent (AgentAssignmentService).
      * * @param request The booking request data from the frontend
      * @return The saved BookingRequest entity with timestamp and pending status
      */
     @PostMapping("/send")
     public BookingRequest sendRequest(@RequestBody BookingRequest request) {
         // Initializing the inquiry state as 'PENDING' for Agent review
-        request.setStatus("PENDING");
+        request.setStatus(BookingRequest.STATUS_PENDING);
         // Recording the exact date and time the request was created
         request.setRequestDate(LocalDateTime.now());
+        Long countedAgentId;
+        boolean autoAssigned = request.getAgent() == null || request.getAgent().getUserId() == null;
+        if (autoAssigned) {
+            countedAgentId = agentAssignmentService.assign();
+        } else {
+            countedAgentId = request.getAgent().getUserId();
+            agentAssignmentService.recordAssigned(countedAgentId);
+        }
         // Persisting the inquiry to the database
-        return repository.save(request);
+        BookingRequest saved;
+        try {
+            if (autoAssigned) {
+                // Loaded, not just referenced: the agent is serialized with the response after the session closed
+                request.setAgent(userRepository.findById(countedAgentId).orElseThrow());
+            }
+            saved = repository.save(request);
+        } catch (RuntimeException e) {
+            agentAssignmentService.release(countedAgentId); // the request never reached the agent's queue
+            throw e;
+        }
+        eventPublisher.publishEvent(BookingRequestChangedEvent.created(BookingRequestSnapshot.of(saved)));
+        return saved;
     }
 
     /**
@@ -1,11 +1,17 @@
 package com.driveease.rental.controller;
 
+import com.driveease.rental.dto.CursorPage;
+import com.driveease.rental.dto.KeysetCursor;
 import com.driveease.rental.model.ContactMessage;
 import com.driveease.rental.repository.ContactRepository;
+import com.driveease.rental.service.ContactSearchIndex;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 /**
@@ -20,6 +26,9 @@ public class ContactController {
     @Autowired
     private ContactRepository contactRepository;
 
+    @Autowired
+    private ContactSearchIndex contactSearchIndex;
+
     /**
      * Receives and persists a contact message sent by a customer or visitor.
      * This endpoint is called when the user submits the contact form.
@@ -29,8 +38,12 @@ public class ContactController {
     @PostMapping("/send")
     public ResponseEntity<String> sendMessage(@RequestBody ContactMessage contactMessage) {
         try {
+            // The server's clock, never the client's (and never null: the inbox pages sort by it)
+            contactMessage.setSubmittedAt(LocalDateTime.now());
             // Persisting the incoming message object into the database
-            contactRepository.save(contactMessage);
+            ContactMessage saved = contactRepository.save(contactMessage);
+            // Searchable right away on this instance; other instances pick it up on their next catch-up
+            contactSearchIndex.add(saved);
             return ResponseEntity.ok("Message sent successfully!");
         } catch (Exception e) {
             // Returning a 400 Bad Request if something goes wrong during the save process
@@ -54,4 +67,54 @@ public class ContactController {
             return ResponseEntity.internalServerError().build();
         }
     }
+
+    /**
+     * Keyset-paginated alternative to /all, so the Admin Dashboard never has to load the whole inbox.
+     * * @param cursor The 'nextCursor' of the previous page (omit for the first page).
+     * @param limit Page size, capped at CursorPage.MAX_LIMIT.
+     * @param sort 'id' (default, oldest first) or 'recent' (newest first).
+     * @return One page of messages plus the cursor for the next one.
+     */
+    @GetMapping("/page")
+    public ResponseEntity<?> getMessagesPage(@RequestParam(required = false) String cursor,
+                                             @RequestParam(required = false) Integer limit,
+                                             @RequestParam(required = false, defaultValue = CursorPage.SORT_ID) String sort) {
+        try {
+            int size = CursorPage.clampLimit(limit);
+            KeysetCursor after = KeysetCursor.decode(cursor);
+            Pageable fetch = PageRequest.ofSize(size + 1);
+
+            if (CursorPage.isRecentFirst(sort)) {
+                List<ContactMessage> rows = after == null
+                        ? contactRepository.findRecentPage(fetch)
+                        : contactRepository.findRecentPageBefore(after.sortKeyAsDateTime(), after.id(), fetch);
+                return ResponseEntity.ok(CursorPage.of(rows, size,
+                        m -> new KeysetCursor(m.getSubmittedAt().toString(), m.getId())));
+            }
+
+            List<ContactMessage> rows = contactRepository.findByIdGreaterThanOrderByIdAsc(
+                    after == null ? 0L : after.id(), fetch);
+            return ResponseEntity.ok(CursorPage.of(rows, size, m -> new KeysetCursor(null, m.getId())));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body("Error: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Full-text search over the inbox (subject, message, sender name and email), best match first.
+     * Answered from the in-memory ContactSearchIndex; only the requested page of messages is loaded.
+     * * @param q Search terms; all of them must match, the last one also as a prefix.
+     * @param page Zero-based page number.
+     * @param limit Page size, capped at CursorPage.MAX_LIMIT.
+     * @return One page of matching messages plus the total number of matches.
+     */
+    @GetMapping("/search")
+    public ResponseEntity<?> searchMessages(@RequestParam String q,
+                                            @RequestParam(required = false, defaultValue = "0") int page,
+                                            @RequestParam(required = false) Integer limit) {
+        if (q.isBlank() || page < 0) {
+            return ResponseEntity.badRequest().body("Error: a search term and a page >= 0 are required");
+        }
+        return ResponseEntity.ok(contactSearchIndex.search(q, page, CursorPage.clampLimit(limit)));
+    }
 }
\ No newline at end of file
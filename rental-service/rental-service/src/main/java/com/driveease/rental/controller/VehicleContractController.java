@@ -1,9 +1,14 @@
 package com.driveease.rental.controller;
 
+import com.driveease.rental.event.ContractChangedEvent;
 import com.driveease.rental.model.VehicleContract;
 import com.driveease.rental.repository.VehicleContractRepository;
+import com.driveease.rental.service.DataVersions;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 import java.util.stream.Collectors;
@@ -16,17 +21,32 @@ public class VehicleContractController {
     @Autowired
     private VehicleContractRepository vehicleContractRepository;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private DataVersions dataVersions;
+
+    /**
+     * Answers 304 Not Modified without a query when the client's If-None-Match matches the fleet version.
+     */
     @GetMapping("/available")
-    public List<VehicleContract> getAvailableVehicles() {
-        return vehicleContractRepository.findAll().stream()
+    public ResponseEntity<List<VehicleContract>> getAvailableVehicles(WebRequest request) {
+        String etag = dataVersions.fleetTag();
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+        return ResponseEntity.ok().cacheControl(DataVersions.REVALIDATE).eTag(etag).body(vehicleContractRepository.findAll().stream()
                 // 🔥 FIX: boolean field එකක් නිසා කෙලින්ම v.getAvailabilityStatus() විතරක් දාන්න
                 // කලින් තිබ්බ '== 1' කෑල්ල අයින් කරන්න
                 .filter(v -> v.getAvailabilityStatus())
-                .collect(Collectors.toList());
+                .collect(Collectors.toList()));
     }
 
     @PostMapping("/add")
     public VehicleContract addVehicle(@RequestBody VehicleContract vehicle) {
-        return vehicleContractRepository.save(vehicle);
+        VehicleContract saved = vehicleContractRepository.save(vehicle);
+        eventPublisher.publishEvent(ContractChangedEvent.created(saved.getContractId(), saved.getVehicleType()));
+        return saved;
     }
 }
\ No newline at end of file
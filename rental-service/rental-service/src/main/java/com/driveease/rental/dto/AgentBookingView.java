@@ -0,0 +1,34 @@
+package com.driveease.rental.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Read-only projection for the agent's confirmed-bookings table.
+ * Spring Data fills it from a single joined select, so no entities (and no lazy associations) are loaded.
+ */
+public interface AgentBookingView {
+
+    Long getBookingId();
+
+    Long getContractId();
+
+    String getVehicleType();
+
+    Long getCustomerId();
+
+    String getCustomerUsername();
+
+    String getCustomerName();
+
+    LocalDate getPickupDate();
+
+    int getRentalDays();
+
+    int getVehicleCount();
+
+    BigDecimal getFinalPrice();
+
+    LocalDateTime getBookingDate();
+}
@@ -0,0 +1,19 @@
+package com.driveease.rental.dto;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Body of POST /api/bookings/quotes.
+ * Prices every available contract of the requested types for each (days, count) scenario in one call,
+ * so the fleet comparison view does not have to repeat /search for every combination.
+ * @param types Vehicle types to include (case-insensitive); null, empty or "All" means every type.
+ * @param pickupDate Optional pickup date; contracts already booked for a scenario's window get a null price.
+ * @param scenarios The (days, count) combinations to price, at most MAX_SCENARIOS.
+ */
+public record BatchQuoteRequest(List<String> types, LocalDate pickupDate, List<Scenario> scenarios) {
+
+    public static final int MAX_SCENARIOS = 50;
+
+    public record Scenario(int days, int count) { }
+}
@@ -0,0 +1,16 @@
+package com.driveease.rental.dto;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Compact price matrix returned by POST /api/bookings/quotes.
+ * prices[v][s] is the final price of vehicles[v] for scenarios[s]
+ * (null when that vehicle is already booked during the scenario's window).
+ */
+public record BatchQuoteResponse(List<BatchQuoteRequest.Scenario> scenarios,
+                                 List<Vehicle> vehicles,
+                                 BigDecimal[][] prices) {
+
+    public record Vehicle(Long contractId, String vehicleType, String providerName, BigDecimal baseRate) { }
+}
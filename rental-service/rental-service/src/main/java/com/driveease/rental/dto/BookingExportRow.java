@@ -0,0 +1,39 @@
+package com.driveease.rental.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * One flat line of the booking history export.
+ * Rows are produced by a constructor query, so they are never attached to the
+ * persistence context and memory stays constant while millions of rows stream through.
+ */
+public record BookingExportRow(
+        Long bookingId,
+        Long contractId,
+        String vehicleType,
+        Long agentId,
+        Long customerId,
+        String customerName,
+        LocalDate pickupDate,
+        int rentalDays,
+        int vehicleCount,
+        BigDecimal finalPrice,
+        LocalDateTime bookingDate) {
+
+    /**
+     * Column order used for the CSV header and for every CSV line.
+     */
+    public static final String[] CSV_HEADER = {
+            "bookingId", "contractId", "vehicleType", "agentId", "customerId", "customerName",
+            "pickupDate", "rentalDays", "vehicleCount", "finalPrice", "bookingDate"
+    };
+
+    public Object[] csvValues() {
+        return new Object[] {
+                bookingId, contractId, vehicleType, agentId, customerId, customerName,
+                pickupDate, rentalDays, vehicleCount, finalPrice, bookingDate
+        };
+    }
+}
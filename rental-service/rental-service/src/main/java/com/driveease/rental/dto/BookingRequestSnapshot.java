@@ -0,0 +1,38 @@
+package com.driveease.rental.dto;
+
+import com.driveease.rental.model.BookingRequest;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Immutable, flat copy of a booking request, attached to BookingRequestChangedEvent.
+ * Only the IDs of the linked customer, agent and contract are kept, so lazy proxies stay uninitialized.
+ */
+public record BookingRequestSnapshot(
+        Long requestId,
+        Long customerId,
+        Long agentId,
+        Long contractId,
+        String vehicleType,
+        BigDecimal finalPrice,
+        String status,
+        LocalDateTime requestDate) {
+
+    public static BookingRequestSnapshot of(BookingRequest request) {
+        return new BookingRequestSnapshot(
+                request.getRequestId(),
+                request.getCustomer() != null ? request.getCustomer().getUserId() : null,
+                request.getAgent() != null ? request.getAgent().getUserId() : null,
+                request.getVehicleContract() != null ? request.getVehicleContract().getContractId() : null,
+                request.getVehicleType(),
+                request.getFinalPrice(),
+                request.getStatus(),
+                request.getRequestDate()
+        );
+    }
+
+    public boolean isPending() {
+        return BookingRequest.STATUS_PENDING.equals(status);
+    }
+}
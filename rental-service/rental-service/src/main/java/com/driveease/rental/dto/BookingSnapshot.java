@@ -0,0 +1,37 @@
+package com.driveease.rental.dto;
+
+import com.driveease.rental.model.Booking;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Immutable, flat copy of the booking columns that in-memory indexes care about.
+ * It is loaded straight from the 'booking' table with a constructor query (no joins)
+ * and attached to booking change events so listeners never touch JPA entities.
+ */
+public record BookingSnapshot(
+        Long bookingId,
+        Long contractId,
+        Long agentId,
+        LocalDate pickupDate,
+        int rentalDays,
+        int vehicleCount,
+        BigDecimal finalPrice) {
+
+    /**
+     * Copies the relevant fields of a Booking entity.
+     * Only the IDs of the linked contract and agent are read, so lazy proxies stay uninitialized.
+     */
+    public static BookingSnapshot of(Booking booking) {
+        return new BookingSnapshot(
+                booking.getBookingId(),
+                booking.getVehicleContract() != null ? booking.getVehicleContract().getContractId() : null,
+                booking.getAgent() != null ? booking.getAgent().getUserId() : null,
+                booking.getPickupDate(),
+                booking.getRentalDays(),
+                booking.getVehicleCount(),
+                booking.getFinalPrice()
+        );
+    }
+}
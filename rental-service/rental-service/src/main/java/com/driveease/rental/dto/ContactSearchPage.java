@@ -0,0 +1,11 @@
+package com.driveease.rental.dto;
+
+import com.driveease.rental.model.ContactMessage;
+
+import java.util.List;
+
+/**
+ * One page of a ranked contact message search, best match first.
+ * 'total' counts every message matching the query, so the dashboard can show the number of pages.
+ */
+public record ContactSearchPage(List<ContactMessage> items, int total, int page, int limit) { }
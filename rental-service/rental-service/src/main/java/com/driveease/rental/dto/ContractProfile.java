@@ -0,0 +1,14 @@
+package com.driveease.rental.dto;
+
+/**
+ * The grouping attributes of one vehicle contract (provider, type, owning agent) plus its unit count.
+ * Loaded with a constructor query, so the utilization engine never holds JPA entities.
+ */
+public record ContractProfile(
+        Long contractId,
+        String vehicleType,
+        Long providerId,
+        String providerName,
+        Long agentId,
+        String agentName,
+        int totalUnits) { }
@@ -0,0 +1,64 @@
+package com.driveease.rental.dto;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * One page of a keyset-paginated list.
+ * 'nextCursor' is passed back as the 'cursor' request parameter to fetch the following page;
+ * it is null once the end of the list has been reached.
+ */
+public record CursorPage<T>(List<T> items, String nextCursor, boolean hasMore) {
+
+    public static final int DEFAULT_LIMIT = 50;
+    public static final int MAX_LIMIT = 200;
+
+    /**
+     * Primary key order (oldest first). This is the default ordering.
+     */
+    public static final String SORT_ID = "id";
+
+    /**
+     * Creation timestamp order (newest first), with the primary key as tie-breaker.
+     */
+    public static final String SORT_RECENT = "recent";
+
+    /**
+     * Keeps the requested page size within [1, MAX_LIMIT], defaulting to DEFAULT_LIMIT.
+     */
+    public static int clampLimit(Integer requested) {
+        if (requested == null) {
+            return DEFAULT_LIMIT;
+        }
+        return Math.max(1, Math.min(MAX_LIMIT, requested));
+    }
+
+    /**
+     * Validates the 'sort' request parameter.
+     * @return true for the newest-first ordering, false for primary key ordering.
+     * @throws IllegalArgumentException for any other value.
+     */
+    public static boolean isRecentFirst(String sort) {
+        if (sort == null || sort.isBlank() || SORT_ID.equalsIgnoreCase(sort)) {
+            return false;
+        }
+        if (SORT_RECENT.equalsIgnoreCase(sort)) {
+            return true;
+        }
+        throw new IllegalArgumentException("Unsupported sort: " + sort + " (use 'id' or 'recent')");
+    }
+
+    /**
+     * Builds a page from a query that fetched 'limit + 1' rows.
+     * The extra row only signals that another page exists and is not returned.
+     * @param rows Rows in seek order, at most limit + 1 of them.
+     * @param limit The page size the client asked for.
+     * @param cursorOf Extracts the seek position of a row.
+     */
+    public static <T> CursorPage<T> of(List<T> rows, int limit, Function<T, KeysetCursor> cursorOf) {
+        boolean hasMore = rows.size() > limit;
+        List<T> items = hasMore ? rows.subList(0, limit) : rows;
+        String nextCursor = hasMore ? cursorOf.apply(items.get(items.size() - 1)).encode() : null;
+        return new CursorPage<>(List.copyOf(items), nextCursor, hasMore);
+    }
+}
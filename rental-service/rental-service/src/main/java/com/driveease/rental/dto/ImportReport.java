@@ -0,0 +1,16 @@
+package com.driveease.rental.dto;
+
+import java.util.List;
+
+/**
+ * Outcome of a bulk import.
+ * 'errors' lists the first MAX_REPORTED_ERRORS rejected rows (by line number in the uploaded file);
+ * 'errorsTruncated' is true when more rows failed than are listed.
+ */
+public record ImportReport(long processed, long imported, long failed,
+                           List<RowError> errors, boolean errorsTruncated) {
+
+    public static final int MAX_REPORTED_ERRORS = 1000;
+
+    public record RowError(long line, String message) { }
+}
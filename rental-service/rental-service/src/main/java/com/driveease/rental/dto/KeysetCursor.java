@@ -0,0 +1,55 @@
+package com.driveease.rental.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * Opaque position marker for keyset (seek) pagination.
+ * It stores the sort key of the last row a client has seen (e.g. its timestamp)
+ * plus the row's primary key as a tie-breaker, encoded as URL-safe Base64.
+ * For plain ID ordering the sort key is null and only the ID is used.
+ */
+public record KeysetCursor(String sortKey, long id) {
+
+    private static final char SEPARATOR = '|';
+
+    /**
+     * Encodes the cursor into the token handed back to the client as 'nextCursor'.
+     */
+    public String encode() {
+        String raw = (sortKey != null ? sortKey : "") + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Reads the sort key of a cursor issued by a date-ordered ("recent") listing.
+     * @throws IllegalArgumentException if the cursor came from a different ordering.
+     */
+    public LocalDateTime sortKeyAsDateTime() {
+        try {
+            return LocalDateTime.parse(sortKey);
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Cursor does not belong to a date-sorted listing");
+        }
+    }
+
+    /**
+     * Decodes a client supplied token.
+     * @return null for an empty token (first page).
+     * @throws IllegalArgumentException if the token was not produced by encode().
+     */
+    public static KeysetCursor decode(String token) {
+        if (token == null || token.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int split = raw.lastIndexOf(SEPARATOR);
+            String sortKey = raw.substring(0, split);
+            return new KeysetCursor(sortKey.isEmpty() ? null : sortKey, Long.parseLong(raw.substring(split + 1)));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + token);
+        }
+    }
+}
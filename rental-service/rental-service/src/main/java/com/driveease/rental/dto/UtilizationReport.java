@@ -0,0 +1,25 @@
+package com.driveease.rental.dto;
+
+import java.time.LocalDate;
+
+/**
+ * Fleet utilization of one group (a contract, provider, vehicle type or agent) over [from, to], both inclusive.
+ * - bookedUnitDays: units booked, summed over every day of the range.
+ * - capacityUnitDays: totalUnits x days; utilizationPercent is bookedUnitDays against it.
+ * - idleDays: days on which no unit of the group was booked.
+ * - peakUnits / peakDate: the most units booked at once, and the first day it happened (null when idle throughout).
+ */
+public record UtilizationReport(
+        String key,
+        String label,
+        int contracts,
+        int totalUnits,
+        LocalDate from,
+        LocalDate to,
+        int days,
+        long bookedUnitDays,
+        long capacityUnitDays,
+        double utilizationPercent,
+        int idleDays,
+        int peakUnits,
+        LocalDate peakDate) { }
@@ -0,0 +1,23 @@
+package com.driveease.rental.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * Read-only projection holding exactly the columns the public search page needs.
+ * The provider name comes from a LEFT JOIN in the same select, so building search rows
+ * never triggers a per-contract provider lookup.
+ */
+public interface VehicleSearchView {
+
+    Long getContractId();
+
+    String getVehicleType();
+
+    BigDecimal getBaseRatePerDay();
+
+    boolean isAvailabilityStatus();
+
+    String getProviderName();
+
+    int getTotalUnits();
+}
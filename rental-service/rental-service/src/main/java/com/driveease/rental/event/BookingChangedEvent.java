@@ -0,0 +1,20 @@
+package com.driveease.rental.event;
+
+import com.driveease.rental.dto.BookingSnapshot;
+
+/**
+ * Published whenever a Booking row is inserted, updated or deleted.
+ * - Insert: 'before' is null.
+ * - Delete: 'after' is null.
+ * - Update: both are present, so listeners can undo the old state and apply the new one.
+ */
+public record BookingChangedEvent(BookingSnapshot before, BookingSnapshot after) {
+
+    public static BookingChangedEvent created(BookingSnapshot after) {
+        return new BookingChangedEvent(null, after);
+    }
+
+    public static BookingChangedEvent deleted(BookingSnapshot before) {
+        return new BookingChangedEvent(before, null);
+    }
+}
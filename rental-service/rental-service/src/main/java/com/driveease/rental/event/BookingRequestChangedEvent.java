@@ -0,0 +1,15 @@
+package com.driveease.rental.event;
+
+import com.driveease.rental.dto.BookingRequestSnapshot;
+
+/**
+ * Published whenever a BookingRequest is submitted or its status/agent changes.
+ * - Submit: 'before' is null.
+ * - Update (e.g. PENDING -> APPROVED): both are present.
+ */
+public record BookingRequestChangedEvent(BookingRequestSnapshot before, BookingRequestSnapshot after) {
+
+    public static BookingRequestChangedEvent created(BookingRequestSnapshot after) {
+        return new BookingRequestChangedEvent(null, after);
+    }
+}
@@ -0,0 +1,20 @@
+package com.driveease.rental.event;
+
+/**
+ * Published whenever a VehicleContract is added, edited or removed, and for each contract of a provider
+ * that is edited or removed (same type before and after).
+ * Carries the vehicle type before and after the change so caches can evict
+ * only the categories that were actually affected.
+ * - Insert: 'typeBefore' is null.
+ * - Delete: 'typeAfter' is null.
+ */
+public record ContractChangedEvent(Long contractId, String typeBefore, String typeAfter) {
+
+    public static ContractChangedEvent created(Long contractId, String type) {
+        return new ContractChangedEvent(contractId, null, type);
+    }
+
+    public static ContractChangedEvent deleted(Long contractId, String type) {
+        return new ContractChangedEvent(contractId, type, null);
+    }
+}
@@ -12,22 +12,42 @@ import java.time.LocalDateTime;
  */
 @Entity
 @Table(name = "booking_request")
+@NamedEntityGraph(
+        name = BookingRequest.GRAPH_DETAILS,
+        attributeNodes = {
+                @NamedAttributeNode("customer"),
+                @NamedAttributeNode("agent"),
+                @NamedAttributeNode(value = "vehicleContract", subgraph = "contract")
+        },
+        subgraphs = @NamedSubgraph(name = "contract",
+                attributeNodes = {@NamedAttributeNode("provider"), @NamedAttributeNode("agent")})
+)
 @Data // Lombok annotation to automatically generate getters, setters, and other utility methods
 public class BookingRequest {
 
+    /**
+     * Fetch plan for the agent/customer request lists: all associations joined in one statement.
+     */
+    public static final String GRAPH_DETAILS = "BookingRequest.withDetails";
+
+    public static final String STATUS_PENDING = "PENDING";
+    public static final String STATUS_APPROVED = "APPROVED";
+
     /**
      * Primary Key: Unique ID for each booking inquiry.
-     * Automatically generated by the database using an identity column.
+     * Taken from the 'booking_request' row of the id_generator table.
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "booking_request_id")
+    @TableGenerator(name = "booking_request_id", table = IdGenerators.TABLE, pkColumnName = IdGenerators.NAME_COLUMN,
+            valueColumnName = IdGenerators.VALUE_COLUMN, pkColumnValue = "booking_request", allocationSize = IdGenerators.ALLOCATION_SIZE)
     private Long requestId;
 
     /**
      * Relationship to the Customer who initiated the request.
      * Maps to the 'customer_id' column in the database.
      */
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "customer_id")
     private User customer;
 
@@ -35,14 +55,14 @@ public class BookingRequest {
      * Relationship to the specific Support Agent assigned to handle this request.
      * Each request is routed to a selected agent for approval.
      */
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "agent_id")
     private User agent;
 
     /**
      * Link to the specific Vehicle Contract (the car listing) being requested.
      */
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "contract_id")
     private VehicleContract vehicleContract;
 
@@ -60,11 +80,13 @@ public class BookingRequest {
      * The lifecycle status of the request.
      * Defaults to "PENDING" upon creation.
      */
-    private String status = "PENDING";
+    private String status = STATUS_PENDING;
 
     /**
      * Records the exact date and time the request was submitted.
      * Initialized to current system time by default.
+     * Never null: it is the sort key of the newest-first request pages.
      */
+    @Column(nullable = false)
     private LocalDateTime requestDate = LocalDateTime.now();
 }
\ No newline at end of file
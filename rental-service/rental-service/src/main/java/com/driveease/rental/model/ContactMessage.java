@@ -15,10 +15,12 @@ public class ContactMessage {
 
     /**
      * Unique Identifier for each message.
-     * GenerationType.IDENTITY ensures the ID is auto-incremented by the database.
+     * Comes from the 'contact_message' row of the id_generator table.
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "contact_message_id")
+    @TableGenerator(name = "contact_message_id", table = IdGenerators.TABLE, pkColumnName = IdGenerators.NAME_COLUMN,
+            valueColumnName = IdGenerators.VALUE_COLUMN, pkColumnValue = "contact_message", allocationSize = IdGenerators.ALLOCATION_SIZE)
     private Long id;
 
     /**
@@ -48,6 +50,8 @@ public class ContactMessage {
     /**
      * Automatically records the exact timestamp when the message was sent.
      * Initialized to current system time by default.
+     * Never null: it is the sort key of the newest-first inbox pages.
      */
+    @Column(nullable = false)
     private LocalDateTime submittedAt = LocalDateTime.now();
 }
\ No newline at end of file
@@ -13,10 +13,12 @@ public class Customer {
 
     /**
      * Primary Key: Unique identifier for each customer.
-     * GenerationType.IDENTITY enables the database to auto-increment the ID.
+     * Generated through the shared id_generator table (see IdGenerators).
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "customer_id")
+    @TableGenerator(name = "customer_id", table = IdGenerators.TABLE, pkColumnName = IdGenerators.NAME_COLUMN,
+            valueColumnName = IdGenerators.VALUE_COLUMN, pkColumnValue = "customer", allocationSize = IdGenerators.ALLOCATION_SIZE)
     private Long customerId;
 
     /**
@@ -0,0 +1,73 @@
+package com.driveease.rental.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import java.time.LocalDateTime;
+
+/**
+ * The EmailOutbox entity is a queued outgoing email (transactional outbox pattern).
+ * Rows are inserted in the same database transaction as the business change that
+ * triggers them (e.g. a confirmed Booking) and are delivered later by the
+ * EmailOutboxDispatcher, so request threads never wait on SMTP.
+ */
+@Entity
+@Table(name = "email_outbox")
+@Data // Lombok annotation to automatically generate getters, setters, and other utility methods
+public class EmailOutbox {
+
+    public static final String STATUS_PENDING = "PENDING";
+    public static final String STATUS_SENT = "SENT";
+    public static final String STATUS_FAILED = "FAILED";
+
+    /**
+     * Primary Key: Unique ID for each queued email.
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "email_outbox_id")
+    @TableGenerator(name = "email_outbox_id", table = IdGenerators.TABLE, pkColumnName = IdGenerators.NAME_COLUMN,
+            valueColumnName = IdGenerators.VALUE_COLUMN, pkColumnValue = "email_outbox", allocationSize = IdGenerators.ALLOCATION_SIZE)
+    private Long id;
+
+    /**
+     * Destination email address.
+     */
+    @Column(nullable = false)
+    private String recipient;
+
+    /**
+     * Template variables for the 'booking-confirmation' email.
+     */
+    private String customerName;
+    private String vehicle;
+    private String pickupDate;
+    private String price;
+
+    /**
+     * PENDING until delivered (SENT) or until all retries are used up (FAILED).
+     */
+    @Column(nullable = false)
+    private String status = STATUS_PENDING;
+
+    /**
+     * Number of delivery attempts made so far.
+     */
+    private int attempts;
+
+    /**
+     * Earliest time the dispatcher may (re)try this email.
+     * Also used as a short lease while a dispatcher is working on the row.
+     */
+    @Column(nullable = false)
+    private LocalDateTime nextAttemptAt = LocalDateTime.now();
+
+    /**
+     * Error message of the most recent failed attempt, for troubleshooting.
+     */
+    @Column(length = 1000)
+    private String lastError;
+
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt = LocalDateTime.now();
+
+    private LocalDateTime sentAt;
+}
@@ -0,0 +1,23 @@
+package com.driveease.rental.model;
+
+/**
+ * Shared settings for primary key generation.
+ * MySQL has no sequences, so every entity draws its IDs from one row of the 'id_generator' table
+ * (sequence_name = table name, next_val = next value to hand out).
+ * Hibernate reserves ALLOCATION_SIZE IDs per round trip ("pooled" optimizer) and knows IDs before the INSERT,
+ * which lets it group INSERT statements into JDBC batches (IDENTITY columns disable insert batching).
+ * Existing tables are kept in step by IdGeneratorAligner at startup.
+ */
+public final class IdGenerators {
+
+    public static final String TABLE = "id_generator";
+    public static final String NAME_COLUMN = "sequence_name";
+    public static final String VALUE_COLUMN = "next_val";
+
+    /**
+     * IDs reserved per trip to the generator table. Matches hibernate.jdbc.batch_size.
+     */
+    public static final int ALLOCATION_SIZE = 50;
+
+    private IdGenerators() { }
+}
@@ -1,5 +1,6 @@
 package com.driveease.rental.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.*;
 import lombok.Data;
 
@@ -11,14 +12,17 @@ import lombok.Data;
 @Entity
 @Table(name = "provider")
 @Data // Lombok annotation: Automatically generates Getters, Setters, toString, and RequiredArgsConstructor
+@JsonIgnoreProperties({"hibernateLazyInitializer", "handler"}) // Lets Jackson serialize lazy proxies
 public class Provider {
 
     /**
      * Primary Key: Unique identifier for each car provider.
-     * GenerationType.IDENTITY ensures the database handles the auto-increment logic.
+     * Assigned by Hibernate from the id_generator table before the row is inserted.
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "provider_id")
+    @TableGenerator(name = "provider_id", table = IdGenerators.TABLE, pkColumnName = IdGenerators.NAME_COLUMN,
+            valueColumnName = IdGenerators.VALUE_COLUMN, pkColumnValue = "provider", allocationSize = IdGenerators.ALLOCATION_SIZE)
     private Long providerId;
 
     /**
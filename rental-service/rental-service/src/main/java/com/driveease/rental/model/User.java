@@ -1,5 +1,6 @@
 package com.driveease.rental.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -10,10 +11,13 @@ import lombok.NoArgsConstructor;
 @Data
 @NoArgsConstructor  // 🔥 JPA ekata aniwaaryenma empty constructor ekak oni
 @AllArgsConstructor // 🔥 Testing waladi lesi wenna
+@JsonIgnoreProperties({"hibernateLazyInitializer", "handler"}) // Lets Jackson serialize lazy proxies
 public class User {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "user_id")
+    @TableGenerator(name = "user_id", table = IdGenerators.TABLE, pkColumnName = IdGenerators.NAME_COLUMN,
+            valueColumnName = IdGenerators.VALUE_COLUMN, pkColumnValue = "user", allocationSize = IdGenerators.ALLOCATION_SIZE)
     @Column(name = "user_id") // 🔥 Database eke thiyena 'user_id' ekata manual map kala
     private Long userId;
 
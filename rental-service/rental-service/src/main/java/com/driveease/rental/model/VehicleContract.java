@@ -1,6 +1,9 @@
 package com.driveease.rental.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.*;
+import org.hibernate.annotations.ColumnDefault;
 import java.math.BigDecimal;
 
 /**
@@ -10,14 +13,17 @@ import java.math.BigDecimal;
  */
 @Entity
 @Table(name = "vehicle_contract")
+@JsonIgnoreProperties({"hibernateLazyInitializer", "handler"}) // Lets Jackson serialize lazy proxies
 public class VehicleContract {
 
     /**
      * Unique Identifier for each vehicle contract.
-     * GenerationType.IDENTITY ensures the DB handles auto-incrementing the ID.
+     * Reserved in blocks from the id_generator table, which lets bulk imports batch their INSERTs.
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "vehicle_contract_id")
+    @TableGenerator(name = "vehicle_contract_id", table = IdGenerators.TABLE, pkColumnName = IdGenerators.NAME_COLUMN,
+            valueColumnName = IdGenerators.VALUE_COLUMN, pkColumnValue = "vehicle_contract", allocationSize = IdGenerators.ALLOCATION_SIZE)
     private Long contractId;
 
     /**
@@ -42,11 +48,26 @@ public class VehicleContract {
      */
     private boolean availabilityStatus;
 
+    /**
+     * Number of identical vehicles rentable under this contract at the same time.
+     * A booking of 'vehicleCount' units fits when every day of its window still has that many units free.
+     */
+    @ColumnDefault("1")
+    @Column(nullable = false)
+    private int totalUnits = 1;
+
+    /**
+     * Optimistic version, incremented by every reservation (see ReservationService) and every edit.
+     * Lets application instances detect bookings written by another instance.
+     */
+    @Version
+    private long version;
+
     /**
      * Relationship to the Provider (Supplier) who owns the vehicle.
      * Multiple contracts can belong to a single provider (Many-to-One).
      */
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "provider_id")
     private Provider provider;
 
@@ -54,7 +75,7 @@ public class VehicleContract {
      * Relationship to the Support Agent assigned to manage this vehicle's inventory.
      * This connection allows filtering inventory based on the logged-in agent.
      */
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "agent_id")
     private User agent;
 
@@ -71,12 +92,21 @@ public class VehicleContract {
     public BigDecimal getBaseRatePerDay() { return baseRatePerDay; }
     public void setBaseRatePerDay(BigDecimal baseRatePerDay) { this.baseRatePerDay = baseRatePerDay; }
 
+    public int getAllowedMileage() { return allowedMileage; }
+    public void setAllowedMileage(int allowedMileage) { this.allowedMileage = allowedMileage; }
+
     // 🔥 Added this to fix Controller build error
     public boolean getAvailabilityStatus() { return availabilityStatus; }
 
     public boolean isAvailabilityStatus() { return availabilityStatus; }
     public void setAvailabilityStatus(boolean availabilityStatus) { this.availabilityStatus = availabilityStatus; }
 
+    public int getTotalUnits() { return totalUnits; }
+    public void setTotalUnits(int totalUnits) { this.totalUnits = totalUnits; }
+
+    @JsonIgnore // bumped by every reservation (bulk update), not part of what clients see
+    public long getVersion() { return version; }
+
     public Provider getProvider() { return provider; }
     public void setProvider(Provider provider) { this.provider = provider; }
 
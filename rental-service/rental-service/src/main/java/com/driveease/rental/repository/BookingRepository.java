@@ -1,12 +1,24 @@
 package com.driveease.rental.repository;
 
+import com.driveease.rental.dto.AgentBookingView;
+import com.driveease.rental.dto.BookingExportRow;
+import com.driveease.rental.dto.BookingSnapshot;
 import com.driveease.rental.model.Booking;
 import com.driveease.rental.model.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Stream;
 
 /**
  * BookingRepository acts as the Data Access Object (DAO) for the Booking Entity.
@@ -29,8 +41,94 @@ public interface BookingRepository extends JpaRepository<Booking, Long> {
     /**
      * Specialized Filter: Retrieves all bookings based on the Agent's unique User ID.
      * This allows the system to filter the agent's confirmed transactions directly.
+     * The entity graph joins contract, provider, customer and agent into the same select.
      */
-    List<Booking> findByAgentUserId(Long agentId);
+    @EntityGraph(Booking.GRAPH_DETAILS)
+    @Query("SELECT b FROM Booking b WHERE b.agent.userId = :agentId") // filter on booking.agent_id, not on a join
+    List<Booking> findByAgentUserId(@Param("agentId") Long agentId);
+
+    /**
+     * Every booking with its associations joined in (used by the Admin Dashboard).
+     */
+    @Override
+    @EntityGraph(Booking.GRAPH_DETAILS)
+    List<Booking> findAll();
+
+    /**
+     * Lightweight projection of an agent's bookings for dashboard tables (newest first).
+     */
+    @Query("SELECT b.bookingId AS bookingId, c.contractId AS contractId, c.vehicleType AS vehicleType, " +
+           "cu.userId AS customerId, cu.username AS customerUsername, b.customerName AS customerName, " +
+           "b.pickupDate AS pickupDate, b.rentalDays AS rentalDays, b.vehicleCount AS vehicleCount, " +
+           "b.finalPrice AS finalPrice, b.bookingDate AS bookingDate " +
+           "FROM Booking b JOIN b.vehicleContract c LEFT JOIN b.customer cu " +
+           "WHERE b.agent.userId = :agentId ORDER BY b.bookingId DESC")
+    List<AgentBookingView> findAgentBookingViews(@Param("agentId") Long agentId);
+
+    /**
+     * Loads a flat snapshot of every booking without touching the linked entities.
+     * Used to build the in-memory AvailabilityIndex at startup.
+     */
+    @Query("SELECT new com.driveease.rental.dto.BookingSnapshot(b.bookingId, b.vehicleContract.contractId, " +
+           "b.agent.userId, b.pickupDate, b.rentalDays, b.vehicleCount, b.finalPrice) FROM Booking b")
+    List<BookingSnapshot> findAllSnapshots();
+
+    /**
+     * Same as findAllSnapshots, for a single contract (used to refresh one contract in the AvailabilityIndex).
+     */
+    @Query("SELECT new com.driveease.rental.dto.BookingSnapshot(b.bookingId, b.vehicleContract.contractId, " +
+           "b.agent.userId, b.pickupDate, b.rentalDays, b.vehicleCount, b.finalPrice) FROM Booking b " +
+           "WHERE b.vehicleContract.contractId = :contractId")
+    List<BookingSnapshot> findSnapshotsByContract(@Param("contractId") Long contractId);
+
+    // ========================================================================
+    // KEYSET PAGINATION (seek on the primary key, optionally after a sort key)
+    // ========================================================================
+
+    /**
+     * Next page in primary key order. Pass 0 as 'afterId' for the first page.
+     */
+    @EntityGraph(Booking.GRAPH_DETAILS)
+    List<Booking> findByBookingIdGreaterThanOrderByBookingIdAsc(Long afterId, Pageable page);
+
+    /**
+     * First page of the newest-first listing.
+     */
+    @EntityGraph(Booking.GRAPH_DETAILS)
+    @Query("SELECT b FROM Booking b ORDER BY b.bookingDate DESC, b.bookingId DESC")
+    List<Booking> findRecentPage(Pageable page);
+
+    /**
+     * Following pages of the newest-first listing, seeking past (bookingDate, bookingId) of the last seen row.
+     */
+    @EntityGraph(Booking.GRAPH_DETAILS)
+    @Query("SELECT b FROM Booking b WHERE b.bookingDate < :date OR (b.bookingDate = :date AND b.bookingId < :id) " +
+           "ORDER BY b.bookingDate DESC, b.bookingId DESC")
+    List<Booking> findRecentPageBefore(@Param("date") LocalDateTime date, @Param("id") Long id, Pageable page);
+
+    // ========================================================================
+    // STREAMING EXPORT
+    // ========================================================================
+
+    /**
+     * Forward-only stream of flat export rows, optionally filtered by pickup date range and agent.
+     * A fetch size of Integer.MIN_VALUE makes MySQL Connector/J stream rows one by one instead of
+     * buffering the whole result set. Must be consumed inside a read-only transaction and closed afterwards.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT new com.driveease.rental.dto.BookingExportRow(b.bookingId, c.contractId, c.vehicleType, " +
+           "a.userId, cu.userId, b.customerName, b.pickupDate, b.rentalDays, b.vehicleCount, b.finalPrice, b.bookingDate) " +
+           "FROM Booking b JOIN b.vehicleContract c JOIN b.agent a LEFT JOIN b.customer cu " +
+           "WHERE (:from IS NULL OR b.pickupDate >= :from) " +
+           "AND (:to IS NULL OR b.pickupDate <= :to) " +
+           "AND (:agentId IS NULL OR a.userId = :agentId) " +
+           "ORDER BY b.bookingId")
+    Stream<BookingExportRow> streamExportRows(@Param("from") LocalDate from,
+                                              @Param("to") LocalDate to,
+                                              @Param("agentId") Long agentId);
 
     // ========================================================================
     // ANALYTICS & REPORTING QUERIES (Used for Admin Dashboard)
@@ -1,7 +1,13 @@
 package com.driveease.rental.repository;
 
 import com.driveease.rental.model.BookingRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
 import java.util.List;
 
 /**
@@ -13,10 +19,15 @@ public interface BookingRequestRepository extends JpaRepository<BookingRequest,
     /**
      * Retrieves all booking requests assigned to a specific Support Agent.
      * This is used by the Agent Dashboard to display their personalized task queue.
+     * Customer, agent, contract and provider are joined into the same select (see GRAPH_DETAILS).
      * * @param agentId The unique ID of the Support Agent.
      * @return A list of inquiries assigned to that specific agent.
      */
-    List<BookingRequest> findByAgentUserId(Long agentId);
+    // Written out because the derived query filters on a second join of the user table instead of
+    // booking_request.agent_id, which keeps the agent index from being used (see QueryPlanTest)
+    @EntityGraph(BookingRequest.GRAPH_DETAILS)
+    @Query("SELECT r FROM BookingRequest r WHERE r.agent.userId = :agentId")
+    List<BookingRequest> findByAgentUserId(@Param("agentId") Long agentId);
 
     /**
      * Filters and retrieves all booking requests submitted by a specific Customer.
@@ -24,5 +35,59 @@ public interface BookingRequestRepository extends JpaRepository<BookingRequest,
      * * @param customerId The unique ID of the Customer.
      * @return A list of requests made by the customer.
      */
-    List<BookingRequest> findByCustomerUserId(Long customerId);
-}
\ No newline at end of file
+    @EntityGraph(BookingRequest.GRAPH_DETAILS)
+    @Query("SELECT r FROM BookingRequest r WHERE r.customer.userId = :customerId")
+    List<BookingRequest> findByCustomerUserId(@Param("customerId") Long customerId);
+
+    // ========================================================================
+    // KEYSET PAGINATION (seek on the primary key, optionally after requestDate)
+    // ========================================================================
+
+    @EntityGraph(BookingRequest.GRAPH_DETAILS)
+    @Query("SELECT r FROM BookingRequest r WHERE r.agent.userId = :agentId AND r.requestId > :afterId ORDER BY r.requestId")
+    List<BookingRequest> findByAgentUserIdAndRequestIdGreaterThanOrderByRequestIdAsc(@Param("agentId") Long agentId,
+                                                                                     @Param("afterId") Long afterId, Pageable page);
+
+    @EntityGraph(BookingRequest.GRAPH_DETAILS)
+    @Query("SELECT r FROM BookingRequest r WHERE r.customer.userId = :customerId AND r.requestId > :afterId ORDER BY r.requestId")
+    List<BookingRequest> findByCustomerUserIdAndRequestIdGreaterThanOrderByRequestIdAsc(@Param("customerId") Long customerId,
+                                                                                        @Param("afterId") Long afterId, Pageable page);
+
+    /**
+     * Newest-first queue of an agent, first page.
+     */
+    @EntityGraph(BookingRequest.GRAPH_DETAILS)
+    @Query("SELECT r FROM BookingRequest r WHERE r.agent.userId = :agentId " +
+           "ORDER BY r.requestDate DESC, r.requestId DESC")
+    List<BookingRequest> findRecentByAgent(@Param("agentId") Long agentId, Pageable page);
+
+    /**
+     * Newest-first queue of an agent, seeking past (requestDate, requestId) of the last seen row.
+     */
+    @EntityGraph(BookingRequest.GRAPH_DETAILS)
+    @Query("SELECT r FROM BookingRequest r WHERE r.agent.userId = :agentId " +
+           "AND (r.requestDate < :date OR (r.requestDate = :date AND r.requestId < :id)) " +
+           "ORDER BY r.requestDate DESC, r.requestId DESC")
+    List<BookingRequest> findRecentByAgentBefore(@Param("agentId") Long agentId, @Param("date") LocalDateTime date,
+                                                 @Param("id") Long id, Pageable page);
+
+    @EntityGraph(BookingRequest.GRAPH_DETAILS)
+    @Query("SELECT r FROM BookingRequest r WHERE r.customer.userId = :customerId " +
+           "ORDER BY r.requestDate DESC, r.requestId DESC")
+    List<BookingRequest> findRecentByCustomer(@Param("customerId") Long customerId, Pageable page);
+
+    @EntityGraph(BookingRequest.GRAPH_DETAILS)
+    @Query("SELECT r FROM BookingRequest r WHERE r.customer.userId = :customerId " +
+           "AND (r.requestDate < :date OR (r.requestDate = :date AND r.requestId < :id)) " +
+           "ORDER BY r.requestDate DESC, r.requestId DESC")
+    List<BookingRequest> findRecentByCustomerBefore(@Param("customerId") Long customerId, @Param("date") LocalDateTime date,
+                                                    @Param("id") Long id, Pageable page);
+
+    /**
+     * Number of PENDING requests per assigned agent, used to seed the agent assignment counters.
+     * @return A list of Object arrays where [0] is the agent's User ID and [1] is the count.
+     */
+    @Query("SELECT r.agent.userId, COUNT(r) FROM BookingRequest r " +
+           "WHERE r.status = '" + BookingRequest.STATUS_PENDING + "' AND r.agent IS NOT NULL GROUP BY r.agent.userId")
+    List<Object[]> countPendingByAgent();
+}
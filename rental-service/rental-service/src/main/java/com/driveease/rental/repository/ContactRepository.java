@@ -1,9 +1,15 @@
 package com.driveease.rental.repository;
 
 import com.driveease.rental.model.ContactMessage;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.List;
+
 /**
  * ContactRepository provides the data access layer for the ContactMessage entity.
  * It inherits all standard CRUD (Create, Read, Update, Delete) operations from JpaRepository,
@@ -14,4 +20,29 @@ public interface ContactRepository extends JpaRepository<ContactMessage, Long> {
     // Standard JpaRepository methods handle all basic operations:
     // .save()    - To store a new message from the contact form.
     // .findAll() - To list all inquiries in the Admin Dashboard.
+
+    /**
+     * Keyset pagination: next page in primary key order (pass 0 for the first page).
+     */
+    List<ContactMessage> findByIdGreaterThanOrderByIdAsc(Long afterId, Pageable page);
+
+    /**
+     * Newest-first inbox, first page.
+     */
+    @Query("SELECT m FROM ContactMessage m ORDER BY m.submittedAt DESC, m.id DESC")
+    List<ContactMessage> findRecentPage(Pageable page);
+
+    /**
+     * Newest-first inbox, seeking past (submittedAt, id) of the last seen message.
+     */
+    @Query("SELECT m FROM ContactMessage m WHERE m.submittedAt < :date OR (m.submittedAt = :date AND m.id < :id) " +
+           "ORDER BY m.submittedAt DESC, m.id DESC")
+    List<ContactMessage> findRecentPageBefore(@Param("date") LocalDateTime date, @Param("id") Long id, Pageable page);
+
+    /**
+     * Oldest-first walk over messages submitted after (submittedAt, id); used to catch the search index up.
+     */
+    @Query("SELECT m FROM ContactMessage m WHERE m.submittedAt > :date OR (m.submittedAt = :date AND m.id > :id) " +
+           "ORDER BY m.submittedAt ASC, m.id ASC")
+    List<ContactMessage> findSubmittedAfter(@Param("date") LocalDateTime date, @Param("id") Long id, Pageable page);
 }
\ No newline at end of file
@@ -0,0 +1,34 @@
+package com.driveease.rental.repository;
+
+import com.driveease.rental.model.EmailOutbox;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * EmailOutboxRepository provides access to the queue of outgoing emails.
+ */
+@Repository
+public interface EmailOutboxRepository extends JpaRepository<EmailOutbox, Long> {
+
+    /**
+     * Locks the next batch of emails that are due for delivery.
+     * Rows already locked by another dispatcher instance are skipped (lock timeout -2 = SKIP LOCKED),
+     * so several application nodes can drain the outbox without sending anything twice.
+     * @param now Current time; only rows with nextAttemptAt <= now are returned.
+     * @param page Batch size.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT e FROM EmailOutbox e WHERE e.status = 'PENDING' AND e.nextAttemptAt <= :now ORDER BY e.id")
+    List<EmailOutbox> findDueForUpdate(@Param("now") LocalDateTime now, Pageable page);
+}
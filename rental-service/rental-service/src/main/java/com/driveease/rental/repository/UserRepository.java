@@ -1,6 +1,7 @@
 package com.driveease.rental.repository;
 
 import com.driveease.rental.model.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
@@ -30,4 +31,14 @@ public interface UserRepository extends JpaRepository<User, Long> {
      * @return A list of users matching the specified role.
      */
     List<User> findByRole(User.Role role);
+
+    /**
+     * Keyset pagination: next page of users in primary key order (pass 0 for the first page).
+     */
+    List<User> findByUserIdGreaterThanOrderByUserIdAsc(Long afterId, Pageable page);
+
+    /**
+     * Keyset pagination restricted to a single role.
+     */
+    List<User> findByRoleAndUserIdGreaterThanOrderByUserIdAsc(User.Role role, Long afterId, Pageable page);
 }
\ No newline at end of file
@@ -1,10 +1,17 @@
 package com.driveease.rental.repository;
 
+import com.driveease.rental.dto.ContractProfile;
+import com.driveease.rental.dto.VehicleSearchView;
 import com.driveease.rental.model.VehicleContract;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import java.util.List;
+import java.util.Optional;
 
 /**
  * VehicleContractRepository manages data access for the vehicle inventory.
@@ -19,6 +26,7 @@ public interface VehicleContractRepository extends JpaRepository<VehicleContract
      * @param availabilityStatus True for available cars, False for unavailable/rented.
      * @return List of vehicle contracts matching the status.
      */
+    @EntityGraph(attributePaths = {"provider", "agent"})
     List<VehicleContract> findByAvailabilityStatus(boolean availabilityStatus);
 
     /**
@@ -27,13 +35,52 @@ public interface VehicleContractRepository extends JpaRepository<VehicleContract
      * @param vehicleType The category of the vehicle.
      * @param availabilityStatus Must be true to show in search results.
      */
+    @EntityGraph(attributePaths = {"provider", "agent"})
     List<VehicleContract> findByVehicleTypeAndAvailabilityStatus(String vehicleType, boolean availabilityStatus);
 
+    /**
+     * Search page projection: only the columns needed to build a priced search row,
+     * with the provider name taken from a LEFT JOIN in the same select.
+     */
+    @Query("SELECT c.contractId AS contractId, c.vehicleType AS vehicleType, c.baseRatePerDay AS baseRatePerDay, " +
+           "c.availabilityStatus AS availabilityStatus, p.providerName AS providerName, c.totalUnits AS totalUnits " +
+           "FROM VehicleContract c LEFT JOIN c.provider p WHERE c.availabilityStatus = true")
+    List<VehicleSearchView> findAvailableSearchViews();
+
+    /**
+     * Same as findAvailableSearchViews, restricted to one vehicle category.
+     */
+    @Query("SELECT c.contractId AS contractId, c.vehicleType AS vehicleType, c.baseRatePerDay AS baseRatePerDay, " +
+           "c.availabilityStatus AS availabilityStatus, p.providerName AS providerName, c.totalUnits AS totalUnits " +
+           "FROM VehicleContract c LEFT JOIN c.provider p WHERE c.availabilityStatus = true AND c.vehicleType = :type")
+    List<VehicleSearchView> findAvailableSearchViewsByType(@Param("type") String vehicleType);
+
     /**
      * Specialized Filter: Retrieves all vehicles assigned to a specific Support Agent.
      * Used in the Agent Portal to show only the inventory they are responsible for.
      */
-    List<VehicleContract> findByAgentUserId(Long agentId);
+    @EntityGraph(attributePaths = {"provider", "agent"})
+    @Query("SELECT c FROM VehicleContract c WHERE c.agent.userId = :agentId") // filter on the FK column, not on a join
+    List<VehicleContract> findByAgentUserId(@Param("agentId") Long agentId);
+
+    /**
+     * Full inventory with provider and agent joined in (Admin Dashboard).
+     */
+    @Override
+    @EntityGraph(attributePaths = {"provider", "agent"})
+    List<VehicleContract> findAll();
+
+    /**
+     * Keyset pagination: next page of the inventory in primary key order (pass 0 for the first page).
+     */
+    @EntityGraph(attributePaths = {"provider", "agent"})
+    List<VehicleContract> findByContractIdGreaterThanOrderByContractIdAsc(Long afterId, Pageable page);
+
+    /**
+     * One contract with provider and agent joined in, for answers serialized after the transaction has ended.
+     */
+    @EntityGraph(attributePaths = {"provider", "agent"})
+    Optional<VehicleContract> findWithDetailsByContractId(Long contractId);
 
     // ========================================================================
     // ANALYTICS & VISUALIZATION QUERIES
@@ -46,4 +93,36 @@ public interface VehicleContractRepository extends JpaRepository<VehicleContract
      */
     @Query("SELECT vc.vehicleType, COUNT(vc) FROM VehicleContract vc GROUP BY vc.vehicleType")
     List<Object[]> getVehicleTypeStats();
-}
\ No newline at end of file
+
+    /**
+     * Grouping attributes of every contract, for the fleet utilization engine (one query, no entities).
+     */
+    @Query("SELECT new com.driveease.rental.dto.ContractProfile(c.contractId, c.vehicleType, p.providerId, " +
+           "p.providerName, a.userId, a.username, c.totalUnits) " +
+           "FROM VehicleContract c LEFT JOIN c.provider p LEFT JOIN c.agent a")
+    List<ContractProfile> findAllProfiles();
+
+    /**
+     * Grouping attributes of one contract (reloaded after it was edited).
+     */
+    @Query("SELECT new com.driveease.rental.dto.ContractProfile(c.contractId, c.vehicleType, p.providerId, " +
+           "p.providerName, a.userId, a.username, c.totalUnits) " +
+           "FROM VehicleContract c LEFT JOIN c.provider p LEFT JOIN c.agent a WHERE c.contractId = :id")
+    Optional<ContractProfile> findProfile(@Param("id") Long contractId);
+
+    /**
+     * Grouping attributes of the contracts of one provider (their cached search rows show the provider's name).
+     */
+    @Query("SELECT new com.driveease.rental.dto.ContractProfile(c.contractId, c.vehicleType, p.providerId, " +
+           "p.providerName, a.userId, a.username, c.totalUnits) " +
+           "FROM VehicleContract c JOIN c.provider p LEFT JOIN c.agent a WHERE p.providerId = :providerId")
+    List<ContractProfile> findProfilesByProvider(@Param("providerId") Long providerId);
+
+    /**
+     * Optimistic version check-and-increment used by ReservationService as the last statement of a reservation.
+     * @return 1 when the contract still had 'expectedVersion', 0 when another writer got there first.
+     */
+    @Modifying
+    @Query("UPDATE VehicleContract c SET c.version = c.version + 1 WHERE c.contractId = :id AND c.version = :expectedVersion")
+    int incrementVersion(@Param("id") Long contractId, @Param("expectedVersion") long expectedVersion);
+}
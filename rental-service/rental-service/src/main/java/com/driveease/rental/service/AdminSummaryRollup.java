@@ -0,0 +1,190 @@
+package com.driveease.rental.service;
+
+import com.driveease.rental.config.ReadReplicaRoutingDataSource;
+import com.driveease.rental.dto.BookingSnapshot;
+import com.driveease.rental.event.BookingChangedEvent;
+import com.driveease.rental.event.ContractChangedEvent;
+import com.driveease.rental.repository.BookingRepository;
+import com.driveease.rental.repository.VehicleContractRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+
+/**
+ * AdminSummaryRollup keeps the admin dashboard figures pre-aggregated in memory.
+ * Logic:
+ * 1. Total revenue and booking count are adjusted from BookingChangedEvent (old values out, new values in).
+ * 2. Fleet counts per vehicle type are adjusted from ContractChangedEvent.
+ * 3. A scheduled reconcile job re-runs the SQL aggregates and replaces the counters,
+ *    which repairs drift from writes that bypass the events (e.g. cascades or manual SQL).
+ *
+ * Readers only dereference an immutable snapshot, so the summary endpoint costs O(1)
+ * no matter how many bookings exist.
+ */
+@Component
+public class AdminSummaryRollup {
+
+    private static final Logger log = LoggerFactory.getLogger(AdminSummaryRollup.class);
+
+    /**
+     * Same scale as the 'final_price' column, so the rollup matches SUM(finalPrice) exactly.
+     */
+    private static final int REVENUE_SCALE = 2;
+
+    private final BookingRepository bookingRepository;
+
+    private final VehicleContractRepository vehicleContractRepository;
+
+    /**
+     * Mutable counters, only touched while holding 'this'.
+     */
+    private BigDecimal totalRevenue = BigDecimal.ZERO.setScale(REVENUE_SCALE);
+    private long totalBookings;
+    private final Map<String, Long> fleetByType = new TreeMap<>(Comparator.nullsFirst(Comparator.naturalOrder()));
+
+    /**
+     * Incremented on every event, lets the reconcile job detect writes that raced with its queries.
+     */
+    private long appliedChanges;
+
+    /**
+     * Last published report, replaced as a whole after every change.
+     */
+    private volatile Map<String, Object> report = Map.of();
+
+    /**
+     * Incremented every time a new report is published (ETag of the summary endpoint).
+     */
+    private volatile long reportVersion;
+
+    public AdminSummaryRollup(BookingRepository bookingRepository,
+                              VehicleContractRepository vehicleContractRepository) {
+        this.bookingRepository = bookingRepository;
+        this.vehicleContractRepository = vehicleContractRepository;
+    }
+
+    /**
+     * Returns the dashboard report (totalRevenue, totalBookings, vehicleStats).
+     * The map is shared between callers and must not be modified.
+     */
+    public Map<String, Object> getSummary() {
+        return report;
+    }
+
+    public long getReportVersion() {
+        return reportVersion;
+    }
+
+    @PostConstruct
+    public void init() {
+        reconcile();
+    }
+
+    /**
+     * Recomputes every counter from the database.
+     * If a booking or contract event arrives while the aggregate queries run, the result may already be
+     * stale, so it is discarded and the next scheduled run tries again.
+     */
+    @Scheduled(initialDelayString = "${driveease.rollup.reconcile-interval:10m}",
+            fixedDelayString = "${driveease.rollup.reconcile-interval:10m}")
+    public void reconcile() {
+        long changesBefore;
+        synchronized (this) {
+            changesBefore = appliedChanges;
+        }
+
+        // Read from the primary: a lagging replica would undo changes already applied from events
+        BigDecimal revenue = normalize(ReadReplicaRoutingDataSource.onPrimary(bookingRepository::getTotalRevenue));
+        Long bookings = ReadReplicaRoutingDataSource.onPrimary(bookingRepository::getTotalBookingCount);
+        List<Object[]> typeStats = ReadReplicaRoutingDataSource.onPrimary(vehicleContractRepository::getVehicleTypeStats);
+
+        synchronized (this) {
+            if (appliedChanges != changesBefore) {
+                log.debug("Summary reconcile skipped: {} change(s) arrived during the scan", appliedChanges - changesBefore);
+                return;
+            }
+            long bookingCount = bookings != null ? bookings : 0L;
+            if (totalRevenue.compareTo(revenue) != 0 || totalBookings != bookingCount) {
+                log.info("Summary rollup drift corrected: revenue {} -> {}, bookings {} -> {}",
+                        totalRevenue, revenue, totalBookings, bookingCount);
+            }
+            totalRevenue = revenue;
+            totalBookings = bookingCount;
+            fleetByType.clear();
+            for (Object[] row : typeStats) {
+                fleetByType.put((String) row[0], ((Number) row[1]).longValue());
+            }
+            publish();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onBookingChanged(BookingChangedEvent event) {
+        appliedChanges++;
+        BookingSnapshot before = event.before();
+        BookingSnapshot after = event.after();
+        if (before != null) {
+            totalRevenue = totalRevenue.subtract(normalize(before.finalPrice()));
+            totalBookings--;
+        }
+        if (after != null) {
+            totalRevenue = totalRevenue.add(normalize(after.finalPrice()));
+            totalBookings++;
+        }
+        publish();
+    }
+
+    /**
+     * A delete whose type could not be read (both types null) is left to the reconcile job.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onContractChanged(ContractChangedEvent event) {
+        appliedChanges++;
+        if (event.typeBefore() == null && event.typeAfter() == null
+                || Objects.equals(event.typeBefore(), event.typeAfter())) {
+            return;
+        }
+        boolean created = event.typeBefore() == null && event.typeAfter() != null;
+        boolean deleted = event.typeAfter() == null;
+        if (!created) {
+            fleetByType.computeIfPresent(event.typeBefore(), (type, count) -> count > 1 ? count - 1 : null);
+        }
+        if (!deleted) {
+            fleetByType.merge(event.typeAfter(), 1L, Long::sum);
+        }
+        publish();
+    }
+
+    /**
+     * Builds the report in the same shape the dashboard has always received.
+     */
+    private void publish() {
+        List<Object[]> vehicleStats = new ArrayList<>(fleetByType.size());
+        fleetByType.forEach((type, count) -> vehicleStats.add(new Object[]{type, count}));
+
+        Map<String, Object> next = new HashMap<>();
+        next.put("totalRevenue", totalRevenue);
+        next.put("totalBookings", totalBookings);
+        next.put("vehicleStats", Collections.unmodifiableList(vehicleStats));
+        report = Collections.unmodifiableMap(next);
+        reportVersion++;
+    }
+
+    private static BigDecimal normalize(BigDecimal amount) {
+        return (amount != null ? amount : BigDecimal.ZERO).setScale(REVENUE_SCALE, RoundingMode.HALF_UP);
+    }
+}
@@ -0,0 +1,257 @@
+package com.driveease.rental.service;
+
+import com.driveease.rental.config.ReadReplicaRoutingDataSource;
+import com.driveease.rental.dto.BookingRequestSnapshot;
+import com.driveease.rental.event.BookingRequestChangedEvent;
+import com.driveease.rental.model.User;
+import com.driveease.rental.repository.BookingRequestRepository;
+import com.driveease.rental.repository.UserRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * AgentAssignmentService routes new booking requests to the least-loaded agent.
+ * Logic:
+ * 1. Every agent has a live counter of PENDING requests in its queue (seeded from the database).
+ * 2. assign() picks the agent with the lowest 'pending / weight' and increments its counter at once,
+ *    so a burst of concurrent requests is spread over the agents instead of piling onto one.
+ * 3. Approvals (or any other move out of PENDING) decrement the counter via BookingRequestChangedEvent;
+ *    a submission whose insert fails hands its count back with release().
+ * 4. A scheduled reconcile job recounts from the database, repairing drift from rolled-back inserts
+ *    and picking up agents that were added or removed.
+ */
+@Service
+public class AgentAssignmentService {
+
+    private static final Logger log = LoggerFactory.getLogger(AgentAssignmentService.class);
+
+    private static final double DEFAULT_WEIGHT = 1.0;
+
+    private final UserRepository userRepository;
+
+    private final BookingRequestRepository bookingRequestRepository;
+
+    /**
+     * Relative capacity per agent ID ('driveease.assignment.weights', e.g. "12=2,15=0.5").
+     * An agent with weight 2 receives twice the queue of an agent with the default weight 1.
+     */
+    private final Map<Long, Double> weights;
+
+    /**
+     * Pending-queue depth per agent. Agents are only added or removed, the counters themselves are atomic.
+     */
+    private final ConcurrentHashMap<Long, AtomicInteger> pendingByAgent = new ConcurrentHashMap<>();
+
+    /**
+     * Incremented on every counter change, lets the reconcile job detect assignments that raced with its queries.
+     */
+    private final AtomicLong appliedChanges = new AtomicLong();
+
+    public AgentAssignmentService(UserRepository userRepository, BookingRequestRepository bookingRequestRepository,
+                                  @Value("${driveease.assignment.weights:}") String weights) {
+        this.userRepository = userRepository;
+        this.bookingRequestRepository = bookingRequestRepository;
+        this.weights = parseWeights(weights);
+    }
+
+    @PostConstruct
+    public void init() {
+        reconcile();
+    }
+
+    /**
+     * Chooses the agent for a new request and counts the request against that agent's queue.
+     * Ties go to the agent with the lower ID, so the choice is deterministic.
+     * * @return The User ID of the chosen agent.
+     * @throws IllegalStateException If no agent is registered.
+     */
+    public Long assign() {
+        if (pendingByAgent.isEmpty()) {
+            reconcile();
+        }
+        while (true) {
+            Long best = null;
+            double bestScore = Double.MAX_VALUE;
+            for (Map.Entry<Long, AtomicInteger> entry : pendingByAgent.entrySet()) {
+                double score = entry.getValue().get() / weightOf(entry.getKey());
+                if (score < bestScore || best != null && score == bestScore && entry.getKey() < best) {
+                    best = entry.getKey();
+                    bestScore = score;
+                }
+            }
+            if (best == null) {
+                throw new IllegalStateException("No agents are available to handle booking requests");
+            }
+            AtomicInteger pending = pendingByAgent.get(best);
+            if (pending != null) { // null when the agent was removed after the scan
+                pending.incrementAndGet();
+                appliedChanges.incrementAndGet();
+                return best;
+            }
+        }
+    }
+
+    /**
+     * Counts a request whose agent was chosen by the client instead of by assign().
+     */
+    public void recordAssigned(Long agentId) {
+        AtomicInteger pending = pendingByAgent.get(agentId);
+        if (pending != null) {
+            pending.incrementAndGet();
+            appliedChanges.incrementAndGet();
+        }
+    }
+
+    /**
+     * Takes back the count of an assign()/recordAssigned() whose request was never saved,
+     * so failed submissions do not leave phantom requests in the agent's queue until the next reconcile.
+     */
+    public void release(Long agentId) {
+        AtomicInteger pending = pendingByAgent.get(agentId);
+        if (pending != null) {
+            pending.updateAndGet(count -> Math.max(0, count - 1));
+            appliedChanges.incrementAndGet();
+        }
+    }
+
+    /**
+     * Keeps the agent roster in step with user management (signup, role change).
+     */
+    public void onUserSaved(User user) {
+        if (user.getRole() == User.Role.AGENT) {
+            pendingByAgent.putIfAbsent(user.getUserId(), new AtomicInteger());
+        } else {
+            pendingByAgent.remove(user.getUserId());
+        }
+    }
+
+    public void onUserDeleted(Long userId) {
+        pendingByAgent.remove(userId);
+    }
+
+    /**
+     * Submissions are already counted by assign()/recordAssigned(); only moves of existing requests
+     * (out of PENDING, or to another agent) are applied here.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookingRequestChanged(BookingRequestChangedEvent event) {
+        BookingRequestSnapshot before = event.before();
+        BookingRequestSnapshot after = event.after();
+        if (before == null) {
+            return;
+        }
+        boolean wasQueued = before.isPending() && before.agentId() != null;
+        boolean isQueued = after != null && after.isPending() && after.agentId() != null;
+        if (wasQueued && isQueued && Objects.equals(before.agentId(), after.agentId())) {
+            return;
+        }
+        if (wasQueued) {
+            AtomicInteger pending = pendingByAgent.get(before.agentId());
+            if (pending != null) {
+                pending.updateAndGet(count -> Math.max(0, count - 1));
+            }
+        }
+        if (isQueued) {
+            AtomicInteger pending = pendingByAgent.get(after.agentId());
+            if (pending != null) {
+                pending.incrementAndGet();
+            }
+        }
+        appliedChanges.incrementAndGet();
+    }
+
+    /**
+     * Tells whether the ID belongs to a registered agent, as of the last roster change or reconcile.
+     */
+    public boolean isAgent(Long agentId) {
+        return pendingByAgent.containsKey(agentId);
+    }
+
+    /**
+     * Current queue depth per agent, ordered by agent ID.
+     */
+    public Map<Long, Integer> getPendingCounts() {
+        Map<Long, Integer> counts = new TreeMap<>();
+        pendingByAgent.forEach((agentId, pending) -> counts.put(agentId, pending.get()));
+        return Collections.unmodifiableMap(counts);
+    }
+
+    /**
+     * Reloads the agent roster and recounts every queue.
+     * If an assignment or approval happens while the queries run, the counts may already be stale,
+     * so they are discarded and the next scheduled run tries again.
+     */
+    @Scheduled(initialDelayString = "${driveease.assignment.reconcile-interval:5m}",
+            fixedDelayString = "${driveease.assignment.reconcile-interval:5m}")
+    public synchronized void reconcile() {
+        long changesBefore = appliedChanges.get();
+
+        // Primary reads, so a lagging replica cannot roll the counters back
+        List<User> agents = ReadReplicaRoutingDataSource.onPrimary(() -> userRepository.findByRole(User.Role.AGENT));
+        Map<Long, Integer> counts = new HashMap<>();
+        for (Object[] row : ReadReplicaRoutingDataSource.onPrimary(bookingRequestRepository::countPendingByAgent)) {
+            counts.put((Long) row[0], ((Number) row[1]).intValue());
+        }
+
+        if (appliedChanges.get() != changesBefore) {
+            log.debug("Agent queue reconcile skipped: assignments changed during the scan");
+            return;
+        }
+        Set<Long> agentIds = new HashSet<>();
+        for (User agent : agents) {
+            agentIds.add(agent.getUserId());
+            int actual = counts.getOrDefault(agent.getUserId(), 0);
+            AtomicInteger pending = pendingByAgent.computeIfAbsent(agent.getUserId(), id -> new AtomicInteger());
+            int tracked = pending.getAndSet(actual);
+            if (tracked != actual) {
+                log.debug("Agent {} queue corrected: {} -> {}", agent.getUserId(), tracked, actual);
+            }
+        }
+        pendingByAgent.keySet().retainAll(agentIds);
+    }
+
+    private double weightOf(Long agentId) {
+        return weights.getOrDefault(agentId, DEFAULT_WEIGHT);
+    }
+
+    /**
+     * Parses "agentId=weight" pairs separated by commas. Invalid or non-positive entries are ignored.
+     */
+    static Map<Long, Double> parseWeights(String spec) {
+        Map<Long, Double> parsed = new HashMap<>();
+        if (spec == null || spec.isBlank()) {
+            return parsed;
+        }
+        for (String pair : spec.split(",")) {
+            String[] parts = pair.split("=");
+            try {
+                double weight = parts.length == 2 ? Double.parseDouble(parts[1].trim()) : 0;
+                if (weight > 0) {
+                    parsed.put(Long.valueOf(parts[0].trim()), weight);
+                    continue;
+                }
+            } catch (NumberFormatException ignored) {
+                // reported below
+            }
+            log.warn("Ignoring invalid agent weight '{}'", pair);
+        }
+        return parsed;
+    }
+}
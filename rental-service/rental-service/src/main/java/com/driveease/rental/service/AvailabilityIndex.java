@@ -0,0 +1,218 @@
+package com.driveease.rental.service;
+
+import com.driveease.rental.config.ReadReplicaRoutingDataSource;
+import com.driveease.rental.dto.BookingSnapshot;
+import com.driveease.rental.event.BookingChangedEvent;
+import com.driveease.rental.repository.BookingRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * AvailabilityIndex keeps an in-memory, per-day occupancy map for every vehicle contract.
+ * Each booking occupies 'vehicleCount' units on every day from its pickup date
+ * for 'rentalDays' days, so "is this contract free from X for N days" becomes
+ * a short scan over a primitive array instead of an SQL query per contract.
+ *
+ * The index is built once from the 'booking' table at startup and then kept
+ * up to date from BookingChangedEvent notifications.
+ */
+@Component
+public class AvailabilityIndex {
+
+    private final BookingRepository bookingRepository;
+
+    /**
+     * Contract ID -> day-by-day reserved unit counts.
+     */
+    private final Map<Long, ContractOccupancy> occupancyByContract = new ConcurrentHashMap<>();
+
+    public AvailabilityIndex(BookingRepository bookingRepository) {
+        this.bookingRepository = bookingRepository;
+    }
+
+    /**
+     * Loads every existing booking into the index before the application starts serving requests.
+     */
+    @PostConstruct
+    public void rebuild() {
+        occupancyByContract.clear();
+        for (BookingSnapshot booking : ReadReplicaRoutingDataSource.onPrimary(bookingRepository::findAllSnapshots)) {
+            apply(booking, 1);
+        }
+    }
+
+    /**
+     * Keeps the index in sync with booking writes.
+     * Runs after commit when a transaction is active, or immediately otherwise.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookingChanged(BookingChangedEvent event) {
+        if (event.before() != null) {
+            apply(event.before(), -1);
+        }
+        if (event.after() != null) {
+            apply(event.after(), 1);
+        }
+    }
+
+    /**
+     * Returns the highest number of units reserved on any single day of the requested window.
+     * @param contractId The vehicle contract to check.
+     * @param from First day of the rental.
+     * @param days Rental length (values below 1 are treated as 1).
+     */
+    public int peakUnits(Long contractId, LocalDate from, int days) {
+        ContractOccupancy occupancy = occupancyByContract.get(contractId);
+        if (occupancy == null) {
+            return 0;
+        }
+        return occupancy.peak(from.toEpochDay(), Math.max(1, days));
+    }
+
+    /**
+     * Returns the highest number of units reserved on any day from 'from' onwards, i.e. the fewest units
+     * the contract can have without overbooking a current or future rental.
+     */
+    public int peakUnitsFrom(Long contractId, LocalDate from) {
+        ContractOccupancy occupancy = occupancyByContract.get(contractId);
+        if (occupancy == null) {
+            return 0;
+        }
+        return occupancy.peak(from.toEpochDay(), Integer.MAX_VALUE);
+    }
+
+    /**
+     * Like peakUnits, but as if 'excluded' (an existing booking of this contract) were not there.
+     * Used when a booking is moved to new dates, so it does not compete with itself.
+     */
+    public int peakUnitsExcluding(Long contractId, LocalDate from, int days, BookingSnapshot excluded) {
+        ContractOccupancy occupancy = occupancyByContract.get(contractId);
+        if (occupancy == null) {
+            return 0;
+        }
+        if (excluded == null || excluded.pickupDate() == null || !contractId.equals(excluded.contractId())) {
+            return occupancy.peak(from.toEpochDay(), Math.max(1, days));
+        }
+        return occupancy.peakExcluding(from.toEpochDay(), Math.max(1, days), excluded.pickupDate().toEpochDay(),
+                Math.max(1, excluded.rentalDays()), Math.max(1, excluded.vehicleCount()));
+    }
+
+    /**
+     * Replaces the occupancy of one contract with the given bookings (fresh from the database).
+     */
+    public void reloadContract(Long contractId, List<BookingSnapshot> bookings) {
+        ContractOccupancy occupancy = new ContractOccupancy();
+        for (BookingSnapshot booking : bookings) {
+            if (booking.pickupDate() != null) {
+                occupancy.add(booking.pickupDate().toEpochDay(), Math.max(1, booking.rentalDays()),
+                        Math.max(1, booking.vehicleCount()));
+            }
+        }
+        occupancyByContract.put(contractId, occupancy);
+    }
+
+    /**
+     * A contract can take 'units' more vehicles in the window when, on its busiest day, the units already
+     * booked plus 'units' still fit in 'totalUnits' (the same rule ReservationService enforces).
+     */
+    public boolean hasCapacity(Long contractId, LocalDate from, int days, int units, int totalUnits) {
+        return peakUnits(contractId, from, days) + Math.max(1, units) <= totalUnits;
+    }
+
+    /**
+     * Adds the units reserved on each day from 'from' onwards to 'unitsPerDay' (index 0 is 'from'),
+     * for reports that add up several contracts day by day (FleetUtilizationEngine).
+     */
+    public void addUnitsPerDay(Long contractId, LocalDate from, int[] unitsPerDay) {
+        ContractOccupancy occupancy = occupancyByContract.get(contractId);
+        if (occupancy != null) {
+            occupancy.addTo(unitsPerDay, from.toEpochDay());
+        }
+    }
+
+    private void apply(BookingSnapshot booking, int sign) {
+        if (booking.contractId() == null || booking.pickupDate() == null) {
+            return;
+        }
+        int units = Math.max(1, booking.vehicleCount()) * sign;
+        occupancyByContract
+                .computeIfAbsent(booking.contractId(), id -> new ContractOccupancy())
+                .add(booking.pickupDate().toEpochDay(), Math.max(1, booking.rentalDays()), units);
+    }
+
+    /**
+     * Dense day -> units array for a single contract.
+     * Index 0 corresponds to 'firstDay' (an epoch day); the array grows in either direction on demand.
+     */
+    static final class ContractOccupancy {
+
+        private static final int GROWTH_SLACK_DAYS = 64;
+
+        private long firstDay;
+        private int[] units = new int[0];
+
+        synchronized void add(long startDay, int days, int delta) {
+            ensureRange(startDay, startDay + days);
+            int offset = (int) (startDay - firstDay);
+            for (int i = 0; i < days; i++) {
+                units[offset + i] += delta;
+            }
+        }
+
+        synchronized int peak(long startDay, int days) {
+            long from = Math.max(startDay, firstDay);
+            long to = Math.min(startDay + days, firstDay + units.length);
+            int peak = 0;
+            for (long day = from; day < to; day++) {
+                peak = Math.max(peak, units[(int) (day - firstDay)]);
+            }
+            return peak;
+        }
+
+        synchronized int peakExcluding(long startDay, int days, long excludedStart, int excludedDays, int excludedUnits) {
+            long from = Math.max(startDay, firstDay);
+            long to = Math.min(startDay + days, firstDay + units.length);
+            int peak = 0;
+            for (long day = from; day < to; day++) {
+                int reserved = units[(int) (day - firstDay)];
+                if (day >= excludedStart && day < excludedStart + excludedDays) {
+                    reserved -= excludedUnits;
+                }
+                peak = Math.max(peak, reserved);
+            }
+            return peak;
+        }
+
+        synchronized void addTo(int[] unitsPerDay, long startDay) {
+            long from = Math.max(startDay, firstDay);
+            long to = Math.min(startDay + unitsPerDay.length, firstDay + units.length);
+            for (long day = from; day < to; day++) {
+                unitsPerDay[(int) (day - startDay)] += units[(int) (day - firstDay)];
+            }
+        }
+
+        private void ensureRange(long startDay, long endDay) {
+            if (units.length == 0) {
+                firstDay = startDay - GROWTH_SLACK_DAYS;
+                units = new int[(int) (endDay - firstDay) + GROWTH_SLACK_DAYS];
+                return;
+            }
+            long lastDay = firstDay + units.length;
+            if (startDay >= firstDay && endDay <= lastDay) {
+                return;
+            }
+            long newFirst = Math.min(firstDay, startDay - GROWTH_SLACK_DAYS);
+            long newLast = Math.max(lastDay, endDay + GROWTH_SLACK_DAYS);
+            int[] grown = new int[(int) (newLast - newFirst)];
+            System.arraycopy(units, 0, grown, (int) (firstDay - newFirst), units.length);
+            firstDay = newFirst;
+            units = grown;
+        }
+    }
+}
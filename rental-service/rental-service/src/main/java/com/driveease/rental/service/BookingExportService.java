@@ -0,0 +1,126 @@
+package com.driveease.rental.service;
+
+import com.driveease.rental.dto.BookingExportRow;
+import com.driveease.rental.repository.BookingRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * BookingExportService writes the booking history straight from the database to an output stream.
+ * Rows are pulled through a forward-only JPA Stream and written one at a time,
+ * so memory use does not depend on how many bookings are exported.
+ */
+@Service
+public class BookingExportService {
+
+    private static final int WRITE_BUFFER_SIZE = 64 * 1024;
+
+    private final BookingRepository bookingRepository;
+
+    private final TransactionTemplate readOnlyTransaction;
+
+    private final ObjectWriter jsonWriter;
+
+    public BookingExportService(BookingRepository bookingRepository,
+                                PlatformTransactionManager transactionManager,
+                                ObjectMapper objectMapper) {
+        this.bookingRepository = bookingRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.jsonWriter = objectMapper.writerFor(BookingExportRow.class);
+    }
+
+    /**
+     * Writes a CSV file (header + one line per booking).
+     * @param out Target stream (not closed by this method).
+     * @param from Earliest pickup date to include, or null.
+     * @param to Latest pickup date to include, or null.
+     * @param agentId Only bookings handled by this agent, or null for all agents.
+     */
+    public void writeCsv(OutputStream out, LocalDate from, LocalDate to, Long agentId) {
+        export(out, from, to, agentId,
+                writer -> writeCsvLine(writer, BookingExportRow.CSV_HEADER),
+                (writer, row) -> writeCsvLine(writer, row.csvValues()));
+    }
+
+    /**
+     * Writes newline-delimited JSON (one JSON object per line, no enclosing array).
+     * Parameters are the same as for writeCsv.
+     */
+    public void writeNdjson(OutputStream out, LocalDate from, LocalDate to, Long agentId) {
+        export(out, from, to, agentId,
+                writer -> { },
+                (writer, row) -> {
+                    writer.write(jsonWriter.writeValueAsString(row));
+                    writer.write('\n');
+                });
+    }
+
+    private void export(OutputStream out, LocalDate from, LocalDate to, Long agentId,
+                        HeaderWriter headerWriter, RowWriter rowWriter) {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), WRITE_BUFFER_SIZE);
+
+        // The JPA stream keeps the JDBC result set open, so it must be consumed inside a transaction
+        readOnlyTransaction.executeWithoutResult(status -> {
+            try (Stream<BookingExportRow> rows = bookingRepository.streamExportRows(from, to, agentId)) {
+                headerWriter.write(writer);
+                Iterator<BookingExportRow> iterator = rows.iterator();
+                while (iterator.hasNext()) {
+                    rowWriter.write(writer, iterator.next());
+                }
+                writer.flush();
+            } catch (IOException e) {
+                // Usually the client disconnected half-way through the download
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    private static void writeCsvLine(Writer writer, Object[] values) throws IOException {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            writer.write(escapeCsv(values[i]));
+        }
+        writer.write("\r\n");
+    }
+
+    /**
+     * RFC 4180 quoting: fields containing commas, quotes or line breaks are wrapped in quotes.
+     */
+    static String escapeCsv(Object value) {
+        if (value == null) {
+            return "";
+        }
+        String text = value.toString();
+        if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0 && text.indexOf('\r') < 0) {
+            return text;
+        }
+        return '"' + text.replace("\"", "\"\"") + '"';
+    }
+
+    @FunctionalInterface
+    private interface RowWriter {
+        void write(Writer writer, BookingExportRow row) throws IOException;
+    }
+
+    @FunctionalInterface
+    private interface HeaderWriter {
+        void write(Writer writer) throws IOException;
+    }
+}
@@ -0,0 +1,258 @@
+package com.driveease.rental.service;
+
+import com.driveease.rental.dto.BookingRequestSnapshot;
+import com.driveease.rental.event.BookingRequestChangedEvent;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * BookingRequestStream pushes booking request changes to agent dashboards over Server-Sent Events.
+ * Logic:
+ * 1. Every agent has a channel: its open connections plus the last 'driveease.stream.replay-size' events.
+ *    Only registered agents can subscribe; the heartbeat drops channels nobody listens to that hold no events,
+ *    or whose agent was removed, so the map stays bounded by the agent roster.
+ * 2. After a request is submitted, approved or moved, a "request" event carrying the new
+ *    BookingRequestSnapshot is sent to the agent(s) involved - nothing is read from the database.
+ * 3. Event IDs are "{instance}-{sequence}". A client that reconnects with Last-Event-ID gets only
+ *    the events it missed. If they are no longer buffered (or the server restarted) it gets a single
+ *    "reset" event and reloads its list once.
+ */
+@Component
+public class BookingRequestStream {
+
+    private static final Logger log = LoggerFactory.getLogger(BookingRequestStream.class);
+
+    static final String EVENT_REQUEST = "request";
+    static final String EVENT_RESET = "reset";
+
+    /**
+     * Distinguishes event IDs of this process from IDs handed out before a restart.
+     */
+    private final String instanceId = Long.toString(System.currentTimeMillis(), 36);
+
+    private final AgentAssignmentService agentAssignmentService;
+
+    private final int replaySize;
+
+    private final long timeoutMillis;
+
+    private final ConcurrentHashMap<Long, Channel> channels = new ConcurrentHashMap<>();
+
+    private final AtomicInteger connections = new AtomicInteger();
+
+    public BookingRequestStream(AgentAssignmentService agentAssignmentService,
+                                @Value("${driveease.stream.replay-size:200}") int replaySize,
+                                @Value("${driveease.stream.timeout:30m}") Duration timeout,
+                                MeterRegistry meterRegistry) {
+        this.agentAssignmentService = agentAssignmentService;
+        this.replaySize = Math.max(1, replaySize);
+        this.timeoutMillis = timeout.toMillis();
+        Gauge.builder("driveease.stream.connections", connections, AtomicInteger::get)
+                .description("Open agent dashboard event streams")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Opens an event stream for one agent.
+     * * @param agentId The agent whose queue is watched.
+     * @param lastEventId ID of the last event the client received (Last-Event-ID), or null for live events only.
+     * @return The emitter to return from the controller.
+     * @throws IllegalArgumentException If 'agentId' is not a registered agent.
+     */
+    public SseEmitter subscribe(Long agentId, String lastEventId) {
+        if (agentId == null || !agentAssignmentService.isAgent(agentId)) {
+            throw new IllegalArgumentException("Unknown agent: " + agentId);
+        }
+        SseEmitter emitter = newEmitter(timeoutMillis);
+        while (true) {
+            Channel channel = channels.computeIfAbsent(agentId, id -> new Channel());
+            synchronized (channel) {
+                if (channel.closed) {
+                    continue; // dropped by the heartbeat in the meantime, a fresh one replaces it
+                }
+                emitter.onCompletion(() -> remove(channel, emitter));
+                emitter.onTimeout(emitter::complete);
+                emitter.onError(e -> remove(channel, emitter));
+                try {
+                    if (lastEventId != null && !lastEventId.isBlank()) {
+                        replay(channel, emitter, lastEventId.trim());
+                    }
+                } catch (IOException e) {
+                    emitter.completeWithError(e);
+                    return emitter;
+                }
+                channel.emitters.add(emitter);
+                connections.incrementAndGet();
+                return emitter;
+            }
+        }
+    }
+
+    /**
+     * Sends the change to the request's agent, and to the previous agent if the request was moved.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookingRequestChanged(BookingRequestChangedEvent event) {
+        BookingRequestSnapshot current = event.after() != null ? event.after() : event.before();
+        Set<Long> agentIds = new LinkedHashSet<>();
+        if (event.before() != null && event.before().agentId() != null) {
+            agentIds.add(event.before().agentId());
+        }
+        if (event.after() != null && event.after().agentId() != null) {
+            agentIds.add(event.after().agentId());
+        }
+        for (Long agentId : agentIds) {
+            publish(agentId, current);
+        }
+    }
+
+    /**
+     * Comment lines keep idle connections open through proxies and reveal clients that went away.
+     * Channels left without connections are dropped here when they hold no events or their agent is gone,
+     * rather than in the emitter callbacks, which run on container threads.
+     */
+    @Scheduled(fixedDelayString = "${driveease.stream.heartbeat-interval:20s}")
+    public void heartbeat() {
+        channels.forEach((agentId, channel) -> {
+            synchronized (channel) {
+                for (SseEmitter emitter : channel.emitters) {
+                    try {
+                        emitter.send(SseEmitter.event().comment("ping"));
+                    } catch (IOException | IllegalStateException e) {
+                        remove(channel, emitter);
+                    }
+                }
+                if (channel.emitters.isEmpty()
+                        && (channel.history.isEmpty() || !agentAssignmentService.isAgent(agentId))) {
+                    channel.closed = true;
+                    channels.remove(agentId, channel);
+                }
+            }
+        });
+    }
+
+    public int getConnectionCount() {
+        return connections.get();
+    }
+
+    int getChannelCount() {
+        return channels.size();
+    }
+
+    /**
+     * Factory for the emitter, overridden in tests to capture the sent events.
+     */
+    SseEmitter newEmitter(long timeout) {
+        return new SseEmitter(timeout);
+    }
+
+    private void publish(Long agentId, BookingRequestSnapshot snapshot) {
+        Channel channel;
+        do {
+            channel = channels.computeIfAbsent(agentId, id -> new Channel());
+        } while (!publish(channel, snapshot));
+    }
+
+    /**
+     * @return False if the channel was dropped before the lock was taken; the caller retries on a fresh one.
+     */
+    private boolean publish(Channel channel, BookingRequestSnapshot snapshot) {
+        synchronized (channel) {
+            if (channel.closed) {
+                return false;
+            }
+            Entry entry = new Entry(++channel.lastSequence, snapshot);
+            channel.history.addLast(entry);
+            if (channel.history.size() > replaySize) {
+                channel.history.removeFirst();
+            }
+            for (SseEmitter emitter : channel.emitters) {
+                try {
+                    send(emitter, entry);
+                } catch (IOException | IllegalStateException e) {
+                    log.debug("Dropping agent event stream: {}", e.getMessage());
+                    remove(channel, emitter);
+                }
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Sends the buffered events after 'lastEventId', or a reset event when that position is unknown.
+     * Called while holding the channel lock, so no live event can slip in between replay and registration.
+     */
+    private void replay(Channel channel, SseEmitter emitter, String lastEventId) throws IOException {
+        long lastSeen = parseSequence(lastEventId);
+        long oldestBuffered = channel.history.isEmpty() ? channel.lastSequence + 1 : channel.history.getFirst().sequence;
+        if (lastSeen < 0 || lastSeen > channel.lastSequence || lastSeen < oldestBuffered - 1) {
+            emitter.send(SseEmitter.event().id(eventId(channel.lastSequence)).name(EVENT_RESET).data(""));
+            return;
+        }
+        for (Entry entry : channel.history) {
+            if (entry.sequence > lastSeen) {
+                send(emitter, entry);
+            }
+        }
+    }
+
+    private void send(SseEmitter emitter, Entry entry) throws IOException {
+        emitter.send(SseEmitter.event().id(eventId(entry.sequence)).name(EVENT_REQUEST).data(entry.snapshot));
+    }
+
+    private String eventId(long sequence) {
+        return instanceId + "-" + sequence;
+    }
+
+    /**
+     * @return The sequence of an event ID issued by this instance, or -1 for foreign or malformed IDs.
+     */
+    private long parseSequence(String eventId) {
+        int dash = eventId.lastIndexOf('-');
+        if (dash < 0 || !eventId.substring(0, dash).equals(instanceId)) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(eventId.substring(dash + 1));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private void remove(Channel channel, SseEmitter emitter) {
+        if (channel.emitters.remove(emitter)) {
+            connections.decrementAndGet();
+        }
+    }
+
+    /**
+     * Per-agent state. 'history', 'lastSequence' and 'closed' are guarded by the channel's monitor.
+     * A closed channel has been removed from the map and must not be used any more.
+     */
+    private static final class Channel {
+        private final ArrayDeque<Entry> history = new ArrayDeque<>();
+        private final List<SseEmitter> emitters = new CopyOnWriteArrayList<>();
+        private long lastSequence;
+        private boolean closed;
+    }
+
+    private record Entry(long sequence, BookingRequestSnapshot snapshot) {
+    }
+}
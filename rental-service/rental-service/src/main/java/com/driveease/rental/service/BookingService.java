@@ -1,26 +1,195 @@
 package com.driveease.rental.service;
 
+import com.driveease.rental.dto.BatchQuoteRequest;
+import com.driveease.rental.dto.BatchQuoteResponse;
+import com.driveease.rental.dto.BookingRequestSnapshot;
+import com.driveease.rental.dto.BookingSnapshot;
+import com.driveease.rental.dto.VehicleSearchView;
+import com.driveease.rental.event.BookingChangedEvent;
+import com.driveease.rental.event.BookingRequestChangedEvent;
+import com.driveease.rental.model.Booking;
+import com.driveease.rental.model.BookingRequest;
+import com.driveease.rental.model.User;
 import com.driveease.rental.model.VehicleContract;
+import com.driveease.rental.repository.BookingRepository;
+import com.driveease.rental.repository.BookingRequestRepository;
 import com.driveease.rental.repository.VehicleContractRepository;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 /**
  * BookingService contains the core business logic for the rental system.
- * It handles vehicle availability filtering and complex price calculations.
+ * It handles vehicle availability filtering, complex price calculations
+ * and the transactional confirmation of booking requests.
  */
 @Service
 public class BookingService {
 
+    /**
+     * Shown when a contract has no provider linked.
+     */
+    private static final String DEFAULT_PROVIDER_NAME = "DriveEase Elite";
+
+    /**
+     * Contracts priced per task by quoteScenarios; smaller inventories are priced on the calling thread.
+     */
+    static final int QUOTE_CHUNK_SIZE = 256;
+
     private final VehicleContractRepository contractRepository;
 
+    private final AvailabilityIndex availabilityIndex;
+
+    private final VehicleSearchCache searchCache;
+
+    private final PricingEngine pricingEngine;
+
+    private final BookingRepository bookingRepository;
+
+    private final BookingRequestRepository bookingRequestRepository;
+
+    private final ReservationService reservationService;
+
+    private final EmailOutboxService emailOutboxService;
+
+    private final ApplicationEventPublisher eventPublisher;
+
     /**
-     * Constructor-based dependency injection for the Repository.
+     * Constructor-based dependency injection for repositories, in-memory indexes, the reservation engine and the email outbox.
      */
-    public BookingService(VehicleContractRepository contractRepository) {
+    public BookingService(VehicleContractRepository contractRepository, AvailabilityIndex availabilityIndex,
+                          VehicleSearchCache searchCache, PricingEngine pricingEngine, BookingRepository bookingRepository,
+                          BookingRequestRepository bookingRequestRepository, ReservationService reservationService,
+                          EmailOutboxService emailOutboxService, ApplicationEventPublisher eventPublisher) {
         this.contractRepository = contractRepository;
+        this.availabilityIndex = availabilityIndex;
+        this.searchCache = searchCache;
+        this.pricingEngine = pricingEngine;
+        this.bookingRepository = bookingRepository;
+        this.bookingRequestRepository = bookingRequestRepository;
+        this.reservationService = reservationService;
+        this.emailOutboxService = emailOutboxService;
+        this.eventPublisher = eventPublisher;
+    }
+
+    /**
+     * Turns a pending BookingRequest into a confirmed Booking.
+     * Logic (one database transaction via ReservationService, all or nothing):
+     * 1. Check that the contract still has 'vehicleCount' units free for the whole rental window.
+     * 2. Insert the booking.
+     * 3. Mark the originating request as APPROVED (a request that is no longer PENDING is rejected).
+     * 4. Queue the confirmation email in the outbox (delivered later by EmailOutboxDispatcher).
+     * 5. Publish the booking and request changes (applied by listeners after commit, e.g. agent queue counters).
+     * * @param booking The new booking with customer, agent and contract already linked.
+     * @param requestId ID of the BookingRequest being approved.
+     * @return The saved booking.
+     * @throws CapacityExceededException If the contract is fully booked for the window.
+     */
+    public Booking confirmRequest(Booking booking, Long requestId) {
+        return reservationService.reserve(booking.getVehicleContract().getContractId(), claimOf(booking), () -> {
+            BookingRequest req = bookingRequestRepository.findById(requestId).orElseThrow();
+            if (!BookingRequest.STATUS_PENDING.equals(req.getStatus())) {
+                throw new IllegalStateException("Request " + requestId + " is already " + req.getStatus());
+            }
+            bookingRepository.save(booking);
+
+            BookingRequestSnapshot requestBefore = BookingRequestSnapshot.of(req);
+            req.setStatus(BookingRequest.STATUS_APPROVED);
+            bookingRequestRepository.save(req);
+
+            User customer = booking.getCustomer();
+            if (customer != null && customer.getEmail() != null && !customer.getEmail().isEmpty()) {
+                emailOutboxService.enqueueBookingConfirmation(
+                        customer.getEmail(),
+                        customer.getUsername(),            // Passing customer name
+                        req.getVehicleType(),              // Passing vehicle model
+                        booking.getPickupDate().toString(), // Pickup date
+                        req.getFinalPrice().toString()     // Price
+                );
+            }
+
+            // Delivered to listeners only after the transaction commits
+            eventPublisher.publishEvent(BookingChangedEvent.created(BookingSnapshot.of(booking)));
+            eventPublisher.publishEvent(new BookingRequestChangedEvent(requestBefore, BookingRequestSnapshot.of(req)));
+            return booking;
+        });
+    }
+
+    /**
+     * Inserts a booking entered directly by an agent (no originating request), after the same capacity check.
+     * @throws CapacityExceededException If the contract is fully booked for the window.
+     */
+    public Booking createBooking(Booking booking) {
+        return reservationService.reserve(booking.getVehicleContract().getContractId(), claimOf(booking), () -> {
+            bookingRepository.save(booking);
+            eventPublisher.publishEvent(BookingChangedEvent.created(BookingSnapshot.of(booking)));
+            return booking;
+        });
+    }
+
+    /**
+     * Updates the editable booking fields. A new pickup date is checked against the contract's capacity,
+     * without counting the booking's current window against itself.
+     * The booking is read again under the contract lock, so a concurrent move of the same booking
+     * is never checked against a window the booking no longer holds.
+     * * @param customerName New customer name, or null to keep it.
+     * @param pickupDate New pickup date, or null to keep it.
+     */
+    public Booking updateBooking(Long bookingId, String customerName, LocalDate pickupDate) {
+        Long contractId = BookingSnapshot.of(bookingRepository.findById(bookingId).orElseThrow()).contractId();
+        return reservationService.reserve(contractId, null, () -> {
+            Booking booking = bookingRepository.findById(bookingId).orElseThrow();
+            BookingSnapshot old = BookingSnapshot.of(booking);
+            if (pickupDate != null) {
+                reservationService.checkClaim(contractId,
+                        new ReservationService.Claim(pickupDate, Math.max(1, old.rentalDays()), Math.max(1, old.vehicleCount()), old));
+            }
+            if (customerName != null) booking.setCustomerName(customerName);
+            if (pickupDate != null) booking.setPickupDate(pickupDate);
+            bookingRepository.save(booking);
+            eventPublisher.publishEvent(new BookingChangedEvent(old, BookingSnapshot.of(booking)));
+            return booking;
+        });
+    }
+
+    /**
+     * Deletes a booking and returns its units to the contract.
+     * The row is read again under the contract lock: when a concurrent delete got there first,
+     * nothing is published, so the units are never released twice.
+     * @return False when the booking does not exist (or no longer exists).
+     */
+    public boolean deleteBooking(Long bookingId) {
+        Optional<Booking> existing = bookingRepository.findById(bookingId);
+        if (existing.isEmpty()) {
+            return false;
+        }
+        return reservationService.reserve(BookingSnapshot.of(existing.get()).contractId(), null, () -> {
+            Optional<Booking> booking = bookingRepository.findById(bookingId);
+            if (booking.isEmpty()) {
+                return false;
+            }
+            // A delete that finds no row (another instance won) fails the attempt, which reserve then repeats
+            bookingRepository.delete(booking.get());
+            eventPublisher.publishEvent(BookingChangedEvent.deleted(BookingSnapshot.of(booking.get())));
+            return true;
+        });
+    }
+
+    private static ReservationService.Claim claimOf(Booking booking) {
+        return ReservationService.Claim.of(booking.getPickupDate(), booking.getRentalDays(), booking.getVehicleCount());
     }
 
     /**
@@ -42,6 +211,180 @@ public class BookingService {
         return contractRepository.findByVehicleTypeAndAvailabilityStatus(type, true);
     }
 
+    /**
+     * Date-aware variant of the search.
+     * Starts from the available contracts of the requested type and drops every contract
+     * that has no unit left on some day of [pickupDate, pickupDate + days).
+     * The overlap check is answered by the in-memory AvailabilityIndex, not by SQL.
+     * * @param type The category of vehicle the customer is looking for.
+     * @param pickupDate Desired pickup date, or null to skip the date check.
+     * @param days Rental length in days.
+     * @return Contracts that are available and have at least one unit free for the whole window.
+     */
+    public List<VehicleContract> searchAvailableVehicles(String type, LocalDate pickupDate, int days) {
+        List<VehicleContract> contracts = searchAvailableVehicles(type);
+        if (pickupDate == null) {
+            return contracts;
+        }
+        return contracts.stream()
+                .filter(contract -> availabilityIndex.hasCapacity(contract.getContractId(), pickupDate, days, 1,
+                        contract.getTotalUnits()))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Builds the rows returned by the public search endpoint.
+     * Logic:
+     * 1. The priced rows for (type, days, count) come from VehicleSearchCache and are only rebuilt on a miss.
+     * 2. If a pickup date is given, rows whose contract cannot take 'count' more units on every day of the window
+     *    are dropped using the in-memory AvailabilityIndex (never cached because bookings change often).
+     * * @return Read-only result rows; callers must not modify them.
+     */
+    public List<Map<String, Object>> searchVehicleRows(String type, int days, int count, LocalDate pickupDate) {
+        List<Map<String, Object>> rows = searchCache.getSearchResults(type, days, count,
+                () -> buildSearchRows(type, days, count));
+        if (pickupDate == null) {
+            return rows;
+        }
+        return rows.stream()
+                .filter(row -> availabilityIndex.hasCapacity((Long) row.get("contractId"), pickupDate, days, count,
+                        (Integer) row.get("totalUnits")))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Same filtering rules as searchAvailableVehicles, but returns the flat search projection
+     * (one joined select, no entities) used to build search rows.
+     */
+    public List<VehicleSearchView> searchAvailableVehicleViews(String type) {
+        if (type == null || type.trim().isEmpty() || type.equalsIgnoreCase("All")) {
+            return contractRepository.findAvailableSearchViews();
+        }
+        return contractRepository.findAvailableSearchViewsByType(type);
+    }
+
+    /**
+     * Prices the available inventory for several (days, count) scenarios at once.
+     * Logic:
+     * 1. One repository read loads every available contract; the type filter is applied in memory.
+     * 2. The contract list is split into chunks of QUOTE_CHUNK_SIZE that are priced in parallel,
+     *    each chunk with a single PricingEngine.quoteAll pass over all scenarios.
+     * 3. With a pickup date, cells whose window has fewer than 'count' units free are left null (AvailabilityIndex).
+     * * @throws IllegalArgumentException if there are no scenarios, too many, or one has days/count below 1.
+     */
+    public BatchQuoteResponse quoteScenarios(BatchQuoteRequest request) {
+        List<BatchQuoteRequest.Scenario> scenarios = request.scenarios();
+        if (scenarios == null || scenarios.isEmpty()) {
+            throw new IllegalArgumentException("At least one scenario is required");
+        }
+        if (scenarios.size() > BatchQuoteRequest.MAX_SCENARIOS) {
+            throw new IllegalArgumentException("At most " + BatchQuoteRequest.MAX_SCENARIOS + " scenarios are allowed");
+        }
+        int[] days = new int[scenarios.size()];
+        int[] counts = new int[scenarios.size()];
+        for (int j = 0; j < scenarios.size(); j++) {
+            BatchQuoteRequest.Scenario scenario = scenarios.get(j);
+            if (scenario == null || scenario.days() < 1 || scenario.count() < 1) {
+                throw new IllegalArgumentException("Scenario " + j + " needs days and count of at least 1");
+            }
+            days[j] = scenario.days();
+            counts[j] = scenario.count();
+        }
+
+        List<VehicleSearchView> contracts = filterByTypes(contractRepository.findAvailableSearchViews(), request.types());
+        List<BatchQuoteResponse.Vehicle> vehicles = new ArrayList<>(contracts.size());
+        for (VehicleSearchView contract : contracts) {
+            vehicles.add(new BatchQuoteResponse.Vehicle(contract.getContractId(), contract.getVehicleType(),
+                    contract.getProviderName() != null ? contract.getProviderName() : DEFAULT_PROVIDER_NAME,
+                    contract.getBaseRatePerDay()));
+        }
+
+        BigDecimal[][] prices = new BigDecimal[contracts.size()][];
+        int chunks = (contracts.size() + QUOTE_CHUNK_SIZE - 1) / QUOTE_CHUNK_SIZE;
+        IntStream chunkIndexes = IntStream.range(0, chunks);
+        if (chunks > 1) {
+            chunkIndexes = chunkIndexes.parallel();
+        }
+        // Every chunk writes its own rows of 'prices'; the terminal operation publishes them to this thread
+        chunkIndexes.forEach(chunk -> {
+            int from = chunk * QUOTE_CHUNK_SIZE;
+            int to = Math.min(contracts.size(), from + QUOTE_CHUNK_SIZE);
+            priceChunk(contracts.subList(from, to), from, days, counts, request.pickupDate(), prices);
+        });
+        return new BatchQuoteResponse(List.copyOf(scenarios), vehicles, prices);
+    }
+
+    private void priceChunk(List<VehicleSearchView> chunk, int offset, int[] days, int[] counts,
+                            LocalDate pickupDate, BigDecimal[][] prices) {
+        List<BigDecimal> rates = new ArrayList<>(chunk.size());
+        for (VehicleSearchView contract : chunk) {
+            rates.add(contract.getBaseRatePerDay());
+        }
+        PricingEngine.QuoteMatrix quotes = pricingEngine.quoteAll(PricingEngine.RateTable.of(rates), days, counts);
+
+        for (int i = 0; i < chunk.size(); i++) {
+            VehicleSearchView contract = chunk.get(i);
+            BigDecimal[] row = new BigDecimal[days.length];
+            for (int j = 0; j < days.length; j++) {
+                if (pickupDate == null || availabilityIndex.hasCapacity(contract.getContractId(), pickupDate, days[j],
+                        counts[j], contract.getTotalUnits())) {
+                    row[j] = quotes.get(i, j);
+                }
+            }
+            prices[offset + i] = row;
+        }
+    }
+
+    /**
+     * In-memory equivalent of the repository's type filter (the database compares types case-insensitively).
+     */
+    private static List<VehicleSearchView> filterByTypes(List<VehicleSearchView> contracts, List<String> types) {
+        if (types == null || types.isEmpty()) {
+            return contracts;
+        }
+        Set<String> wanted = new HashSet<>();
+        for (String type : types) {
+            if (type == null || type.trim().isEmpty() || type.trim().equalsIgnoreCase("All")) {
+                return contracts;
+            }
+            wanted.add(type.trim().toLowerCase(Locale.ROOT));
+        }
+        return contracts.stream()
+                .filter(contract -> contract.getVehicleType() != null
+                        && wanted.contains(contract.getVehicleType().toLowerCase(Locale.ROOT)))
+                .collect(Collectors.toList());
+    }
+
+    private List<Map<String, Object>> buildSearchRows(String type, int days, int count) {
+        List<VehicleSearchView> contracts = searchAvailableVehicleViews(type);
+
+        // One fixed-point pass prices every contract for the requested (days, count)
+        List<BigDecimal> rates = new ArrayList<>(contracts.size());
+        for (VehicleSearchView contract : contracts) {
+            rates.add(contract.getBaseRatePerDay());
+        }
+        PricingEngine.QuoteMatrix quotes = pricingEngine.quoteAll(
+                PricingEngine.RateTable.of(rates), new int[]{days}, new int[]{count});
+
+        List<Map<String, Object>> resultList = new ArrayList<>(contracts.size());
+        for (int i = 0; i < contracts.size(); i++) {
+            VehicleSearchView contract = contracts.get(i);
+            Map<String, Object> response = new HashMap<>();
+            response.put("contractId", contract.getContractId());
+            response.put("vehicleType", contract.getVehicleType());
+            response.put("providerName", contract.getProviderName() != null ? contract.getProviderName() : DEFAULT_PROVIDER_NAME);
+            response.put("finalPrice", quotes.get(i, 0));
+            response.put("baseRate", contract.getBaseRatePerDay());
+            response.put("availability", contract.isAvailabilityStatus() ? "Available" : "Not Available");
+            response.put("totalUnits", contract.getTotalUnits());
+            response.put("imageUrl", "https://images.unsplash.com/photo-1494976388531-d1058494cdd8?w=600");
+
+            // Rows are shared by every cache hit, so they are frozen before publishing
+            resultList.add(Collections.unmodifiableMap(response));
+        }
+        return Collections.unmodifiableList(resultList);
+    }
+
     /**
      * Calculates the total rental cost for a booking inquiry.
      * Business Rule: A 10% Markup is added to the base rate for service fees.
@@ -49,22 +392,9 @@ public class BookingService {
      * * @param baseRate The daily rental price from the contract.
      * @param days Total duration of the rental.
      * @param vehicleCount Number of units requested.
-     * @return The final total price as a high-precision BigDecimal.
+     * @return The final total price as a high-precision BigDecimal (computed in fixed point by PricingEngine).
      */
     public BigDecimal calculateFinalPrice(BigDecimal baseRate, int days, int vehicleCount) {
-        // Safety check: Ensuring days and count are at least 1 to prevent zero-pricing errors
-        int rentalDays = Math.max(1, days);
-        int count = Math.max(1, vehicleCount);
-
-        // Define a 10% markup multiplier (1.10)
-        BigDecimal markupMultiplier = new BigDecimal("1.10");
-
-        // Step 1: Apply the 10% service markup to the base daily rate
-        BigDecimal rateWithMarkup = baseRate.multiply(markupMultiplier);
-
-        // Step 2: Multiply the adjusted rate by the number of days and the number of vehicles
-        return rateWithMarkup
-                .multiply(new BigDecimal(rentalDays))
-                .multiply(new BigDecimal(count));
+        return pricingEngine.quote(baseRate, days, vehicleCount);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,352 @@
+package com.driveease.rental.service;
+
+import com.driveease.rental.dto.ImportReport;
+import com.driveease.rental.event.ContractChangedEvent;
+import com.driveease.rental.model.Provider;
+import com.driveease.rental.model.User;
+import com.driveease.rental.model.VehicleContract;
+import com.driveease.rental.repository.ProviderRepository;
+import com.driveease.rental.repository.UserRepository;
+import com.driveease.rental.repository.VehicleContractRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * BulkImportService loads providers and vehicle contracts from an uploaded CSV or NDJSON file.
+ * Logic:
+ * 1. Records are parsed one at a time (ImportRowReader) and validated; bad rows go to the error report.
+ * 2. Valid rows are collected into chunks of 'driveease.import.chunk-size' rows.
+ * 3. Every chunk is inserted in its own transaction, so Hibernate can send the INSERTs as JDBC batches
+ *    (hibernate.jdbc.batch_size) and a failing chunk never rolls back the chunks before it.
+ * 4. After each chunk the persistence context is flushed and cleared, so memory and flush cost stay
+ *    per chunk even when the EntityManager outlives the chunk transactions.
+ */
+@Service
+public class BulkImportService {
+
+    private static final Logger log = LoggerFactory.getLogger(BulkImportService.class);
+
+    private static final int MAX_TEXT_LENGTH = 255;
+
+    private final ProviderRepository providerRepository;
+
+    private final VehicleContractRepository contractRepository;
+
+    private final UserRepository userRepository;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final ObjectMapper objectMapper;
+
+    private final EntityManager entityManager;
+
+    private final TransactionTemplate chunkTransaction;
+
+    private final int chunkSize;
+
+    public BulkImportService(ProviderRepository providerRepository, VehicleContractRepository contractRepository,
+                             UserRepository userRepository, ApplicationEventPublisher eventPublisher,
+                             ObjectMapper objectMapper, EntityManager entityManager,
+                             PlatformTransactionManager transactionManager,
+                             @Value("${driveease.import.chunk-size:500}") int chunkSize) {
+        this.providerRepository = providerRepository;
+        this.contractRepository = contractRepository;
+        this.userRepository = userRepository;
+        this.eventPublisher = eventPublisher;
+        this.objectMapper = objectMapper;
+        this.entityManager = entityManager;
+        this.chunkTransaction = new TransactionTemplate(transactionManager);
+        this.chunkSize = Math.max(1, chunkSize);
+    }
+
+    /**
+     * Imports providers. Columns: providerName (required), contactDetails.
+     * Names already present in the database (or earlier in the file) are rejected as duplicates.
+     * @param format 'csv' or 'ndjson'.
+     * @throws IllegalArgumentException for an unsupported format or a CSV file without header.
+     */
+    public ImportReport importProviders(InputStream in, String format) throws IOException {
+        Set<String> knownNames = new HashSet<>();
+        for (Provider provider : providerRepository.findAll()) {
+            if (provider.getProviderName() != null) {
+                knownNames.add(provider.getProviderName().trim().toLowerCase(Locale.ROOT));
+            }
+        }
+
+        return run(in, format, values -> {
+            String name = required(values, "providername");
+            if (!knownNames.add(name.toLowerCase(Locale.ROOT))) {
+                throw new IllegalArgumentException("Provider '" + name + "' already exists");
+            }
+            Provider provider = new Provider();
+            provider.setProviderName(name);
+            provider.setContactDetails(optional(values, "contactdetails"));
+            return provider;
+        }, providers -> providerRepository.saveAll(providers));
+    }
+
+    /**
+     * Imports vehicle contracts.
+     * Columns: vehicleType and baseRatePerDay (required), allowedMileage (default 0),
+     * availabilityStatus (default true), providerId or providerName, agentId (must be an AGENT).
+     * @param format 'csv' or 'ndjson'.
+     * @throws IllegalArgumentException for an unsupported format or a CSV file without header.
+     */
+    public ImportReport importContracts(InputStream in, String format) throws IOException {
+        Set<Long> providerIds = new HashSet<>();
+        Map<String, Long> providerIdsByName = new HashMap<>();
+        for (Provider provider : providerRepository.findAll()) {
+            providerIds.add(provider.getProviderId());
+            if (provider.getProviderName() != null) {
+                providerIdsByName.putIfAbsent(provider.getProviderName().trim().toLowerCase(Locale.ROOT), provider.getProviderId());
+            }
+        }
+        Set<Long> agentIds = new HashSet<>();
+        for (User agent : userRepository.findByRole(User.Role.AGENT)) {
+            agentIds.add(agent.getUserId());
+        }
+
+        return run(in, format, values -> {
+            ContractDraft draft = new ContractDraft();
+            draft.contract.setVehicleType(required(values, "vehicletype"));
+            draft.contract.setBaseRatePerDay(parseRate(required(values, "baserateperday")));
+            draft.contract.setAllowedMileage(parseMileage(optional(values, "allowedmileage")));
+            draft.contract.setAvailabilityStatus(parseBoolean(optional(values, "availabilitystatus"), true));
+
+            String providerId = optional(values, "providerid");
+            String providerName = optional(values, "providername");
+            if (providerId != null) {
+                draft.providerId = parseId(providerId, "providerId");
+                if (!providerIds.contains(draft.providerId)) {
+                    throw new IllegalArgumentException("Unknown providerId " + draft.providerId);
+                }
+            } else if (providerName != null) {
+                draft.providerId = providerIdsByName.get(providerName.toLowerCase(Locale.ROOT));
+                if (draft.providerId == null) {
+                    throw new IllegalArgumentException("Unknown providerName '" + providerName + "'");
+                }
+            }
+            String agentId = optional(values, "agentid");
+            if (agentId != null) {
+                draft.agentId = parseId(agentId, "agentId");
+                if (!agentIds.contains(draft.agentId)) {
+                    throw new IllegalArgumentException("agentId " + draft.agentId + " is not an agent");
+                }
+            }
+            return draft;
+        }, drafts -> {
+            List<VehicleContract> contracts = new ArrayList<>(drafts.size());
+            for (ContractDraft draft : drafts) {
+                // References only carry the foreign key; nothing is loaded from the database
+                if (draft.providerId != null) {
+                    draft.contract.setProvider(providerRepository.getReferenceById(draft.providerId));
+                }
+                if (draft.agentId != null) {
+                    draft.contract.setAgent(userRepository.getReferenceById(draft.agentId));
+                }
+                contracts.add(draft.contract);
+            }
+            contractRepository.saveAll(contracts);
+            // Delivered after the chunk commits (search cache eviction, fleet rollup)
+            for (VehicleContract contract : contracts) {
+                eventPublisher.publishEvent(ContractChangedEvent.created(contract.getContractId(), contract.getVehicleType()));
+            }
+        });
+    }
+
+    private <T> ImportReport run(InputStream in, String format, RowMapper<T> mapper, Consumer<List<T>> writer)
+            throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        ImportRowReader rows;
+        if ("ndjson".equalsIgnoreCase(format)) {
+            rows = ImportRowReader.ndjson(reader, objectMapper);
+        } else if ("csv".equalsIgnoreCase(format)) {
+            rows = ImportRowReader.csv(reader);
+        } else {
+            throw new IllegalArgumentException("Unsupported format: " + format + " (use 'csv' or 'ndjson')");
+        }
+
+        ReportBuilder report = new ReportBuilder();
+        List<Long> lines = new ArrayList<>(chunkSize);
+        List<T> chunk = new ArrayList<>(chunkSize);
+        ImportRowReader.Row row;
+        while ((row = rows.next()) != null) {
+            report.processed++;
+            if (row.error() != null) {
+                report.reject(row.line(), row.error());
+                continue;
+            }
+            try {
+                chunk.add(mapper.map(row.values()));
+                lines.add(row.line());
+            } catch (IllegalArgumentException e) {
+                report.reject(row.line(), e.getMessage());
+                continue;
+            }
+            if (chunk.size() == chunkSize) {
+                writeChunk(chunk, lines, writer, report);
+            }
+        }
+        if (!chunk.isEmpty()) {
+            writeChunk(chunk, lines, writer, report);
+        }
+        return report.build();
+    }
+
+    private <T> void writeChunk(List<T> chunk, List<Long> lines, Consumer<List<T>> writer, ReportBuilder report) {
+        try {
+            chunkTransaction.executeWithoutResult(status -> {
+                writer.accept(chunk);
+                entityManager.flush();
+                entityManager.clear();
+            });
+            report.imported += chunk.size();
+        } catch (DataAccessException | TransactionException e) {
+            String cause = NestedExceptionUtils.getMostSpecificCause(e).getMessage();
+            log.warn("Import chunk of {} rows (lines {}-{}) rolled back: {}",
+                    chunk.size(), lines.get(0), lines.get(lines.size() - 1), cause);
+            for (Long line : lines) {
+                report.reject(line, "Not imported, its chunk was rolled back: " + cause);
+            }
+        }
+        chunk.clear();
+        lines.clear();
+    }
+
+    // ========================================================================
+    // FIELD PARSING (every failure is reported as IllegalArgumentException)
+    // ========================================================================
+
+    private static String required(Map<String, String> values, String column) {
+        String value = optional(values, column);
+        if (value == null) {
+            throw new IllegalArgumentException(column + " is required");
+        }
+        return value;
+    }
+
+    private static String optional(Map<String, String> values, String column) {
+        String value = values.get(column);
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        value = value.trim();
+        if (value.length() > MAX_TEXT_LENGTH) {
+            throw new IllegalArgumentException(column + " is longer than " + MAX_TEXT_LENGTH + " characters");
+        }
+        return value;
+    }
+
+    /**
+     * Rates must be positive and fit the 'base_rate_per_day' column (two decimals).
+     */
+    private static BigDecimal parseRate(String text) {
+        BigDecimal rate;
+        try {
+            rate = new BigDecimal(text);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("baseRatePerDay '" + text + "' is not a number");
+        }
+        if (rate.signum() <= 0) {
+            throw new IllegalArgumentException("baseRatePerDay must be positive");
+        }
+        if (rate.stripTrailingZeros().scale() > 2) {
+            throw new IllegalArgumentException("baseRatePerDay has more than 2 decimals");
+        }
+        return rate;
+    }
+
+    private static int parseMileage(String text) {
+        if (text == null) {
+            return 0;
+        }
+        try {
+            int mileage = Integer.parseInt(text);
+            if (mileage < 0) {
+                throw new IllegalArgumentException("allowedMileage must not be negative");
+            }
+            return mileage;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("allowedMileage '" + text + "' is not a whole number");
+        }
+    }
+
+    private static boolean parseBoolean(String text, boolean defaultValue) {
+        if (text == null) {
+            return defaultValue;
+        }
+        switch (text.toLowerCase(Locale.ROOT)) {
+            case "true", "1", "yes", "y":
+                return true;
+            case "false", "0", "no", "n":
+                return false;
+            default:
+                throw new IllegalArgumentException("availabilityStatus '" + text + "' is not true/false");
+        }
+    }
+
+    private static Long parseId(String text, String column) {
+        try {
+            return Long.valueOf(text);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(column + " '" + text + "' is not a number");
+        }
+    }
+
+    @FunctionalInterface
+    private interface RowMapper<T> {
+        T map(Map<String, String> values);
+    }
+
+    /**
+     * A validated contract row whose provider/agent links are resolved inside the chunk transaction.
+     */
+    private static final class ContractDraft {
+        private final VehicleContract contract = new VehicleContract();
+        private Long providerId;
+        private Long agentId;
+    }
+
+    private static final class ReportBuilder {
+        private long processed;
+        private long imported;
+        private long failed;
+        private final List<ImportReport.RowError> errors = new ArrayList<>();
+
+        void reject(long line, String message) {
+            failed++;
+            if (errors.size() < ImportReport.MAX_REPORTED_ERRORS) {
+                errors.add(new ImportReport.RowError(line, message));
+            }
+        }
+
+        ImportReport build() {
+            return new ImportReport(processed, imported, failed, List.copyOf(errors), failed > errors.size());
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.driveease.rental.service;
+
+/**
+ * Thrown by ReservationService when a booking would need more units than the contract has free
+ * on some day of the requested window. Controllers answer with 409 Conflict.
+ */
+public class CapacityExceededException extends RuntimeException {
+
+    public CapacityExceededException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,537 @@
+package com.driveease.rental.service;
+
+import com.driveease.rental.config.ReadReplicaRoutingDataSource;
+import com.driveease.rental.dto.ContactSearchPage;
+import com.driveease.rental.model.ContactMessage;
+import com.driveease.rental.repository.ContactRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * ContactSearchIndex is an in-memory inverted index over the contact inbox
+ * (subject, message, email, first and last name), so admins can search it without downloading every message.
+ * Logic:
+ * 1. At startup the index is read from the local snapshot file, then caught up with the messages submitted
+ *    since; without a usable snapshot (or when the message count does not match) it is built from the table.
+ * 2. sendMessage adds each new message right after saving it. A periodic catch-up picks up messages stored
+ *    through other application instances.
+ * 3. A search requires every query term (the last one also matches as a prefix, for search-as-you-type)
+ *    and ranks by BM25-style term weights, subject and sender matches counting more than body matches.
+ * 4. Only the ids are ranked in memory; the requested page of messages is then loaded by primary key.
+ * The snapshot is rewritten periodically and on shutdown when the index has changed.
+ */
+@Component
+public class ContactSearchIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(ContactSearchIndex.class);
+
+    /**
+     * Written at the start of the snapshot file ("DECS"); bump SNAPSHOT_FORMAT whenever the tokenizer,
+     * the field weights or the file layout change, so old snapshots are rebuilt instead of being misread.
+     */
+    private static final int SNAPSHOT_MAGIC = 0x44454353;
+    static final int SNAPSHOT_FORMAT = 1;
+
+    static final int SUBJECT_WEIGHT = 3;
+    static final int SENDER_WEIGHT = 2;
+    static final int MESSAGE_WEIGHT = 1;
+
+    private static final int MIN_TERM_LENGTH = 2;
+    private static final int MAX_TERM_LENGTH = 40;
+
+    /**
+     * Upper bound on the terms a trailing prefix expands to ("a" would otherwise touch the whole vocabulary).
+     */
+    private static final int MAX_PREFIX_TERMS = 64;
+
+    /**
+     * BM25 term frequency saturation.
+     */
+    private static final float K1 = 1.2f;
+
+    private static final int LOAD_PAGE_SIZE = 1000;
+
+    /**
+     * Catch-up re-reads this much before the newest indexed message: covers clock skew between
+     * instances and transactions that committed after a later-stamped message.
+     */
+    private static final Duration CATCH_UP_OVERLAP = Duration.ofMinutes(5);
+
+    private static final LocalDateTime EPOCH = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    private final ContactRepository contactRepository;
+
+    private final Path snapshotPath;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Everything below is guarded by 'lock'
+
+    /**
+     * Term -> the messages containing it. Sorted, so a prefix is a sub-map.
+     */
+    private final TreeMap<String, Postings> terms = new TreeMap<>();
+
+    /**
+     * Message id -> dense document number used in the postings.
+     */
+    private final Map<Long, Integer> documentsById = new HashMap<>();
+
+    private long[] messageIds = new long[1024];
+
+    private int documentCount;
+
+    /**
+     * Newest 'submittedAt' in the index; catch-up starts here (minus the overlap).
+     */
+    private LocalDateTime watermark;
+
+    private volatile boolean dirty;
+
+    public ContactSearchIndex(ContactRepository contactRepository,
+                              @Value("${driveease.contact-search.snapshot-path:data/contact-search.idx}") String snapshotPath) {
+        this.contactRepository = contactRepository;
+        this.snapshotPath = snapshotPath == null || snapshotPath.isBlank() ? null : Path.of(snapshotPath);
+    }
+
+    @PostConstruct
+    public void init() {
+        ReadReplicaRoutingDataSource.onPrimary(() -> {
+            if (loadSnapshot()) {
+                catchUp();
+                long stored = contactRepository.count();
+                if (stored == size()) {
+                    return null;
+                }
+                log.info("Contact search snapshot covers {} of {} messages, rebuilding", size(), stored);
+            }
+            rebuild();
+            return null;
+        });
+    }
+
+    /**
+     * Re-indexes the whole table, in primary key order and pages of LOAD_PAGE_SIZE messages.
+     */
+    public void rebuild() {
+        lock.writeLock().lock();
+        try {
+            clear();
+            long afterId = 0L;
+            List<ContactMessage> rows;
+            do {
+                rows = contactRepository.findByIdGreaterThanOrderByIdAsc(afterId, PageRequest.ofSize(LOAD_PAGE_SIZE));
+                rows.forEach(this::index);
+                if (!rows.isEmpty()) {
+                    afterId = rows.get(rows.size() - 1).getId();
+                }
+            } while (rows.size() == LOAD_PAGE_SIZE);
+            dirty = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Contact search index built: {} messages, {} terms", size(), termCount());
+    }
+
+    /**
+     * Indexes messages submitted since the newest one already in the index.
+     * Also picks up messages that were saved through another application instance.
+     */
+    @Scheduled(initialDelayString = "${driveease.contact-search.catch-up-interval:30s}",
+            fixedDelayString = "${driveease.contact-search.catch-up-interval:30s}")
+    public void catchUp() {
+        LocalDateTime from;
+        lock.readLock().lock();
+        try {
+            from = watermark == null ? EPOCH : watermark.minus(CATCH_UP_OVERLAP);
+        } finally {
+            lock.readLock().unlock();
+        }
+        long afterId = 0L;
+        List<ContactMessage> rows;
+        do {
+            rows = contactRepository.findSubmittedAfter(from, afterId, PageRequest.ofSize(LOAD_PAGE_SIZE));
+            addAll(rows);
+            if (!rows.isEmpty()) {
+                ContactMessage last = rows.get(rows.size() - 1);
+                from = last.getSubmittedAt();
+                afterId = last.getId();
+            }
+        } while (rows.size() == LOAD_PAGE_SIZE);
+    }
+
+    /**
+     * Adds a newly saved message. Messages already in the index are ignored.
+     */
+    public void add(ContactMessage message) {
+        addAll(List.of(message));
+    }
+
+    private void addAll(List<ContactMessage> messages) {
+        if (messages.isEmpty()) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            for (ContactMessage message : messages) {
+                if (message.getId() != null && !documentsById.containsKey(message.getId())) {
+                    index(message);
+                    dirty = true;
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // ========================================================================
+    // SEARCH
+    // ========================================================================
+
+    /**
+     * Ranked search, best match first (newest first among equal scores).
+     * * @param query Free text; every term must match, the last one as a prefix unless the query ends with a space.
+     * @param page Zero-based page number; pages before the first or past the last are empty.
+     * @param limit Page size.
+     * @return The requested page of messages plus the total number of matches.
+     */
+    public ContactSearchPage search(String query, int page, int limit) {
+        List<Long> ids = new ArrayList<>(limit);
+        int total = rank(query, (long) page * limit, limit, ids);
+        if (ids.isEmpty()) {
+            return new ContactSearchPage(List.of(), total, page, limit);
+        }
+        Map<Long, ContactMessage> loaded = contactRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(ContactMessage::getId, Function.identity()));
+        List<ContactMessage> items = ids.stream().map(loaded::get).filter(m -> m != null).toList();
+        return new ContactSearchPage(items, total, page, limit);
+    }
+
+    /**
+     * Fills 'pageIds' with the ids of the matches [offset, offset + limit) and returns the number of matches.
+     * An offset outside the matches (negative, or at or past the last one) leaves 'pageIds' empty.
+     */
+    int rank(String query, long offset, int limit, List<Long> pageIds) {
+        List<String> queryTerms = new ArrayList<>(new LinkedHashSet<>(tokenize(query)));
+        if (queryTerms.isEmpty()) {
+            return 0;
+        }
+        boolean prefixLast = !Character.isWhitespace(query.charAt(query.length() - 1));
+
+        lock.readLock().lock();
+        try {
+            // One group per query term: the term's postings, or every term it is a prefix of
+            List<List<Postings>> groups = new ArrayList<>(queryTerms.size());
+            for (int i = 0; i < queryTerms.size(); i++) {
+                String term = queryTerms.get(i);
+                List<Postings> group = new ArrayList<>();
+                if (prefixLast && i == queryTerms.size() - 1) {
+                    NavigableMap<String, Postings> expansions = terms.subMap(term, true, term + Character.MAX_VALUE, false);
+                    for (Postings postings : expansions.values()) {
+                        if (group.size() == MAX_PREFIX_TERMS) {
+                            break;
+                        }
+                        group.add(postings);
+                    }
+                } else if (terms.containsKey(term)) {
+                    group.add(terms.get(term));
+                }
+                if (group.isEmpty()) {
+                    return 0;
+                }
+                groups.add(group);
+            }
+
+            // matched[doc] == i once the document has matched the first i groups
+            float[] scores = new float[documentCount];
+            int[] matched = new int[documentCount];
+            for (int i = 0; i < groups.size(); i++) {
+                for (Postings postings : groups.get(i)) {
+                    float idf = idf(postings.size);
+                    for (int p = 0; p < postings.size; p++) {
+                        int doc = postings.documents[p];
+                        if (matched[doc] == i) {
+                            matched[doc] = i + 1;
+                        } else if (matched[doc] != i + 1) {
+                            continue;
+                        }
+                        int weight = postings.weights[p];
+                        scores[doc] += idf * weight * (K1 + 1) / (weight + K1);
+                    }
+                }
+            }
+
+            // Every match is in the first group's postings
+            List<Integer> hits = new ArrayList<>();
+            for (Postings postings : groups.get(0)) {
+                for (int p = 0; p < postings.size; p++) {
+                    int doc = postings.documents[p];
+                    if (matched[doc] == groups.size()) {
+                        matched[doc] = -1;
+                        hits.add(doc);
+                    }
+                }
+            }
+            hits.sort((a, b) -> scores[a] != scores[b]
+                    ? Float.compare(scores[b], scores[a])
+                    : Long.compare(messageIds[b], messageIds[a]));
+            if (offset >= 0 && offset < hits.size()) {
+                int end = (int) Math.min(hits.size(), offset + limit);
+                for (int i = (int) offset; i < end; i++) {
+                    pageIds.add(messageIds[hits.get(i)]);
+                }
+            }
+            return hits.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documentCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    int termCount() {
+        lock.readLock().lock();
+        try {
+            return terms.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // ========================================================================
+    // SNAPSHOT
+    // ========================================================================
+
+    /**
+     * Writes the index to the snapshot file if it changed since the last write.
+     * The file is written next to the old one and then moved over it, so a crash never leaves a torn snapshot.
+     */
+    @Scheduled(initialDelayString = "${driveease.contact-search.snapshot-interval:5m}",
+            fixedDelayString = "${driveease.contact-search.snapshot-interval:5m}")
+    @PreDestroy
+    public synchronized void saveSnapshot() {
+        if (snapshotPath == null || !dirty) {
+            return;
+        }
+        lock.readLock().lock(); // writers wait; searches continue
+        try {
+            Path parent = snapshotPath.toAbsolutePath().getParent();
+            Files.createDirectories(parent);
+            Path temporary = Files.createTempFile(parent, snapshotPath.getFileName().toString(), ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+                out.writeInt(SNAPSHOT_MAGIC);
+                out.writeInt(SNAPSHOT_FORMAT);
+                out.writeInt(documentCount);
+                for (int doc = 0; doc < documentCount; doc++) {
+                    out.writeLong(messageIds[doc]);
+                }
+                out.writeBoolean(watermark != null);
+                if (watermark != null) {
+                    out.writeUTF(watermark.toString());
+                }
+                out.writeInt(terms.size());
+                for (Map.Entry<String, Postings> entry : terms.entrySet()) {
+                    Postings postings = entry.getValue();
+                    out.writeUTF(entry.getKey());
+                    out.writeInt(postings.size);
+                    for (int p = 0; p < postings.size; p++) {
+                        out.writeInt(postings.documents[p]);
+                        out.writeInt(postings.weights[p]);
+                    }
+                }
+            }
+            Files.move(temporary, snapshotPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            dirty = false;
+        } catch (IOException e) {
+            log.warn("Could not write contact search snapshot {}: {}", snapshotPath, e.getMessage());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Replaces the index with the snapshot file.
+     * @return false when there is no snapshot, or it is unreadable or from another format (the index is then empty).
+     */
+    boolean loadSnapshot() {
+        if (snapshotPath == null || !Files.isReadable(snapshotPath)) {
+            return false;
+        }
+        lock.writeLock().lock();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(snapshotPath)))) {
+            clear();
+            if (in.readInt() != SNAPSHOT_MAGIC || in.readInt() != SNAPSHOT_FORMAT) {
+                log.info("Ignoring contact search snapshot {} written in another format", snapshotPath);
+                return false;
+            }
+            int documents = in.readInt();
+            messageIds = new long[Math.max(1024, documents)];
+            for (int doc = 0; doc < documents; doc++) {
+                messageIds[doc] = in.readLong();
+                documentsById.put(messageIds[doc], doc);
+            }
+            documentCount = documents;
+            watermark = in.readBoolean() ? LocalDateTime.parse(in.readUTF()) : null;
+            int termTotal = in.readInt();
+            for (int t = 0; t < termTotal; t++) {
+                String term = in.readUTF();
+                int size = in.readInt();
+                Postings postings = new Postings(size);
+                for (int p = 0; p < size; p++) {
+                    postings.add(in.readInt(), in.readInt());
+                }
+                terms.put(term, postings);
+            }
+            log.info("Contact search index loaded from {}: {} messages, {} terms", snapshotPath, documents, termTotal);
+            return true;
+        } catch (IOException | RuntimeException e) {
+            log.warn("Could not read contact search snapshot {}: {}", snapshotPath, e.getMessage());
+            clear();
+            return false;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // ========================================================================
+    // INDEXING
+    // ========================================================================
+
+    /**
+     * Caller holds the write lock.
+     */
+    private void index(ContactMessage message) {
+        Map<String, Integer> weights = new HashMap<>();
+        addField(weights, message.getSubject(), SUBJECT_WEIGHT);
+        addField(weights, message.getFirstName(), SENDER_WEIGHT);
+        addField(weights, message.getLastName(), SENDER_WEIGHT);
+        addField(weights, message.getEmail(), SENDER_WEIGHT);
+        addField(weights, message.getMessage(), MESSAGE_WEIGHT);
+
+        int doc = documentCount++;
+        if (doc == messageIds.length) {
+            messageIds = Arrays.copyOf(messageIds, doc * 2);
+        }
+        messageIds[doc] = message.getId();
+        documentsById.put(message.getId(), doc);
+        weights.forEach((term, weight) -> terms.computeIfAbsent(term, t -> new Postings(4)).add(doc, weight));
+
+        LocalDateTime submittedAt = message.getSubmittedAt();
+        if (submittedAt != null && (watermark == null || submittedAt.isAfter(watermark))) {
+            watermark = submittedAt;
+        }
+    }
+
+    private static void addField(Map<String, Integer> weights, String text, int fieldWeight) {
+        for (String term : tokenize(text)) {
+            weights.merge(term, fieldWeight, Integer::sum);
+        }
+    }
+
+    private void clear() {
+        terms.clear();
+        documentsById.clear();
+        messageIds = new long[1024];
+        documentCount = 0;
+        watermark = null;
+    }
+
+    private float idf(int documentFrequency) {
+        return (float) Math.log(1 + (documentCount - documentFrequency + 0.5) / (documentFrequency + 0.5));
+    }
+
+    /**
+     * Lower-cased runs of letters and digits. Combining marks are kept inside a word,
+     * so Sinhala and Tamil words (vowel signs) are not split apart.
+     */
+    static List<String> tokenize(String text) {
+        if (text == null || text.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<String> tokens = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        text.toLowerCase(Locale.ROOT).codePoints().forEach(c -> {
+            if (isWordChar(c)) {
+                current.appendCodePoint(c);
+            } else {
+                flush(current, tokens);
+            }
+        });
+        flush(current, tokens);
+        return tokens;
+    }
+
+    private static boolean isWordChar(int c) {
+        int type = Character.getType(c);
+        return Character.isLetterOrDigit(c) || type == Character.NON_SPACING_MARK || type == Character.COMBINING_SPACING_MARK;
+    }
+
+    private static void flush(StringBuilder current, List<String> tokens) {
+        if (current.length() >= MIN_TERM_LENGTH) {
+            tokens.add(current.length() > MAX_TERM_LENGTH ? current.substring(0, MAX_TERM_LENGTH) : current.toString());
+        }
+        current.setLength(0);
+    }
+
+    /**
+     * Documents containing one term, with the field-weighted number of occurrences, in indexing order.
+     */
+    private static final class Postings {
+
+        private int[] documents;
+        private int[] weights;
+        private int size;
+
+        Postings(int capacity) {
+            documents = new int[Math.max(1, capacity)];
+            weights = new int[Math.max(1, capacity)];
+        }
+
+        void add(int document, int weight) {
+            if (size == documents.length) {
+                documents = Arrays.copyOf(documents, size * 2);
+                weights = Arrays.copyOf(weights, size * 2);
+            }
+            documents[size] = document;
+            weights[size] = weight;
+            size++;
+        }
+    }
+}
@@ -0,0 +1,206 @@
+package com.driveease.rental.service;
+
+import com.driveease.rental.model.Booking;
+import com.driveease.rental.model.BookingRequest;
+import com.driveease.rental.model.Provider;
+import com.driveease.rental.model.User;
+import com.driveease.rental.model.VehicleContract;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostCommitDeleteEventListener;
+import org.hibernate.event.spi.PostCommitInsertEventListener;
+import org.hibernate.event.spi.PostCommitUpdateEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * DataVersions counts committed writes per data set, so list endpoints can build an ETag without
+ * querying the database. Counters:
+ * - fleet: vehicle contracts and providers (global)
+ * - accounts: users, which are embedded in most list payloads (global)
+ * - bookings: all bookings (global) and the bookings of each agent
+ * - requests: the booking requests of each agent
+ * Logic:
+ * 1. Registered as a Hibernate post-commit listener, it sees every entity insert/update/delete that commits,
+ *    whichever controller or service made it, and bumps the matching counters.
+ * 2. An endpoint reads the counters BEFORE loading its data and sends them as the ETag. A write that commits
+ *    in between only makes the next poll download again; it never pairs old data with a new tag.
+ * 3. Tags carry this instance's ID and a time epoch: writes made through another application instance
+ *    are not counted here, so a tag is only honoured for at most 'driveease.etag.max-staleness'.
+ * JPQL bulk updates are not seen; none of them change what these endpoints return.
+ */
+@Component
+public class DataVersions implements PostCommitInsertEventListener, PostCommitUpdateEventListener,
+        PostCommitDeleteEventListener {
+
+    /**
+     * Sent with tagged responses: the browser may keep them but must revalidate (If-None-Match) every time.
+     * Private because the payloads depend on the logged-in user.
+     */
+    public static final CacheControl REVALIDATE = CacheControl.noCache().cachePrivate();
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    private final long maxStalenessMillis;
+
+    private final String instanceId = UUID.randomUUID().toString().substring(0, 8);
+
+    private final AtomicLong fleet = new AtomicLong();
+
+    private final AtomicLong accounts = new AtomicLong();
+
+    private final AtomicLong bookings = new AtomicLong();
+
+    private final ConcurrentHashMap<Long, AtomicLong> bookingsByAgent = new ConcurrentHashMap<>();
+
+    private final ConcurrentHashMap<Long, AtomicLong> requestsByAgent = new ConcurrentHashMap<>();
+
+    public DataVersions(EntityManagerFactory entityManagerFactory,
+                        @Value("${driveease.etag.max-staleness:60s}") Duration maxStaleness) {
+        this.entityManagerFactory = entityManagerFactory;
+        this.maxStalenessMillis = Math.max(1, maxStaleness.toMillis());
+    }
+
+    @PostConstruct
+    public void register() {
+        EventListenerRegistry registry = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry().getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_COMMIT_INSERT, this);
+        registry.appendListeners(EventType.POST_COMMIT_UPDATE, this);
+        registry.appendListeners(EventType.POST_COMMIT_DELETE, this);
+    }
+
+    // ========================================================================
+    // ETAGS
+    // ========================================================================
+
+    /**
+     * /api/vehicles/available: contracts with their provider and agent.
+     */
+    public String fleetTag() {
+        return tag("fleet", fleet.get(), accounts.get());
+    }
+
+    /**
+     * /api/bookings/search: contract rows, filtered by existing bookings when a pickup date is given.
+     */
+    public String searchTag() {
+        return tag("search", fleet.get(), bookings.get());
+    }
+
+    /**
+     * An agent's request queue, with customer, agent and contract embedded.
+     */
+    public String agentRequestsTag(Long agentId) {
+        return tag("requests", versionOf(requestsByAgent, agentId), fleet.get(), accounts.get());
+    }
+
+    /**
+     * An agent's bookings, with customer, agent and contract embedded.
+     */
+    public String agentBookingsTag(Long agentId) {
+        return tag("bookings", versionOf(bookingsByAgent, agentId), fleet.get(), accounts.get());
+    }
+
+    /**
+     * A quoted strong ETag over the given counters.
+     * * @param scope Distinguishes tags of different endpoints that happen to have the same counter values.
+     */
+    public String tag(String scope, long... versions) {
+        StringBuilder tag = new StringBuilder("\"").append(scope).append('-').append(instanceId)
+                .append('-').append(Long.toString(System.currentTimeMillis() / maxStalenessMillis, 36));
+        for (long version : versions) {
+            tag.append('.').append(version);
+        }
+        return tag.append('"').toString();
+    }
+
+    // ========================================================================
+    // HIBERNATE LISTENER
+    // ========================================================================
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        changed(event.getEntity(), null, event.getPersister());
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        changed(event.getEntity(), event.getOldState(), event.getPersister());
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        changed(event.getEntity(), null, event.getPersister());
+    }
+
+    @Override
+    public void onPostInsertCommitFailed(PostInsertEvent event) {
+        // Rolled back: nothing changed
+    }
+
+    @Override
+    public void onPostUpdateCommitFailed(PostUpdateEvent event) {
+    }
+
+    @Override
+    public void onPostDeleteCommitFailed(PostDeleteEvent event) {
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return true;
+    }
+
+    private void changed(Object entity, Object[] oldState, EntityPersister persister) {
+        if (entity instanceof VehicleContract || entity instanceof Provider) {
+            fleet.incrementAndGet();
+        } else if (entity instanceof User) {
+            accounts.incrementAndGet();
+        } else if (entity instanceof Booking booking) {
+            bookings.incrementAndGet();
+            bump(bookingsByAgent, booking.getAgent(), previousAgent(oldState, persister));
+        } else if (entity instanceof BookingRequest request) {
+            bump(requestsByAgent, request.getAgent(), previousAgent(oldState, persister));
+        }
+    }
+
+    /**
+     * The agent before an update, so a booking or request moved between agents changes both lists.
+     */
+    private static User previousAgent(Object[] oldState, EntityPersister persister) {
+        if (oldState == null) {
+            return null;
+        }
+        Integer index = persister.getEntityMetamodel().getPropertyIndexOrNull("agent");
+        return index != null && oldState[index] instanceof User agent ? agent : null;
+    }
+
+    private static void bump(ConcurrentHashMap<Long, AtomicLong> counters, User agent, User previousAgent) {
+        if (agent != null && agent.getUserId() != null) {
+            counters.computeIfAbsent(agent.getUserId(), id -> new AtomicLong()).incrementAndGet();
+        }
+        if (previousAgent != null && previousAgent.getUserId() != null
+                && (agent == null || !previousAgent.getUserId().equals(agent.getUserId()))) {
+            counters.computeIfAbsent(previousAgent.getUserId(), id -> new AtomicLong()).incrementAndGet();
+        }
+    }
+
+    private static long versionOf(ConcurrentHashMap<Long, AtomicLong> counters, Long agentId) {
+        AtomicLong version = counters.get(agentId);
+        return version != null ? version.get() : 0L;
+    }
+}
@@ -0,0 +1,110 @@
+package com.driveease.rental.service;
+
+import com.driveease.rental.model.EmailOutbox;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.MimeMessage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * EmailOutboxDispatcher drains the email outbox in the background.
+ * Logic:
+ * 1. Claim a batch of due emails.
+ * 2. Render all of them, then hand the whole batch to the mail sender in one call,
+ *    which delivers it over a single SMTP connection.
+ * 3. Report every message as sent or failed; failures are retried with exponential backoff.
+ */
+@Component
+public class EmailOutboxDispatcher {
+
+    private static final Logger log = LoggerFactory.getLogger(EmailOutboxDispatcher.class);
+
+    private final EmailOutboxService outboxService;
+
+    private final EmailService emailService;
+
+    private final int batchSize;
+
+    private final Counter deliveredCounter;
+
+    private final Counter failedCounter;
+
+    public EmailOutboxDispatcher(EmailOutboxService outboxService, EmailService emailService, MeterRegistry meterRegistry,
+                                 @Value("${driveease.mail.outbox.batch-size:50}") int batchSize) {
+        this.outboxService = outboxService;
+        this.emailService = emailService;
+        this.batchSize = batchSize;
+        this.deliveredCounter = meterRegistry.counter("driveease.email.outbox.deliveries", "outcome", "sent");
+        this.failedCounter = meterRegistry.counter("driveease.email.outbox.deliveries", "outcome", "failed");
+    }
+
+    /**
+     * Keeps claiming batches until the outbox has no more due emails.
+     */
+    @Scheduled(fixedDelayString = "${driveease.mail.outbox.poll-interval:5s}")
+    public void dispatchPending() {
+        List<EmailOutbox> batch;
+        do {
+            batch = outboxService.claimDueBatch(batchSize);
+            if (!batch.isEmpty()) {
+                deliver(batch);
+            }
+        } while (batch.size() == batchSize);
+    }
+
+    void deliver(List<EmailOutbox> batch) {
+        Map<MimeMessage, EmailOutbox> messages = new IdentityHashMap<>();
+        for (EmailOutbox email : batch) {
+            try {
+                messages.put(emailService.buildBookingConfirmation(email.getRecipient(), email.getCustomerName(),
+                        email.getVehicle(), email.getPickupDate(), email.getPrice()), email);
+            } catch (MessagingException | RuntimeException e) {
+                log.warn("Could not render outbox email {}: {}", email.getId(), e.getMessage());
+                failedCounter.increment();
+                outboxService.markFailed(email.getId(), e.getMessage());
+            }
+        }
+        if (messages.isEmpty()) {
+            return;
+        }
+
+        List<Long> sent = new ArrayList<>();
+        try {
+            emailService.sendAll(messages.keySet().toArray(new MimeMessage[0]));
+            messages.values().forEach(email -> sent.add(email.getId()));
+        } catch (MailSendException e) {
+            // Only the messages listed in failedMessages were rejected; the rest went through
+            Map<Object, Exception> failed = e.getFailedMessages();
+            messages.forEach((message, email) -> {
+                Exception cause = failed.get(message);
+                if (cause == null) {
+                    sent.add(email.getId());
+                } else {
+                    log.warn("Outbox email {} to {} failed: {}", email.getId(), email.getRecipient(), cause.getMessage());
+                    failedCounter.increment();
+                    outboxService.markFailed(email.getId(), cause.getMessage());
+                }
+            });
+        } catch (MailException e) {
+            log.warn("SMTP delivery of {} outbox emails failed: {}", messages.size(), e.getMessage());
+            failedCounter.increment(messages.size());
+            messages.values().forEach(email -> outboxService.markFailed(email.getId(), e.getMessage()));
+        }
+        if (!sent.isEmpty()) {
+            deliveredCounter.increment(sent.size());
+            outboxService.markSent(sent);
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.driveease.rental.service;
+
+import com.driveease.rental.model.EmailOutbox;
+import com.driveease.rental.repository.EmailOutboxRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * EmailOutboxService manages the lifecycle of queued emails:
+ * enqueue (inside the caller's transaction) -> claim (short lease) -> SENT or retry with exponential backoff -> FAILED.
+ */
+@Service
+public class EmailOutboxService {
+
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    private final EmailOutboxRepository outboxRepository;
+
+    private final Duration claimLease;
+
+    private final Duration retryBaseDelay;
+
+    private final Duration retryMaxDelay;
+
+    private final int maxAttempts;
+
+    public EmailOutboxService(EmailOutboxRepository outboxRepository,
+                              @Value("${driveease.mail.outbox.claim-lease:5m}") Duration claimLease,
+                              @Value("${driveease.mail.outbox.retry-base-delay:30s}") Duration retryBaseDelay,
+                              @Value("${driveease.mail.outbox.retry-max-delay:1h}") Duration retryMaxDelay,
+                              @Value("${driveease.mail.outbox.max-attempts:8}") int maxAttempts) {
+        this.outboxRepository = outboxRepository;
+        this.claimLease = claimLease;
+        this.retryBaseDelay = retryBaseDelay;
+        this.retryMaxDelay = retryMaxDelay;
+        this.maxAttempts = maxAttempts;
+    }
+
+    /**
+     * Queues a booking confirmation email.
+     * Joins the caller's transaction, so the email exists if and only if the booking was committed.
+     */
+    @Transactional
+    public EmailOutbox enqueueBookingConfirmation(String toEmail, String name, String car, String date, String price) {
+        EmailOutbox email = new EmailOutbox();
+        email.setRecipient(toEmail);
+        email.setCustomerName(name);
+        email.setVehicle(car);
+        email.setPickupDate(date);
+        email.setPrice(price);
+        return outboxRepository.save(email);
+    }
+
+    /**
+     * Locks the next due batch and pushes its nextAttemptAt forward by the claim lease.
+     * If this node dies before reporting a result, the lease simply expires and another node retries.
+     * @return Detached rows to deliver.
+     */
+    @Transactional
+    public List<EmailOutbox> claimDueBatch(int batchSize) {
+        LocalDateTime now = LocalDateTime.now();
+        List<EmailOutbox> batch = outboxRepository.findDueForUpdate(now, PageRequest.ofSize(batchSize));
+        for (EmailOutbox email : batch) {
+            email.setNextAttemptAt(now.plus(claimLease));
+        }
+        return batch;
+    }
+
+    /**
+     * Marks delivered emails as SENT.
+     */
+    @Transactional
+    public void markSent(List<Long> ids) {
+        LocalDateTime now = LocalDateTime.now();
+        for (EmailOutbox email : outboxRepository.findAllById(ids)) {
+            email.setAttempts(email.getAttempts() + 1);
+            email.setStatus(EmailOutbox.STATUS_SENT);
+            email.setSentAt(now);
+            email.setLastError(null);
+        }
+    }
+
+    /**
+     * Records a failed attempt and schedules the next one, or gives up after maxAttempts.
+     */
+    @Transactional
+    public void markFailed(Long id, String error) {
+        outboxRepository.findById(id).ifPresent(email -> {
+            int attempts = email.getAttempts() + 1;
+            email.setAttempts(attempts);
+            email.setLastError(error != null && error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error);
+            if (attempts >= maxAttempts) {
+                email.setStatus(EmailOutbox.STATUS_FAILED);
+            } else {
+                email.setNextAttemptAt(LocalDateTime.now().plus(backoffDelay(attempts, retryBaseDelay, retryMaxDelay)));
+            }
+        });
+    }
+
+    /**
+     * Exponential backoff: base, 2 x base, 4 x base, ... capped at max.
+     * @param attempts Number of attempts made so far (1 after the first failure).
+     */
+    static Duration backoffDelay(int attempts, Duration base, Duration max) {
+        int exponent = Math.min(Math.max(0, attempts - 1), 30);
+        Duration delay = base.multipliedBy(1L << exponent);
+        return delay.compareTo(max) > 0 ? max : delay;
+    }
+}
@@ -1,8 +1,9 @@
 package com.driveease.rental.service;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.mail.MessagingException;
 import jakarta.mail.internet.MimeMessage;
-import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.mail.javamail.MimeMessageHelper;
 import org.springframework.stereotype.Service;
@@ -11,54 +12,81 @@ import org.thymeleaf.context.Context;
 /**
  * EmailService is responsible for processing HTML templates and sending
  * personalized emails to customers.
+ * Booking confirmations are queued in the email outbox and delivered in batches
+ * by EmailOutboxDispatcher, never sent on the request thread.
  */
 @Service
 public class EmailService {
 
-    @Autowired
-    private JavaMailSender mailSender;
+    private final JavaMailSender mailSender;
 
-    @Autowired
-    private TemplateEngine templateEngine; // Thymeleaf logic එක handle කරන්නේ මෙයා
+    private final TemplateEngine templateEngine; // Thymeleaf logic එක handle කරන්නේ මෙයා
+
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * Time spent merging the Thymeleaf template with the booking data.
+     */
+    private final Timer renderTimer;
+
+    public EmailService(JavaMailSender mailSender, TemplateEngine templateEngine, MeterRegistry meterRegistry) {
+        this.mailSender = mailSender;
+        this.templateEngine = templateEngine;
+        this.meterRegistry = meterRegistry;
+        this.renderTimer = Timer.builder("driveease.email.render")
+                .description("Thymeleaf rendering of email templates")
+                .tag("template", "booking-confirmation")
+                .register(meterRegistry);
+    }
 
     /**
-     * Sends a rich HTML booking confirmation email.
+     * Renders the booking confirmation template into a ready-to-send message without sending it.
+     * This is the one booking confirmation template; EmailOutboxDispatcher builds every queued email with it.
      * @param toEmail Customer's email address
      * @param name Customer's name
      * @param car Vehicle model
      * @param date Pickup date
      * @param price Final rental price
      */
-    public void sendBookingConfirmation(String toEmail, String name, String car, String date, String price) {
-        try {
-            // 1. Create a MimeMessage for HTML content
-            MimeMessage message = mailSender.createMimeMessage();
-            MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
-
-            // 2. Set Email Metadata
-            helper.setTo(toEmail);
-            helper.setSubject("Your DriveEase Booking is Confirmed! ✅");
+    public MimeMessage buildBookingConfirmation(String toEmail, String name, String car, String date, String price)
+            throws MessagingException {
+        // 1. Create a MimeMessage for HTML content
+        MimeMessage message = mailSender.createMimeMessage();
+        MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
 
-            // 3. Prepare data for the HTML template (Context)
-            Context context = new Context();
-            context.setVariable("customerName", name);
-            context.setVariable("vehicle", car);
-            context.setVariable("date", date);
-            context.setVariable("price", price);
+        // 2. Set Email Metadata
+        helper.setTo(toEmail);
+        helper.setSubject("Your DriveEase Booking is Confirmed! ✅");
 
-            // 4. Generate the final HTML by merging Template + Data
-            // "booking-confirmation" refers to booking-confirmation.html in resources/templates
-            String htmlContent = templateEngine.process("booking-confirmation", context);
+        // 3. Prepare data for the HTML template (Context)
+        Context context = new Context();
+        context.setVariable("customerName", name);
+        context.setVariable("vehicle", car);
+        context.setVariable("date", date);
+        context.setVariable("price", price);
 
-            // 5. Set the message text as HTML
-            helper.setText(htmlContent, true);
+        // 4. Generate the final HTML by merging Template + Data
+        // "booking-confirmation" refers to booking-confirmation.html in resources/templates
+        String htmlContent = renderTimer.record(() -> templateEngine.process("booking-confirmation", context));
 
-            // 6. Send the Email
-            mailSender.send(message);
-            System.out.println("Sent Email " + toEmail);
+        // 5. Set the message text as HTML
+        helper.setText(htmlContent, true);
+        return message;
+    }
 
-        } catch (MessagingException e) {
-            System.err.println("Didn't sent " + e.getMessage());
+    /**
+     * Sends a batch of prepared messages over a single SMTP connection.
+     * The call is timed as 'driveease.email.send' (outcome=success|failure).
+     * @throws org.springframework.mail.MailSendException listing the messages that could not be delivered.
+     */
+    public void sendAll(MimeMessage... messages) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "failure";
+        try {
+            mailSender.send(messages);
+            outcome = "success";
+        } finally {
+            sample.stop(meterRegistry.timer("driveease.email.send", "outcome", outcome));
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,202 @@
+package com.driveease.rental.service;
+
+import com.driveease.rental.config.ReadReplicaRoutingDataSource;
+import com.driveease.rental.dto.ContractProfile;
+import com.driveease.rental.dto.UtilizationReport;
+import com.driveease.rental.event.ContractChangedEvent;
+import com.driveease.rental.repository.VehicleContractRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * FleetUtilizationEngine answers utilization, idle-day and peak-overlap questions per contract, provider,
+ * vehicle type or agent, over any date range, without SQL date arithmetic over the 'booking' table.
+ * Logic:
+ * 1. Booked units per day come from the AvailabilityIndex, the same occupancy ReservationService checks
+ *    capacity against, so there is no second copy of the bookings to load and keep in sync.
+ * 2. For each group the members' units are added up day by day into one reusable array (so overlaps between
+ *    contracts are seen); booked unit-days, idle days and the peak are then one pass over that array.
+ * 3. Contract attributes (type, provider, agent, units) are loaded at startup and updated from
+ *    ContractChangedEvent plus a periodic refresh.
+ */
+@Component
+public class FleetUtilizationEngine {
+
+    /**
+     * Longest range a report may cover (20 years).
+     */
+    static final int MAX_RANGE_DAYS = 20 * 366;
+
+    private static final String NONE = "none";
+
+    public enum GroupBy {
+        CONTRACT, PROVIDER, TYPE, AGENT;
+
+        /**
+         * @throws IllegalArgumentException for anything but contract, provider, type or agent.
+         */
+        public static GroupBy parse(String value) {
+            try {
+                return valueOf(value.trim().toUpperCase(Locale.ROOT));
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Unsupported groupBy: " + value + " (use contract, provider, type or agent)");
+            }
+        }
+    }
+
+    private final AvailabilityIndex availabilityIndex;
+
+    private final VehicleContractRepository contractRepository;
+
+    private final Map<Long, ContractProfile> profiles = new ConcurrentHashMap<>();
+
+    public FleetUtilizationEngine(AvailabilityIndex availabilityIndex, VehicleContractRepository contractRepository) {
+        this.availabilityIndex = availabilityIndex;
+        this.contractRepository = contractRepository;
+    }
+
+    /**
+     * Loads every contract's attributes before the application starts serving requests.
+     */
+    @PostConstruct
+    public void rebuild() {
+        ReadReplicaRoutingDataSource.onPrimary(() -> {
+            refreshProfiles();
+            return null;
+        });
+    }
+
+    /**
+     * Picks up contract edits that were not announced with a ContractChangedEvent (e.g. a provider renamed).
+     */
+    @Scheduled(initialDelayString = "${driveease.utilization.profile-refresh-interval:10m}",
+            fixedDelayString = "${driveease.utilization.profile-refresh-interval:10m}")
+    public void refreshProfiles() {
+        Map<Long, ContractProfile> fresh = new ConcurrentHashMap<>();
+        for (ContractProfile profile : contractRepository.findAllProfiles()) {
+            fresh.put(profile.contractId(), profile);
+        }
+        profiles.putAll(fresh);
+        profiles.keySet().retainAll(fresh.keySet());
+    }
+
+    /**
+     * Re-reads the edited contract; a deleted contract drops out of the reports.
+     * Runs after commit when a transaction is active, or immediately otherwise.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onContractChanged(ContractChangedEvent event) {
+        if (event.contractId() != null) {
+            contractRepository.findProfile(event.contractId()).ifPresentOrElse(
+                    profile -> profiles.put(event.contractId(), profile),
+                    () -> profiles.remove(event.contractId()));
+        }
+    }
+
+    // ========================================================================
+    // REPORTS
+    // ========================================================================
+
+    /**
+     * Utilization of every group over [from, to] (both inclusive), busiest group first.
+     * Contracts without any booking in the range are included; they are what "idle" means.
+     * @throws IllegalArgumentException when the range is reversed or longer than MAX_RANGE_DAYS.
+     */
+    public List<UtilizationReport> report(LocalDate from, LocalDate to, GroupBy groupBy) {
+        long days = ChronoUnit.DAYS.between(from, to) + 1;
+        if (days < 1 || days > MAX_RANGE_DAYS) {
+            throw new IllegalArgumentException("The range must run forward and cover at most " + MAX_RANGE_DAYS + " days");
+        }
+
+        Map<String, List<ContractProfile>> groups = new LinkedHashMap<>();
+        Function<ContractProfile, String> keyOf = keyFunction(groupBy);
+        profiles.values().stream()
+                .sorted(Comparator.comparing(ContractProfile::contractId))
+                .forEach(profile -> groups.computeIfAbsent(keyOf.apply(profile), k -> new ArrayList<>()).add(profile));
+
+        List<UtilizationReport> reports = new ArrayList<>(groups.size());
+        int[] unitsPerDay = new int[(int) days];
+        for (Map.Entry<String, List<ContractProfile>> group : groups.entrySet()) {
+            List<ContractProfile> members = group.getValue();
+            Arrays.fill(unitsPerDay, 0);
+            reports.add(groupReport(group.getKey(), labelOf(groupBy, members.get(0)), members, from, to, unitsPerDay));
+        }
+        reports.sort(Comparator.comparingDouble(UtilizationReport::utilizationPercent).reversed()
+                .thenComparing(UtilizationReport::key));
+        return reports;
+    }
+
+    /**
+     * One group (a single contract or several): the members' units are added up day by day, then summarized.
+     */
+    private UtilizationReport groupReport(String key, String label, List<ContractProfile> members,
+                                          LocalDate from, LocalDate to, int[] unitsPerDay) {
+        int days = unitsPerDay.length;
+        int totalUnits = 0;
+        for (ContractProfile profile : members) {
+            totalUnits += units(profile);
+            availabilityIndex.addUnitsPerDay(profile.contractId(), from, unitsPerDay);
+        }
+        long booked = 0;
+        int idleDays = 0;
+        int peak = 0;
+        int peakDay = -1;
+        for (int day = 0; day < days; day++) {
+            int units = unitsPerDay[day];
+            booked += units;
+            if (units == 0) {
+                idleDays++;
+            } else if (units > peak) {
+                peak = units;
+                peakDay = day;
+            }
+        }
+        return report(key, label, members.size(), totalUnits, from, to, days, booked, idleDays, peak,
+                peakDay < 0 ? null : from.plusDays(peakDay));
+    }
+
+    private static UtilizationReport report(String key, String label, int contracts, int totalUnits,
+                                            LocalDate from, LocalDate to, int days, long booked,
+                                            int idleDays, int peak, LocalDate peakDate) {
+        long capacity = (long) totalUnits * days;
+        double percent = capacity == 0 ? 0 : Math.round(booked * 10000.0 / capacity) / 100.0;
+        return new UtilizationReport(key, label, contracts, totalUnits, from, to, days, booked, capacity,
+                percent, idleDays, peak, peakDate);
+    }
+
+    private static Function<ContractProfile, String> keyFunction(GroupBy groupBy) {
+        return switch (groupBy) {
+            case CONTRACT -> p -> String.valueOf(p.contractId());
+            case PROVIDER -> p -> p.providerId() != null ? String.valueOf(p.providerId()) : NONE;
+            case TYPE -> p -> p.vehicleType() != null ? p.vehicleType() : NONE;
+            case AGENT -> p -> p.agentId() != null ? String.valueOf(p.agentId()) : NONE;
+        };
+    }
+
+    private static String labelOf(GroupBy groupBy, ContractProfile profile) {
+        String label = switch (groupBy) {
+            case CONTRACT, TYPE -> profile.vehicleType();
+            case PROVIDER -> profile.providerName();
+            case AGENT -> profile.agentName();
+        };
+        return label != null ? label : NONE;
+    }
+
+    private static int units(ContractProfile profile) {
+        return Math.max(1, profile.totalUnits());
+    }
+}
@@ -0,0 +1,154 @@
+package com.driveease.rental.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * IdempotencyService makes retried booking writes (same 'Idempotency-Key' header) run only once.
+ * Logic:
+ * 1. The first request with a key registers an in-flight entry, runs the write and stores the response.
+ * 2. A duplicate that arrives while the first is still running waits on the same result (without holding
+ *    a servlet thread) and gets that response back, marked with 'Idempotent-Replayed: true'.
+ * 3. Later duplicates are answered from the store until the entry expires or is evicted (bounded size).
+ * 4. Reusing a key with a different body is rejected with 422; 5xx responses are not kept, so a retry
+ *    after a server error runs the write again.
+ * Keys are scoped to the authenticated user and the endpoint.
+ */
+@Component
+public class IdempotencyService {
+
+    public static final String KEY_HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private final Cache<String, Entry> responses;
+
+    private final ObjectMapper canonicalMapper;
+
+    private final long waitTimeoutMillis;
+
+    private final Counter replays;
+
+    public IdempotencyService(@Value("${driveease.idempotency.maximum-size:10000}") long maximumSize,
+                              @Value("${driveease.idempotency.ttl:24h}") Duration ttl,
+                              @Value("${driveease.idempotency.wait-timeout:30s}") Duration waitTimeout,
+                              ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.responses = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, responses, "idempotency");
+        // Map keys sorted, so the same JSON body in a different field order has the same fingerprint
+        this.canonicalMapper = objectMapper.copy().configure(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS, true);
+        this.waitTimeoutMillis = waitTimeout.toMillis();
+        this.replays = Counter.builder("driveease.idempotency.replays")
+                .description("Duplicate requests answered with the response of the first attempt")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Runs 'action' at most once per idempotency key.
+     * * @param key Value of the Idempotency-Key header; null or blank runs the action without deduplication.
+     * @param route Endpoint identifier, e.g. "POST /api/bookings/confirm".
+     * @param body Request body, used to detect a key reused for a different request.
+     * @param action The write; it must turn its own failures into responses (as the booking endpoints do).
+     * @return The response of the first execution.
+     */
+    public CompletableFuture<ResponseEntity<?>> execute(String key, String route, Object body,
+                                                        Supplier<ResponseEntity<?>> action) {
+        if (key == null || key.isBlank()) {
+            return CompletableFuture.completedFuture(action.get());
+        }
+        if (key.length() > MAX_KEY_LENGTH) {
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest()
+                    .body("Error: " + KEY_HEADER + " must be at most " + MAX_KEY_LENGTH + " characters"));
+        }
+
+        String storeKey = currentUser() + '\n' + route + '\n' + key;
+        Entry fresh = new Entry(fingerprint(route, body), new CompletableFuture<>());
+        Entry existing = responses.asMap().putIfAbsent(storeKey, fresh);
+        if (existing != null) {
+            return replay(existing, fresh.fingerprint);
+        }
+
+        ResponseEntity<?> response;
+        try {
+            response = action.get();
+        } catch (RuntimeException e) {
+            responses.asMap().remove(storeKey, fresh);
+            fresh.result.completeExceptionally(e);
+            throw e;
+        }
+        if (response.getStatusCode().is5xxServerError()) {
+            responses.asMap().remove(storeKey, fresh); // waiting duplicates still get this response
+        }
+        fresh.result.complete(response);
+        return CompletableFuture.completedFuture(response);
+    }
+
+    private CompletableFuture<ResponseEntity<?>> replay(Entry existing, String fingerprint) {
+        if (!existing.fingerprint.equals(fingerprint)) {
+            return CompletableFuture.completedFuture(ResponseEntity.unprocessableEntity()
+                    .body("Error: " + KEY_HEADER + " was already used for a different request"));
+        }
+        replays.increment();
+        // A dependent future, so the timeout never completes the shared in-flight entry
+        return existing.result
+                .<ResponseEntity<?>>thenApply(IdempotencyService::markReplayed)
+                .completeOnTimeout(ResponseEntity.status(HttpStatus.CONFLICT)
+                        .body("Error: A request with this " + KEY_HEADER + " is still in progress"),
+                        waitTimeoutMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private static ResponseEntity<?> markReplayed(ResponseEntity<?> response) {
+        return ResponseEntity.status(response.getStatusCode())
+                .headers(response.getHeaders())
+                .header(REPLAYED_HEADER, "true")
+                .body(response.getBody());
+    }
+
+    private String fingerprint(String route, Object body) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(route.getBytes(StandardCharsets.UTF_8));
+            digest.update(canonicalMapper.writeValueAsBytes(body));
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException | JsonProcessingException e) {
+            throw new IllegalStateException("Cannot fingerprint request body", e);
+        }
+    }
+
+    private static String currentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null ? authentication.getName() : "";
+    }
+
+    /**
+     * In-flight or completed execution of one key.
+     */
+    private record Entry(String fingerprint, CompletableFuture<ResponseEntity<?>> result) {
+    }
+}
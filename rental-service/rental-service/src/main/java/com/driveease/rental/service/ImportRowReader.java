@@ -0,0 +1,180 @@
+package com.driveease.rental.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * ImportRowReader reads an uploaded CSV or NDJSON file one record at a time,
+ * so an import never holds the whole file in memory.
+ * Every record becomes a map of lower-cased column name -> raw text value.
+ * - CSV: the first line is the header; RFC 4180 quoting (including quoted line breaks) is supported.
+ * - NDJSON: one JSON object per line; blank lines are skipped.
+ */
+abstract class ImportRowReader {
+
+    /**
+     * One parsed record. 'error' is set (and 'values' is null) when the record itself could not be parsed.
+     */
+    record Row(long line, Map<String, String> values, String error) { }
+
+    protected final BufferedReader reader;
+
+    protected long lineNumber;
+
+    private ImportRowReader(BufferedReader reader) {
+        this.reader = reader;
+    }
+
+    /**
+     * @return The next record, or null at the end of the input.
+     */
+    abstract Row next() throws IOException;
+
+    static ImportRowReader csv(BufferedReader reader) throws IOException {
+        return new CsvReader(reader);
+    }
+
+    static ImportRowReader ndjson(BufferedReader reader, ObjectMapper objectMapper) {
+        return new NdjsonReader(reader, objectMapper);
+    }
+
+    private static final class CsvReader extends ImportRowReader {
+
+        private final List<String> header;
+
+        private CsvReader(BufferedReader reader) throws IOException {
+            super(reader);
+            List<String> names = readRecord();
+            if (names == null) {
+                throw new IllegalArgumentException("The CSV file is empty (a header line is required)");
+            }
+            header = new ArrayList<>(names.size());
+            for (String name : names) {
+                header.add(name.trim().toLowerCase(Locale.ROOT));
+            }
+        }
+
+        @Override
+        Row next() throws IOException {
+            List<String> fields;
+            long line;
+            do {
+                line = lineNumber + 1;
+                try {
+                    fields = readRecord();
+                } catch (IllegalStateException e) {
+                    return new Row(line, null, e.getMessage());
+                }
+                if (fields == null) {
+                    return null;
+                }
+            } while (fields.size() == 1 && fields.get(0).isEmpty()); // blank line
+
+            if (fields.size() != header.size()) {
+                return new Row(line, null, "Expected " + header.size() + " columns but found " + fields.size());
+            }
+            Map<String, String> values = new HashMap<>();
+            for (int i = 0; i < fields.size(); i++) {
+                values.put(header.get(i), fields.get(i));
+            }
+            return new Row(line, values, null);
+        }
+
+        /**
+         * Reads one logical CSV record, which may span several physical lines inside quotes.
+         */
+        private List<String> readRecord() throws IOException {
+            String text = reader.readLine();
+            if (text == null) {
+                return null;
+            }
+            lineNumber++;
+            List<String> fields = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            while (true) {
+                for (int i = 0; i < text.length(); i++) {
+                    char c = text.charAt(i);
+                    if (quoted) {
+                        if (c == '"' && i + 1 < text.length() && text.charAt(i + 1) == '"') {
+                            field.append('"');
+                            i++;
+                        } else if (c == '"') {
+                            quoted = false;
+                        } else {
+                            field.append(c);
+                        }
+                    } else if (c == '"') {
+                        quoted = true;
+                    } else if (c == ',') {
+                        fields.add(field.toString());
+                        field.setLength(0);
+                    } else {
+                        field.append(c);
+                    }
+                }
+                if (!quoted) {
+                    break;
+                }
+                text = reader.readLine();
+                if (text == null) {
+                    throw new IllegalStateException("Unterminated quoted field");
+                }
+                lineNumber++;
+                field.append('\n');
+            }
+            fields.add(field.toString());
+            return fields;
+        }
+    }
+
+    private static final class NdjsonReader extends ImportRowReader {
+
+        private final ObjectMapper objectMapper;
+
+        private NdjsonReader(BufferedReader reader, ObjectMapper objectMapper) {
+            super(reader);
+            this.objectMapper = objectMapper;
+        }
+
+        @Override
+        Row next() throws IOException {
+            String text;
+            do {
+                text = reader.readLine();
+                if (text == null) {
+                    return null;
+                }
+                lineNumber++;
+            } while (text.isBlank());
+
+            JsonNode node;
+            try {
+                node = objectMapper.readTree(text);
+            } catch (JsonProcessingException e) {
+                return new Row(lineNumber, null, "Invalid JSON: " + e.getOriginalMessage());
+            }
+            if (!node.isObject()) {
+                return new Row(lineNumber, null, "Expected a JSON object");
+            }
+            Map<String, String> values = new HashMap<>();
+            Iterator<Map.Entry<String, JsonNode>> fields = node.fields();
+            while (fields.hasNext()) {
+                Map.Entry<String, JsonNode> entry = fields.next();
+                JsonNode value = entry.getValue();
+                values.put(entry.getKey().toLowerCase(Locale.ROOT), value.isNull() ? null : value.asText());
+            }
+            return new Row(lineNumber, values, null);
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.driveease.rental.service;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * PasswordHashingService runs BCrypt work (hashing and login verification) on a dedicated,
+ * fixed-size thread pool with a bounded queue.
+ * When the queue is full, new work is rejected at once instead of piling up, so a login burst
+ * can never take over the Tomcat threads that serve booking traffic.
+ * Only the BCrypt computation itself runs here; callers load and save users on their own threads,
+ * so a hashing thread never waits on the database.
+ */
+@Service
+public class PasswordHashingService {
+
+    private final ThreadPoolExecutor executor;
+
+    private final PasswordEncoder passwordEncoder;
+
+    private final int retryAfterSeconds;
+
+    /**
+     * Hash checked against when the user does not exist (computed on first use).
+     */
+    private volatile String unknownUserHash;
+
+    /**
+     * Outcome of a login check. 'upgradedHash' is a fresh hash of the password when the stored one
+     * uses an outdated BCrypt cost (the caller writes it back), otherwise null.
+     */
+    public record Verification(boolean matches, String upgradedHash) {
+
+        static final Verification REJECTED = new Verification(false, null);
+    }
+
+    public PasswordHashingService(PasswordEncoder passwordEncoder,
+                                  @Value("${driveease.security.hashing.threads:0}") int threads,
+                                  @Value("${driveease.security.hashing.queue-capacity:200}") int queueCapacity,
+                                  @Value("${driveease.security.hashing.retry-after-seconds:2}") int retryAfterSeconds) {
+        this.passwordEncoder = passwordEncoder;
+        this.retryAfterSeconds = retryAfterSeconds;
+
+        // 0 = one thread per CPU core, since BCrypt is purely CPU bound
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hashing-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * Runs an arbitrary CPU-bound password task on the hashing pool.
+     * @throws RejectedExecutionException immediately if the pool and its queue are full.
+     */
+    public <T> CompletableFuture<T> submit(Supplier<T> task) {
+        return CompletableFuture.supplyAsync(task, executor);
+    }
+
+    /**
+     * Hashes a raw password on the hashing pool.
+     * @throws RejectedExecutionException immediately if the pool and its queue are full.
+     */
+    public CompletableFuture<String> encode(String rawPassword) {
+        return submit(() -> passwordEncoder.encode(rawPassword));
+    }
+
+    /**
+     * Checks a login password against the stored hash on the hashing pool, and rehashes it when
+     * PasswordEncoder.upgradeEncoding asks for it.
+     * * @param encodedPassword The stored hash, or null when no such user exists. The check then still costs
+     *                        one BCrypt round, so response times do not tell which usernames exist.
+     * @throws RejectedExecutionException immediately if the pool and its queue are full.
+     */
+    public CompletableFuture<Verification> verify(String rawPassword, String encodedPassword) {
+        return submit(() -> {
+            if (encodedPassword == null) {
+                passwordEncoder.matches(rawPassword, unknownUserHash());
+                return Verification.REJECTED;
+            }
+            if (!passwordEncoder.matches(rawPassword, encodedPassword)) {
+                return Verification.REJECTED;
+            }
+            return new Verification(true,
+                    passwordEncoder.upgradeEncoding(encodedPassword) ? passwordEncoder.encode(rawPassword) : null);
+        });
+    }
+
+    private String unknownUserHash() {
+        String hash = unknownUserHash;
+        if (hash == null) {
+            hash = passwordEncoder.encode("unknown-user-password");
+            unknownUserHash = hash;
+        }
+        return hash;
+    }
+
+    /**
+     * Suggested client back-off (seconds) sent in the Retry-After header of a 429 response.
+     */
+    public int getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,207 @@
+package com.driveease.rental.service;
+
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.List;
+
+/**
+ * PricingEngine computes rental quotes with fixed-point 'long' arithmetic.
+ * Business Rule (unchanged): (Base Rate * 1.10 Markup) * Rental Days * Vehicle Count, no rounding.
+ *
+ * A rate is held as its unscaled value ("minor units") plus its scale, e.g. 149.99 = 14999 with scale 2.
+ * Multiplying by 1.10 (110 with scale 2) and by the integer days/count only grows the unscaled value,
+ * so the result is 'unscaled * 110 * days * count' with scale 'rateScale + 2' - exactly the digits and
+ * scale BigDecimal.multiply produces. Values that do not fit in a long fall back to BigDecimal.
+ */
+@Component
+public class PricingEngine {
+
+    /**
+     * The 10% service markup (1.10) as an unscaled value and its scale.
+     */
+    static final long MARKUP_UNSCALED = 110;
+    static final int MARKUP_SCALE = 2;
+
+    /**
+     * Largest rate (in minor units) whose marked-up value still fits in a long.
+     */
+    private static final long MAX_MINOR_UNITS = Long.MAX_VALUE / MARKUP_UNSCALED;
+
+    private static final BigDecimal MARKUP = BigDecimal.valueOf(MARKUP_UNSCALED, MARKUP_SCALE);
+
+    /**
+     * Prices a single (rate, days, count) combination.
+     * Days and count below 1 are treated as 1 to prevent zero-pricing errors.
+     * * @return The final price, identical (value and scale) to the BigDecimal formula.
+     */
+    public BigDecimal quote(BigDecimal baseRate, int days, int vehicleCount) {
+        BigInteger unscaled = baseRate.unscaledValue();
+        if (unscaled.bitLength() < Long.SIZE && markupFits(unscaled.longValue())) {
+            long markedUp = unscaled.longValue() * MARKUP_UNSCALED;
+            long factor = factor(days, vehicleCount);
+            if (productFits(markedUp, factor)) {
+                return BigDecimal.valueOf(markedUp * factor, baseRate.scale() + MARKUP_SCALE);
+            }
+        }
+        return quoteExact(baseRate, days, vehicleCount);
+    }
+
+    /**
+     * Prices every rate of the table for every (days[j], counts[j]) scenario in one pass.
+     * The inner loop only touches primitive arrays; BigDecimal objects are created
+     * when a caller reads a cell through QuoteMatrix.get.
+     * * @param rates Rates in minor units (see RateTable.of).
+     * @param days Rental days per scenario.
+     * @param counts Vehicle count per scenario (same length as days).
+     */
+    public QuoteMatrix quoteAll(RateTable rates, int[] days, int[] counts) {
+        if (days.length != counts.length) {
+            throw new IllegalArgumentException("days and counts must have the same length");
+        }
+        int scenarios = days.length;
+        long[] factors = new long[scenarios];
+        for (int j = 0; j < scenarios; j++) {
+            factors[j] = factor(days[j], counts[j]);
+        }
+
+        long[] unscaled = new long[rates.size() * scenarios];
+        BigDecimal[] overflow = null;
+        for (int i = 0; i < rates.size(); i++) {
+            if (!rates.present[i]) {
+                continue;
+            }
+            int row = i * scenarios;
+            long minor = rates.minorUnits[i];
+            boolean fits = rates.oversized[i] == null && markupFits(minor);
+            long markedUp = minor * MARKUP_UNSCALED;
+            for (int j = 0; j < scenarios; j++) {
+                if (fits && productFits(markedUp, factors[j])) {
+                    unscaled[row + j] = markedUp * factors[j];
+                } else {
+                    if (overflow == null) {
+                        overflow = new BigDecimal[unscaled.length];
+                    }
+                    overflow[row + j] = quoteExact(rates.rate(i), days[j], counts[j]);
+                }
+            }
+        }
+        return new QuoteMatrix(rates, scenarios, unscaled, overflow);
+    }
+
+    /**
+     * Days and count below 1 are treated as 1; the product of two ints always fits in a long.
+     */
+    private static long factor(int days, int vehicleCount) {
+        return (long) Math.max(1, days) * Math.max(1, vehicleCount);
+    }
+
+    private static boolean markupFits(long minorUnits) {
+        return minorUnits <= MAX_MINOR_UNITS && minorUnits >= -MAX_MINOR_UNITS;
+    }
+
+    /**
+     * True when a * b does not overflow: the high half of the 128-bit product is just the sign extension of the low half.
+     */
+    private static boolean productFits(long a, long b) {
+        return Math.multiplyHigh(a, b) == (a * b) >> 63;
+    }
+
+    /**
+     * Reference BigDecimal implementation, used when the fixed-point value would overflow.
+     */
+    static BigDecimal quoteExact(BigDecimal baseRate, int days, int vehicleCount) {
+        return baseRate.multiply(MARKUP)
+                .multiply(new BigDecimal(Math.max(1, days)))
+                .multiply(new BigDecimal(Math.max(1, vehicleCount)));
+    }
+
+    /**
+     * Column-oriented rate table: minor units and scale per rate, in the caller's order.
+     * A null rate (contract without a price) yields null quotes.
+     */
+    public static final class RateTable {
+
+        private final long[] minorUnits;
+        private final int[] scales;
+        private final boolean[] present;
+        private final BigDecimal[] oversized;
+
+        private RateTable(int size) {
+            this.minorUnits = new long[size];
+            this.scales = new int[size];
+            this.present = new boolean[size];
+            this.oversized = new BigDecimal[size];
+        }
+
+        public static RateTable of(List<BigDecimal> rates) {
+            RateTable table = new RateTable(rates.size());
+            for (int i = 0; i < rates.size(); i++) {
+                BigDecimal rate = rates.get(i);
+                if (rate == null) {
+                    continue;
+                }
+                table.present[i] = true;
+                table.scales[i] = rate.scale();
+                if (rate.unscaledValue().bitLength() < Long.SIZE) {
+                    table.minorUnits[i] = rate.unscaledValue().longValue();
+                } else {
+                    table.oversized[i] = rate;
+                }
+            }
+            return table;
+        }
+
+        public int size() {
+            return minorUnits.length;
+        }
+
+        BigDecimal rate(int index) {
+            if (!present[index]) {
+                return null;
+            }
+            return oversized[index] != null ? oversized[index] : BigDecimal.valueOf(minorUnits[index], scales[index]);
+        }
+    }
+
+    /**
+     * Result of quoteAll: one cell per (rate, scenario).
+     */
+    public static final class QuoteMatrix {
+
+        private final RateTable rates;
+        private final int scenarios;
+        private final long[] unscaled;
+        private final BigDecimal[] overflow;
+
+        private QuoteMatrix(RateTable rates, int scenarios, long[] unscaled, BigDecimal[] overflow) {
+            this.rates = rates;
+            this.scenarios = scenarios;
+            this.unscaled = unscaled;
+            this.overflow = overflow;
+        }
+
+        /**
+         * @return The price of rate 'rateIndex' for scenario 'scenarioIndex', or null when the rate is missing.
+         */
+        public BigDecimal get(int rateIndex, int scenarioIndex) {
+            if (!rates.present[rateIndex]) {
+                return null;
+            }
+            int cell = rateIndex * scenarios + scenarioIndex;
+            if (overflow != null && overflow[cell] != null) {
+                return overflow[cell];
+            }
+            return BigDecimal.valueOf(unscaled[cell], rates.scales[rateIndex] + MARKUP_SCALE);
+        }
+
+        public int rateCount() {
+            return rates.size();
+        }
+
+        public int scenarioCount() {
+            return scenarios;
+        }
+    }
+}
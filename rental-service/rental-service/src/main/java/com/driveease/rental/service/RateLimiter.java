@@ -0,0 +1,142 @@
+package com.driveease.rental.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * RateLimiter is a per-key token bucket ("capacity" requests per "period", refilled continuously).
+ * Logic:
+ * 1. Each bucket is a single AtomicLong holding its theoretical arrival time (GCRA): the moment the bucket
+ *    would be full again. A request conforms when that moment, pushed back by one refill interval,
+ *    is at most one period away.
+ * 2. Taking a token is one compare-and-set; no locks, and callers on different keys never contend.
+ * 3. Buckets live in a size-bounded Caffeine map and expire once idle for their period
+ *    (by then they are full, so dropping them changes nothing). Under a flood of new keys the least
+ *    recently used buckets are evicted first.
+ */
+@Component
+public class RateLimiter {
+
+    private final Cache<String, Bucket> buckets;
+
+    private final LongSupplier nanoClock;
+
+    @Autowired
+    public RateLimiter(@Value("${driveease.ratelimit.maximum-keys:100000}") long maximumKeys,
+                       MeterRegistry meterRegistry) {
+        this(maximumKeys, System::nanoTime);
+        CaffeineCacheMetrics.monitor(meterRegistry, buckets, "ratelimit.buckets");
+    }
+
+    RateLimiter(long maximumKeys, LongSupplier nanoClock) {
+        this.nanoClock = nanoClock;
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maximumKeys)
+                .recordStats()
+                .expireAfter(new Expiry<String, Bucket>() {
+                    @Override
+                    public long expireAfterCreate(String key, Bucket value, long currentTime) {
+                        return value.limit.periodNanos();
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, Bucket value, long currentTime, long currentDuration) {
+                        return value.limit.periodNanos();
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, Bucket value, long currentTime, long currentDuration) {
+                        return value.limit.periodNanos();
+                    }
+                })
+                .build();
+    }
+
+    /**
+     * Takes one token from the bucket of 'key'.
+     * * @param key Bucket identity, e.g. route + client.
+     * @param limit The bucket size and refill period of this route.
+     * @return 0 when the request is allowed, otherwise the nanoseconds until a token is available.
+     */
+    public long tryAcquire(String key, Limit limit) {
+        long now = nanoClock.getAsLong();
+        AtomicLong arrival = buckets.get(key, k -> new Bucket(limit, now)).theoreticalArrival;
+        while (true) {
+            long current = arrival.get();
+            long next = Math.max(current, now) + limit.intervalNanos();
+            long conformsAt = next - limit.periodNanos();
+            if (conformsAt > now) {
+                return conformsAt - now;
+            }
+            if (arrival.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+
+    long trackedKeys() {
+        buckets.cleanUp();
+        return buckets.estimatedSize();
+    }
+
+    /**
+     * 'capacity' requests per 'period': bursts of up to 'capacity', then one every period / capacity.
+     */
+    public record Limit(int capacity, long periodNanos, long intervalNanos) {
+
+        public Limit(int capacity, Duration period) {
+            this(capacity, period.toNanos(), Math.max(1, period.toNanos() / capacity));
+        }
+
+        /**
+         * Parses "capacity/period", e.g. "10/1m" or "5/30s".
+         * @return null for a blank spec or a capacity of 0 (no limit).
+         * @throws IllegalArgumentException for anything else that is not a positive limit.
+         */
+        public static Limit parse(String spec) {
+            if (spec == null || spec.isBlank()) {
+                return null;
+            }
+            String[] parts = spec.trim().split("/");
+            try {
+                int capacity = Integer.parseInt(parts[0].trim());
+                if (capacity == 0 && parts.length <= 2) {
+                    return null;
+                }
+                Duration period = parts.length == 2 ? DurationStyle.detectAndParse(parts[1].trim()) : null;
+                if (capacity > 0 && period != null && !period.isNegative() && !period.isZero()) {
+                    return new Limit(capacity, period);
+                }
+            } catch (IllegalArgumentException ignored) {
+                // reported below (NumberFormatException included)
+            }
+            throw new IllegalArgumentException("Invalid rate limit '" + spec + "' (expected e.g. 10/1m)");
+        }
+    }
+
+    private static final class Bucket {
+
+        private final Limit limit;
+
+        /**
+         * When the bucket is full again; starts as "full now".
+         */
+        private final AtomicLong theoreticalArrival;
+
+        Bucket(Limit limit, long now) {
+            this.limit = limit;
+            this.theoreticalArrival = new AtomicLong(now);
+        }
+    }
+}
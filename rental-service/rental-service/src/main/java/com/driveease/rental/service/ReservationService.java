@@ -0,0 +1,233 @@
+package com.driveease.rental.service;
+
+import com.driveease.rental.dto.BookingSnapshot;
+import com.driveease.rental.model.VehicleContract;
+import com.driveease.rental.repository.BookingRepository;
+import com.driveease.rental.repository.VehicleContractRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * ReservationService serializes every booking write per vehicle contract and refuses overbooking.
+ * Logic (per call):
+ * 1. Take the in-memory lock stripe of the contract. Writes for the same contract queue up here,
+ *    writes for other contracts (other stripes) run in parallel; no database row is locked while waiting.
+ * 2. In one transaction: read the contract, check the window against 'totalUnits' using the
+ *    AvailabilityIndex, run the caller's writes, and finally bump the contract version with
+ *    "UPDATE ... SET version = version + 1 WHERE version = :read".
+ * 3. If the version moved (another application instance wrote a booking for this contract),
+ *    the transaction is rolled back, the contract's index entry is reloaded and the attempt is repeated.
+ *
+ * The index is only trusted when the contract version matches the version this instance last wrote;
+ * otherwise the contract's bookings are reloaded first, so bookings made elsewhere are never missed.
+ *
+ * Every claim is checked against the configured limits (rental days, vehicle count, pickup horizon) before
+ * anything is read or written: the index keeps one counter per booked day, so an unbounded window would be
+ * allocated in memory on every start for as long as the booking exists.
+ */
+@Service
+public class ReservationService {
+
+    private static final Logger log = LoggerFactory.getLogger(ReservationService.class);
+
+    private final VehicleContractRepository contractRepository;
+
+    private final BookingRepository bookingRepository;
+
+    private final AvailabilityIndex availabilityIndex;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final ReentrantLock[] stripes;
+
+    private final int maxAttempts;
+
+    private final int maxRentalDays;
+
+    private final int maxVehicleCount;
+
+    private final long pickupHorizonDays;
+
+    /**
+     * Contract ID -> contract version the AvailabilityIndex entry is known to reflect.
+     */
+    private final ConcurrentHashMap<Long, Long> indexedVersions = new ConcurrentHashMap<>();
+
+    public ReservationService(VehicleContractRepository contractRepository, BookingRepository bookingRepository,
+                              AvailabilityIndex availabilityIndex, PlatformTransactionManager transactionManager,
+                              @Value("${driveease.reservation.lock-stripes:64}") int lockStripes,
+                              @Value("${driveease.reservation.max-attempts:3}") int maxAttempts,
+                              @Value("${driveease.reservation.max-rental-days:365}") int maxRentalDays,
+                              @Value("${driveease.reservation.max-vehicle-count:50}") int maxVehicleCount,
+                              @Value("${driveease.reservation.pickup-horizon:730d}") Duration pickupHorizon) {
+        this.contractRepository = contractRepository;
+        this.bookingRepository = bookingRepository;
+        this.availabilityIndex = availabilityIndex;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.stripes = new ReentrantLock[Integer.highestOneBit(Math.max(1, lockStripes))];
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.maxRentalDays = Math.max(1, maxRentalDays);
+        this.maxVehicleCount = Math.max(1, maxVehicleCount);
+        this.pickupHorizonDays = Math.max(0, pickupHorizon.toDays());
+    }
+
+    /**
+     * Units of a booking window: the days it covers and how many vehicles it needs on each of them.
+     * 'replacing' is the booking's current state when it is being moved (it does not count against itself).
+     * A claim always has a pickup date and at least one day and one vehicle; the upper limits are
+     * configuration and checked by reserve and checkClaim.
+     */
+    public record Claim(LocalDate pickupDate, int rentalDays, int vehicleCount, BookingSnapshot replacing) {
+
+        public Claim {
+            if (pickupDate == null) {
+                throw new IllegalArgumentException("A pickup date is required");
+            }
+            if (rentalDays < 1 || vehicleCount < 1) {
+                throw new IllegalArgumentException("Rental days and vehicle count must be at least 1");
+            }
+        }
+
+        public static Claim of(LocalDate pickupDate, int rentalDays, int vehicleCount) {
+            return new Claim(pickupDate, rentalDays, vehicleCount, null);
+        }
+    }
+
+    /**
+     * Runs 'write' in a transaction once the claim is known to fit.
+     * The caller publishes its BookingChangedEvent inside 'write'; it reaches the AvailabilityIndex
+     * after commit, still under the stripe lock.
+     * * @param contractId The contract being booked.
+     * @param claim The window to check, or null for writes that only free capacity (e.g. deletes)
+     *              or that check their window themselves with checkClaim.
+     * @param write The inserts/updates to commit together with the reservation.
+     * @throws CapacityExceededException If the contract does not have enough free units.
+     * @throws IllegalArgumentException If the claim is outside the configured limits.
+     * @throws NoSuchElementException If the contract does not exist.
+     */
+    public <T> T reserve(Long contractId, Claim claim, Supplier<T> write) {
+        if (claim != null) {
+            checkLimits(claim);
+        }
+        ReentrantLock lock = stripeFor(contractId);
+        lock.lock();
+        try {
+            for (int attempt = 1; ; attempt++) {
+                long[] written = new long[1];
+                try {
+                    T result = transactionTemplate.execute(status -> {
+                        VehicleContract contract = contractRepository.findById(contractId).orElseThrow();
+                        syncIndex(contractId, contract.getVersion());
+                        if (claim != null) {
+                            checkCapacity(contract, claim);
+                        }
+                        T value = write.get();
+                        if (contractRepository.incrementVersion(contractId, contract.getVersion()) == 0) {
+                            throw new OptimisticLockingFailureException("Contract " + contractId + " changed concurrently");
+                        }
+                        written[0] = contract.getVersion() + 1;
+                        return value;
+                    });
+                    indexedVersions.put(contractId, written[0]);
+                    return result;
+                } catch (OptimisticLockingFailureException e) {
+                    indexedVersions.remove(contractId);
+                    if (attempt >= maxAttempts) {
+                        throw e;
+                    }
+                    log.debug("Reservation for contract {} retried after a concurrent write (attempt {})", contractId, attempt);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Checks a claim from inside the 'write' of a reserve call on the same contract, for claims built from
+     * rows read in that transaction (e.g. the current window of a booking being moved).
+     * * @throws CapacityExceededException If the contract does not have enough free units.
+     * @throws IllegalArgumentException If the claim is outside the configured limits.
+     * @throws IllegalStateException If called outside reserve for this contract.
+     */
+    public void checkClaim(Long contractId, Claim claim) {
+        checkLimits(claim);
+        if (!stripeFor(contractId).isHeldByCurrentThread()) {
+            throw new IllegalStateException("checkClaim must run inside reserve for contract " + contractId);
+        }
+        checkCapacity(contractRepository.findById(contractId).orElseThrow(), claim);
+    }
+
+    /**
+     * Checks a new fleet size from inside the 'write' of a reserve call on the same contract:
+     * it may not drop below the units booked on any day from today onwards.
+     * * @throws CapacityExceededException If more units are already booked on some day.
+     * @throws IllegalStateException If called outside reserve for this contract.
+     */
+    public void checkTotalUnits(Long contractId, int totalUnits) {
+        if (!stripeFor(contractId).isHeldByCurrentThread()) {
+            throw new IllegalStateException("checkTotalUnits must run inside reserve for contract " + contractId);
+        }
+        int booked = availabilityIndex.peakUnitsFrom(contractId, LocalDate.now());
+        if (totalUnits < booked) {
+            throw new CapacityExceededException("Up to " + booked
+                    + " vehicle(s) are already booked on one day, the contract cannot have fewer units");
+        }
+    }
+
+    /**
+     * Reloads the contract's bookings when the index may be missing writes from another instance.
+     */
+    private void syncIndex(Long contractId, long version) {
+        Long indexed = indexedVersions.get(contractId);
+        if (indexed == null || indexed != version) {
+            availabilityIndex.reloadContract(contractId, bookingRepository.findSnapshotsByContract(contractId));
+            indexedVersions.put(contractId, version);
+        }
+    }
+
+    private void checkLimits(Claim claim) {
+        if (claim.rentalDays() > maxRentalDays) {
+            throw new IllegalArgumentException("Rental days must be between 1 and " + maxRentalDays);
+        }
+        if (claim.vehicleCount() > maxVehicleCount) {
+            throw new IllegalArgumentException("Vehicle count must be between 1 and " + maxVehicleCount);
+        }
+        LocalDate today = LocalDate.now();
+        if (claim.pickupDate().isBefore(today.minusDays(pickupHorizonDays))
+                || claim.pickupDate().isAfter(today.plusDays(pickupHorizonDays))) {
+            throw new IllegalArgumentException("Pickup date must be within " + pickupHorizonDays + " days of today");
+        }
+    }
+
+    private void checkCapacity(VehicleContract contract, Claim claim) {
+        int requested = claim.vehicleCount();
+        int reserved = availabilityIndex.peakUnitsExcluding(contract.getContractId(), claim.pickupDate(),
+                claim.rentalDays(), claim.replacing());
+        if (reserved + requested > contract.getTotalUnits()) {
+            throw new CapacityExceededException("Only " + Math.max(0, contract.getTotalUnits() - reserved)
+                    + " of " + contract.getTotalUnits() + " vehicle(s) are free for the selected dates");
+        }
+    }
+
+    private ReentrantLock stripeFor(Long contractId) {
+        int hash = contractId.hashCode();
+        hash ^= hash >>> 16;
+        return stripes[hash & (stripes.length - 1)];
+    }
+}
@@ -0,0 +1,92 @@
+package com.driveease.rental.service;
+
+import com.driveease.rental.event.ContractChangedEvent;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * VehicleSearchCache is a bounded (size + TTL) cache in front of the public vehicle search.
+ * Logic:
+ * 1. Search results are cached per (vehicle type, days, count).
+ * 2. Contract writes evict only the vehicle types they touched (plus the "All" listing).
+ * Prices are not cached separately: PricingEngine recomputes them in fixed point for less than a cache lookup costs.
+ */
+@Component
+public class VehicleSearchCache {
+
+    /**
+     * Normalized key used for "no type filter" searches (empty string or "All").
+     */
+    static final String ALL_TYPES = "";
+
+    private final Cache<SearchKey, List<Map<String, Object>>> searchResults;
+
+    public VehicleSearchCache(
+            @Value("${driveease.cache.search.maximum-size:1000}") long searchMaxSize,
+            @Value("${driveease.cache.search.ttl:60s}") Duration searchTtl,
+            MeterRegistry meterRegistry) {
+        this.searchResults = Caffeine.newBuilder()
+                .maximumSize(searchMaxSize)
+                .expireAfterWrite(searchTtl)
+                .recordStats()
+                .build();
+        // Hit ratio and evictions show up as cache.gets / cache.evictions with cache="vehicle.search"
+        CaffeineCacheMetrics.monitor(meterRegistry, searchResults, "vehicle.search");
+    }
+
+    /**
+     * Returns the cached result rows for the combination, computing them once on a miss.
+     * The loader must return rows that are never modified afterwards, because they are shared between callers.
+     */
+    public List<Map<String, Object>> getSearchResults(String type, int days, int count,
+                                                      Supplier<List<Map<String, Object>>> loader) {
+        return searchResults.get(new SearchKey(normalizeType(type), days, count), key -> loader.get());
+    }
+
+    /**
+     * Drops every cached search for the given vehicle type and the combined "All" listing.
+     */
+    public void evictVehicleType(String type) {
+        String normalized = normalizeType(type);
+        searchResults.asMap().keySet().removeIf(key -> key.type().equals(normalized) || key.type().equals(ALL_TYPES));
+    }
+
+    /**
+     * Targeted invalidation for contract writes.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onContractChanged(ContractChangedEvent event) {
+        if (event.typeBefore() != null) {
+            evictVehicleType(event.typeBefore());
+        }
+        if (event.typeAfter() != null) {
+            evictVehicleType(event.typeAfter());
+        }
+        if (event.typeBefore() == null && event.typeAfter() == null) {
+            evictVehicleType(ALL_TYPES);
+        }
+    }
+
+    /**
+     * Type filters are matched case-insensitively by the database, so "SUV" and "suv" share one entry.
+     */
+    static String normalizeType(String type) {
+        if (type == null || type.trim().isEmpty() || type.trim().equalsIgnoreCase("All")) {
+            return ALL_TYPES;
+        }
+        return type.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private record SearchKey(String type, int days, int count) { }
+}
@@ -0,0 +1,122 @@
+-- Baseline: the schema exactly as spring.jpa.hibernate.ddl-auto=update created it before Flyway was introduced
+-- (MySQL dialect, same constraint names, IDENTITY ids). Databases that already have these tables are baselined
+-- at version 1 (spring.flyway.baseline-on-migrate) and skip this script; empty databases run it.
+-- Never edit this script: everything added since goes into a later version.
+
+create table booking (
+    final_price decimal(38,2),
+    pickup_date date,
+    rental_days integer not null,
+    vehicle_count integer not null,
+    agent_id bigint not null,
+    booking_date datetime(6) not null,
+    booking_id bigint not null auto_increment,
+    contract_id bigint not null,
+    customer_id bigint,
+    customer_name varchar(255),
+    requirements varchar(255),
+    primary key (booking_id)
+) engine=InnoDB;
+
+create table booking_request (
+    final_price decimal(38,2),
+    agent_id bigint,
+    contract_id bigint,
+    customer_id bigint,
+    request_date datetime(6),
+    request_id bigint not null auto_increment,
+    status varchar(255),
+    vehicle_type varchar(255),
+    primary key (request_id)
+) engine=InnoDB;
+
+create table contact_message (
+    id bigint not null auto_increment,
+    submitted_at datetime(6),
+    email varchar(255),
+    first_name varchar(255),
+    last_name varchar(255),
+    message TEXT,
+    subject varchar(255),
+    primary key (id)
+) engine=InnoDB;
+
+create table customer (
+    customer_id bigint not null auto_increment,
+    customer_name varchar(255),
+    customer_requirements TEXT,
+    primary key (customer_id)
+) engine=InnoDB;
+
+create table provider (
+    provider_id bigint not null auto_increment,
+    contact_details varchar(255),
+    provider_name varchar(255),
+    primary key (provider_id)
+) engine=InnoDB;
+
+create table user (
+    user_id bigint not null auto_increment,
+    email varchar(255),
+    password varchar(255) not null,
+    username varchar(255) not null,
+    role enum ('ADMIN','AGENT','CUSTOMER') not null,
+    primary key (user_id)
+) engine=InnoDB;
+
+create table vehicle_contract (
+    allowed_mileage integer not null,
+    availability_status bit not null,
+    base_rate_per_day decimal(38,2),
+    agent_id bigint,
+    contract_id bigint not null auto_increment,
+    provider_id bigint,
+    vehicle_type varchar(255),
+    primary key (contract_id)
+) engine=InnoDB;
+
+alter table user 
+   add constraint UKob8kqyqqgmefl0aco34akdtpe unique (email);
+
+alter table user 
+   add constraint UKsb8bbouer5wak8vyiiy4pf2bx unique (username);
+
+alter table booking 
+   add constraint FK7adjcs2dia0c7luyhixmriqfr 
+   foreign key (agent_id) 
+   references user (user_id);
+
+alter table booking 
+   add constraint FKtpm65yup17nf5o2fn0ll9be93 
+   foreign key (customer_id) 
+   references user (user_id);
+
+alter table booking 
+   add constraint FKeur8v9fhefft9jpm2ycg4pejf 
+   foreign key (contract_id) 
+   references vehicle_contract (contract_id);
+
+alter table booking_request 
+   add constraint FKq4njkkl9mghcp0qx78l24is29 
+   foreign key (agent_id) 
+   references user (user_id);
+
+alter table booking_request 
+   add constraint FK70shatacwtmr8lie42o84p7ty 
+   foreign key (customer_id) 
+   references user (user_id);
+
+alter table booking_request 
+   add constraint FKfvfxd7jd22jerhgbir4x08hkc 
+   foreign key (contract_id) 
+   references vehicle_contract (contract_id);
+
+alter table vehicle_contract 
+   add constraint FKths0dh9d4r7wl3gqv7ih23iw6 
+   foreign key (agent_id) 
+   references user (user_id);
+
+alter table vehicle_contract 
+   add constraint FKipwtvuc8vrivwoonabths19t 
+   foreign key (provider_id) 
+   references provider (provider_id);
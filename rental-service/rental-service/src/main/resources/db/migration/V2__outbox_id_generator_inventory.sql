@@ -0,0 +1,43 @@
+-- Tables and columns added on top of the baseline schema.
+
+-- Confirmation e-mails are queued here in the booking transaction and sent by EmailOutboxDispatcher
+create table email_outbox (
+    attempts integer not null,
+    created_at datetime(6) not null,
+    id bigint not null,
+    next_attempt_at datetime(6) not null,
+    sent_at datetime(6),
+    last_error varchar(1000),
+    customer_name varchar(255),
+    pickup_date varchar(255),
+    price varchar(255),
+    recipient varchar(255) not null,
+    status varchar(255) not null,
+    vehicle varchar(255),
+    primary key (id)
+) engine=InnoDB;
+
+-- Block-allocated IDs (@TableGenerator) instead of IDENTITY, so inserts can be batched.
+-- One row per table (sequence_name = table name), seeded here above the existing IDs: the pooled optimizer
+-- hands out the block of 50 just below next_val, hence max + 51. IdGeneratorAligner re-checks them at startup.
+-- The old AUTO_INCREMENT attributes stay in place and are simply no longer used.
+create table id_generator (
+    next_val bigint,
+    sequence_name varchar(255) not null,
+    primary key (sequence_name)
+) engine=InnoDB;
+
+insert into id_generator (sequence_name, next_val) select 'booking', coalesce(max(booking_id), 0) + 51 from booking;
+insert into id_generator (sequence_name, next_val) select 'booking_request', coalesce(max(request_id), 0) + 51 from booking_request;
+insert into id_generator (sequence_name, next_val) select 'contact_message', coalesce(max(id), 0) + 51 from contact_message;
+insert into id_generator (sequence_name, next_val) select 'customer', coalesce(max(customer_id), 0) + 51 from customer;
+insert into id_generator (sequence_name, next_val) select 'email_outbox', coalesce(max(id), 0) + 51 from email_outbox;
+insert into id_generator (sequence_name, next_val) select 'provider', coalesce(max(provider_id), 0) + 51 from provider;
+insert into id_generator (sequence_name, next_val) select 'user', coalesce(max(user_id), 0) + 51 from user;
+insert into id_generator (sequence_name, next_val) select 'vehicle_contract', coalesce(max(contract_id), 0) + 51 from vehicle_contract;
+
+-- Units per contract (ReservationService capacity); every existing contract stands for one vehicle
+alter table vehicle_contract add column total_units integer default 1 not null;
+
+-- Optimistic version bumped by every reservation and edit; existing rows start at version 0
+alter table vehicle_contract add column version bigint default 0 not null;
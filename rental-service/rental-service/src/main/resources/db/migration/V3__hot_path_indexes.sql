@@ -0,0 +1,33 @@
+-- Composite indexes for the hot finders. Each one lists the equality columns first, then the sort/seek
+-- columns, so the filter and the ORDER BY / keyset predicate are answered from the index without a filesort.
+-- InnoDB appends the primary key to every secondary index, so a trailing "_id" column is only listed
+-- where it is part of the sort order.
+-- vehicle_contract.agent_id (findByAgentUserId) and booking.contract_id (findSnapshotsByContract) are already
+-- served by the indexes InnoDB creates for their foreign keys.
+
+-- Agent queue: findByAgentUserId, findRecentByAgent(Before), keyset on request_id
+create index idx_booking_request_agent_date on booking_request (agent_id, request_date, request_id);
+
+-- Customer request history: findByCustomerUserId, findRecentByCustomer(Before)
+create index idx_booking_request_customer_date on booking_request (customer_id, request_date, request_id);
+
+-- countPendingByAgent (agent assignment reconcile), answered from the index alone
+create index idx_booking_request_status_agent on booking_request (status, agent_id);
+
+-- Agent bookings: findByAgentUserId, findAgentBookingViews (ORDER BY booking_id DESC)
+create index idx_booking_agent on booking (agent_id, booking_id);
+
+-- Newest-first booking list: findRecentPage(Before)
+create index idx_booking_date on booking (booking_date, booking_id);
+
+-- Customer search: findByVehicleTypeAndAvailabilityStatus, findAvailableSearchViewsByType, type statistics
+create index idx_vehicle_contract_type_status on vehicle_contract (vehicle_type, availability_status);
+
+-- Agent roster: findByRole (agent assignment), keyset user listing per role
+create index idx_user_role on user (role, user_id);
+
+-- Outbox poller: range scan over the due PENDING rows only (status = 'PENDING' AND next_attempt_at <= now)
+create index idx_email_outbox_due on email_outbox (status, next_attempt_at, id);
+
+-- Newest-first contact inbox: findRecentPage(Before)
+create index idx_contact_message_submitted on contact_message (submitted_at, id);
@@ -0,0 +1,7 @@
+-- Replication lag probe (ReplicaHealthMonitor): each application instance keeps one row up to date on the
+-- primary and reads it back from every read replica. Not mapped by Hibernate.
+create table replica_heartbeat (
+    instance_id varchar(64) not null,
+    beat bigint not null,
+    primary key (instance_id)
+) engine=InnoDB;
@@ -0,0 +1,8 @@
+-- request_date and submitted_at are the sort keys of the newest-first keyset pages, which cannot seek past NULL.
+-- Rows written before the application always set them have no known date: they get the epoch, so they are
+-- listed as the oldest entries (where NULLs used to sort) instead of breaking or dropping out of the pages.
+update booking_request set request_date = '1970-01-01 00:00:00' where request_date is null;
+alter table booking_request modify request_date datetime(6) not null;
+
+update contact_message set submitted_at = '1970-01-01 00:00:00' where submitted_at is null;
+alter table contact_message modify submitted_at datetime(6) not null;
@@ -0,0 +1,111 @@
+package com.driveease.rental.repository;
+
+import com.driveease.rental.dto.ImportReport;
+import com.driveease.rental.model.Provider;
+import com.driveease.rental.service.BulkImportService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Session;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Bulk import with an EntityManager that outlives the chunk transactions (bound to the thread, as an
+ * open-in-view request would do): every chunk must start from an empty persistence context,
+ * so memory and flush cost do not grow with the number of rows already imported.
+ */
+@DataJpaTest
+@ActiveProfiles("h2")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@TestPropertySource(properties =
+        "spring.datasource.url=jdbc:h2:mem:bulk_import;MODE=MySQL;DB_CLOSE_DELAY=-1;NON_KEYWORDS=USER,VALUE")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class BulkImportPersistenceContextTest {
+
+    private static final int CHUNK_SIZE = 2;
+
+    @Autowired
+    private ProviderRepository providerRepository;
+
+    @Autowired
+    private VehicleContractRepository contractRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private EntityManager requestEntityManager;
+
+    @BeforeEach
+    void bindEntityManager() {
+        Provider provider = new Provider();
+        provider.setProviderName("Lanka Wheels");
+        providerRepository.save(provider);
+
+        requestEntityManager = entityManagerFactory.createEntityManager();
+        TransactionSynchronizationManager.bindResource(entityManagerFactory, new EntityManagerHolder(requestEntityManager));
+    }
+
+    @AfterEach
+    void unbindEntityManager() {
+        TransactionSynchronizationManager.unbindResource(entityManagerFactory);
+        requestEntityManager.close();
+    }
+
+    @Test
+    void persistenceContextIsEmptiedAfterEveryChunk() throws IOException {
+        // Entities managed while each ContractChangedEvent is published, i.e. inside the chunk transaction
+        List<Integer> managedPerEvent = new ArrayList<>();
+        BulkImportService importService = new BulkImportService(providerRepository, contractRepository, userRepository,
+                event -> managedPerEvent.add(managedEntities()), new ObjectMapper(), entityManager,
+                transactionManager, CHUNK_SIZE);
+        String csv = """
+                vehicleType,baseRatePerDay,providerName
+                SUV,120,Lanka Wheels
+                Van,80,Lanka Wheels
+                Sedan,60,Lanka Wheels
+                Luxury,300,Lanka Wheels
+                Pickup,95,Lanka Wheels
+                """;
+
+        ImportReport report = importService.importContracts(
+                new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), "csv");
+
+        assertEquals(5, report.imported());
+        // First chunk: its 2 contracts plus the provider loaded for validation; then only the chunk's own rows
+        assertEquals(List.of(3, 3, 2, 2, 1), managedPerEvent);
+        assertEquals(0, managedEntities());
+    }
+
+    private int managedEntities() {
+        return requestEntityManager.unwrap(Session.class).getStatistics().getEntityCount();
+    }
+}
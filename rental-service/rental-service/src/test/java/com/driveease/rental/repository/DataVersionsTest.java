@@ -0,0 +1,108 @@
+package com.driveease.rental.repository;
+
+import com.driveease.rental.model.BookingRequest;
+import com.driveease.rental.model.Provider;
+import com.driveease.rental.model.User;
+import com.driveease.rental.service.DataVersions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+/**
+ * ETag counters: bumped by committed writes only, and per agent for request queues.
+ * Not transactional, so each write commits like it does in production.
+ */
+@DataJpaTest
+@ActiveProfiles("h2")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(DataVersions.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class DataVersionsTest {
+
+    @Autowired
+    private DataVersions dataVersions;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ProviderRepository providerRepository;
+
+    @Autowired
+    private BookingRequestRepository bookingRequestRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void fleetTagChangesOnCommitOnly() {
+        String before = dataVersions.fleetTag();
+        assertEquals(before, dataVersions.fleetTag());
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            Provider provider = new Provider();
+            provider.setProviderName("Flushed, not committed");
+            providerRepository.saveAndFlush(provider);
+            assertEquals(before, dataVersions.fleetTag());
+        });
+        String committed = dataVersions.fleetTag();
+        assertNotEquals(before, committed);
+
+        TransactionTemplate rollback = new TransactionTemplate(transactionManager);
+        rollback.executeWithoutResult(status -> {
+            Provider provider = new Provider();
+            provider.setProviderName("Rolled back");
+            providerRepository.saveAndFlush(provider);
+            status.setRollbackOnly();
+        });
+        assertEquals(committed, dataVersions.fleetTag());
+    }
+
+    @Test
+    void requestTagsArePerAgent() {
+        User first = userRepository.save(agent());
+        User second = userRepository.save(agent());
+        String firstBefore = dataVersions.agentRequestsTag(first.getUserId());
+        String secondBefore = dataVersions.agentRequestsTag(second.getUserId());
+
+        BookingRequest request = new BookingRequest();
+        request.setAgent(first);
+        request.setVehicleType("SUV");
+        request.setFinalPrice(new BigDecimal("120.00"));
+        request = bookingRequestRepository.save(request);
+
+        String firstAfterInsert = dataVersions.agentRequestsTag(first.getUserId());
+        assertNotEquals(firstBefore, firstAfterInsert);
+        assertEquals(secondBefore, dataVersions.agentRequestsTag(second.getUserId()));
+
+        // Reassigned: the request leaves one queue and joins the other
+        request.setAgent(second);
+        bookingRequestRepository.save(request);
+
+        assertNotEquals(firstAfterInsert, dataVersions.agentRequestsTag(first.getUserId()));
+        assertNotEquals(secondBefore, dataVersions.agentRequestsTag(second.getUserId()));
+    }
+
+    private static User agent() {
+        String name = "agent-" + UUID.randomUUID();
+        User user = new User();
+        user.setUsername(name);
+        user.setPassword("x");
+        user.setEmail(name + "@driveease.test");
+        user.setRole(User.Role.AGENT);
+        return user;
+    }
+}
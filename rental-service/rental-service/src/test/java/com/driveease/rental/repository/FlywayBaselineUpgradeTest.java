@@ -0,0 +1,136 @@
+package com.driveease.rental.repository;
+
+import com.driveease.rental.config.IdGeneratorAligner;
+import com.driveease.rental.model.ContactMessage;
+import com.driveease.rental.model.Provider;
+import com.driveease.rental.model.VehicleContract;
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.MigrationInfo;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Connection;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Upgrade of a database created by ddl-auto=update before Flyway: it holds the pre-series schema and data,
+ * and no flyway_schema_history. Flyway must baseline it at version 1, apply only the later scripts,
+ * and the application must then start (Hibernate validate, IdGeneratorAligner) and keep the existing rows.
+ */
+@DataJpaTest
+@ActiveProfiles("h2")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({IdGeneratorAligner.class, FlywayBaselineUpgradeTest.PreSeriesDatabase.class})
+@TestPropertySource(properties =
+        "spring.datasource.url=jdbc:h2:mem:pre_series;MODE=MySQL;DB_CLOSE_DELAY=-1;NON_KEYWORDS=USER,VALUE")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class FlywayBaselineUpgradeTest {
+
+    /**
+     * Creates the pre-series schema and some rows with AUTO_INCREMENT IDs before Flyway first sees the database.
+     */
+    @TestConfiguration
+    static class PreSeriesDatabase {
+
+        @Bean
+        FlywayMigrationStrategy preSeriesThenMigrate() {
+            return flyway -> {
+                try (Connection connection = flyway.getConfiguration().getDataSource().getConnection()) {
+                    ScriptUtils.executeSqlScript(connection, new ClassPathResource("db/migration/V1__baseline.sql"));
+                } catch (Exception e) {
+                    throw new IllegalStateException("Could not create the pre-series schema", e);
+                }
+                JdbcTemplate jdbcTemplate = new JdbcTemplate(flyway.getConfiguration().getDataSource());
+                jdbcTemplate.update("INSERT INTO user (username, password, role) VALUES ('agent', 'x', 'AGENT')");
+                jdbcTemplate.update("INSERT INTO provider (provider_name) VALUES ('Lanka Rides')");
+                jdbcTemplate.update("INSERT INTO provider (provider_name) VALUES ('Hill Tours')");
+                jdbcTemplate.update("INSERT INTO vehicle_contract (vehicle_type, base_rate_per_day, allowed_mileage,"
+                        + " availability_status, provider_id, agent_id) VALUES ('SUV', 100.00, 200, true, 1, 1)");
+                // Rows from before the application always set their dates
+                jdbcTemplate.update("INSERT INTO booking_request (agent_id, contract_id, status) VALUES (1, 1, 'PENDING')");
+                jdbcTemplate.update("INSERT INTO contact_message (email, subject) VALUES ('old@example.com', 'Hello')");
+                flyway.migrate();
+            };
+        }
+    }
+
+    @Autowired
+    private VehicleContractRepository vehicleContractRepository;
+
+    @Autowired
+    private ProviderRepository providerRepository;
+
+    @Autowired
+    private BookingRequestRepository bookingRequestRepository;
+
+    @Autowired
+    private ContactRepository contactRepository;
+
+    @Autowired
+    private Flyway flyway;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void baselinesTheExistingSchemaAndAppliesOnlyLaterScripts() {
+        MigrationInfo[] applied = flyway.info().applied();
+        assertTrue(applied[0].getType().isBaseline());
+        assertEquals("1", applied[0].getVersion().getVersion());
+        List<String> migrated = Arrays.stream(applied).skip(1).map(info -> info.getVersion().getVersion()).toList();
+        assertTrue(migrated.containsAll(List.of("2", "3")));
+        assertFalse(migrated.contains("1"));
+        assertEquals(0, flyway.info().pending().length);
+    }
+
+    @Test
+    void existingRowsGetDefaultsAndNewIdsStayAboveThem() {
+        VehicleContract contract = vehicleContractRepository.findAll().get(0);
+        assertEquals(1, contract.getTotalUnits());
+        assertEquals(0, contract.getVersion());
+
+        // Seeded by V2 from the highest existing ID: 2 + one block of 50 + 1
+        assertEquals(53L, jdbcTemplate.queryForObject(
+                "SELECT next_val FROM id_generator WHERE sequence_name = 'provider'", Long.class));
+
+        Provider provider = new Provider();
+        provider.setProviderName("Coast Cabs");
+        assertTrue(providerRepository.save(provider).getProviderId() > 2);
+    }
+
+    @Test
+    void undatedRowsStayOnTheNewestFirstPages() {
+        ContactMessage recent = new ContactMessage();
+        recent.setEmail("new@example.com");
+        contactRepository.save(recent);
+
+        List<ContactMessage> firstPage = contactRepository.findRecentPage(PageRequest.ofSize(1));
+        assertEquals(recent.getId(), firstPage.get(0).getId());
+        List<ContactMessage> nextPage = contactRepository.findRecentPageBefore(
+                firstPage.get(0).getSubmittedAt(), firstPage.get(0).getId(), PageRequest.ofSize(1));
+        assertEquals("old@example.com", nextPage.get(0).getEmail());
+        assertNotNull(nextPage.get(0).getSubmittedAt());
+
+        assertNotNull(bookingRequestRepository.findRecentByAgent(1L, PageRequest.ofSize(1)).get(0).getRequestDate());
+    }
+}
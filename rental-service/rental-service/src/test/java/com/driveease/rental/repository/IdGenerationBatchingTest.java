@@ -0,0 +1,104 @@
+package com.driveease.rental.repository;
+
+import com.driveease.rental.config.IdGeneratorAligner;
+import com.driveease.rental.model.Customer;
+import com.driveease.rental.model.IdGenerators;
+import com.driveease.rental.model.Provider;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Table-generated IDs: INSERTs are sent as JDBC batches and new IDs never collide with pre-existing rows.
+ * Not transactional, so every saveAll commits (and flushes) on its own like it does in production.
+ */
+@DataJpaTest
+@ActiveProfiles("h2")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(IdGeneratorAligner.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class IdGenerationBatchingTest {
+
+    private static final int ROWS = 120;
+
+    @Autowired
+    private ProviderRepository providerRepository;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private IdGeneratorAligner aligner;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void providerInsertsAreBatched() {
+        List<Provider> providers = new ArrayList<>();
+        for (int i = 0; i < ROWS; i++) {
+            Provider provider = new Provider();
+            provider.setProviderName("Provider " + i);
+            providers.add(provider);
+        }
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        providerRepository.saveAll(providers);
+
+        assertEquals(ROWS, statistics.getEntityInsertCount());
+        // 120 rows at batch_size 50 = 3 INSERT batches, plus one generator read/update per block of 50 IDs.
+        // With IDENTITY this would be one statement per row.
+        assertTrue(statistics.getPrepareStatementCount() < 15,
+                "prepared statements: " + statistics.getPrepareStatementCount());
+        assertEquals(ROWS, providers.stream().map(Provider::getProviderId).distinct().count());
+    }
+
+    @Test
+    void alignerKeepsNewIdsAboveExistingRows() {
+        // A row written while the column was still AUTO_INCREMENT
+        jdbcTemplate.update("INSERT INTO customer (customer_id, customer_name) VALUES (5000, 'Legacy')");
+
+        aligner.alignAll();
+        Customer customer = new Customer();
+        customer.setCustomerName("New");
+        customerRepository.save(customer);
+
+        assertTrue(customer.getCustomerId() > 5000, "id: " + customer.getCustomerId());
+        long stored = jdbcTemplate.queryForObject(
+                "SELECT next_val FROM id_generator WHERE sequence_name = 'customer'", Long.class);
+        aligner.alignAll();
+        assertEquals(stored, jdbcTemplate.queryForObject(
+                "SELECT next_val FROM id_generator WHERE sequence_name = 'customer'", Long.class));
+    }
+
+    @Test
+    void alignerRecreatesAMissingRowAndToleratesOneThatAlreadyExists() {
+        jdbcTemplate.update("DELETE FROM id_generator WHERE sequence_name = 'booking'");
+
+        aligner.alignAll();
+        // A second instance starting at the same time finds the row already there
+        aligner.alignAll();
+
+        assertTrue(jdbcTemplate.queryForObject(
+                "SELECT next_val FROM id_generator WHERE sequence_name = 'booking'", Long.class) > IdGenerators.ALLOCATION_SIZE);
+    }
+}
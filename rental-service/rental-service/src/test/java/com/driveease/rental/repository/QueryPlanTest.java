@@ -0,0 +1,187 @@
+package com.driveease.rental.repository;
+
+import com.driveease.rental.model.User;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Query-plan regression tests for the hot finders, on the schema built by the Flyway migrations.
+ * Each finder is run once to capture the SQL Hibernate really sends, which is then EXPLAINed.
+ * A finder fails the test when its plan scans a whole table or does not use the index meant for it.
+ */
+@DataJpaTest
+@ActiveProfiles("h2")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:query_plans;MODE=MySQL;DB_CLOSE_DELAY=-1;NON_KEYWORDS=USER,VALUE",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+                + "com.driveease.rental.repository.QueryPlanTest$CapturingInspector"
+})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class QueryPlanTest {
+
+    private static final int ROWS = 200;
+    private static final long AGENT_ID = 1L;
+    private static final long CUSTOMER_ID = 2L;
+
+    /**
+     * Records every SQL statement Hibernate prepares.
+     */
+    public static class CapturingInspector implements StatementInspector {
+
+        static final List<String> STATEMENTS = Collections.synchronizedList(new ArrayList<>());
+
+        @Override
+        public String inspect(String sql) {
+            STATEMENTS.add(sql);
+            return sql;
+        }
+    }
+
+    @Autowired
+    private BookingRequestRepository bookingRequestRepository;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private VehicleContractRepository vehicleContractRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ContactRepository contactRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void seed() {
+        if (jdbcTemplate.queryForObject("SELECT COUNT(*) FROM booking", Long.class) > 0) {
+            return;
+        }
+        for (long id = 1; id <= ROWS; id++) {
+            jdbcTemplate.update("INSERT INTO user (user_id, username, password, email, role) VALUES (?, ?, 'x', ?, ?)",
+                    id, "user" + id, "user" + id + "@driveease.test", id % 2 == 1 ? "AGENT" : "CUSTOMER");
+        }
+        jdbcTemplate.update("INSERT INTO provider (provider_id, provider_name) VALUES (1, 'Provider')");
+        LocalDateTime now = LocalDateTime.of(2026, 10, 1, 9, 0);
+        for (long id = 1; id <= ROWS; id++) {
+            long agent = 1 + 2 * (id % 50);
+            long customer = 2 + 2 * (id % 50);
+            jdbcTemplate.update("INSERT INTO vehicle_contract (contract_id, vehicle_type, base_rate_per_day, availability_status, "
+                            + "allowed_mileage, total_units, version, agent_id, provider_id) VALUES (?, ?, 40, ?, 100, 1, 0, ?, 1)",
+                    id, "TYPE-" + (id % 20), id % 3 != 0, agent);
+            jdbcTemplate.update("INSERT INTO booking_request (request_id, customer_id, agent_id, contract_id, vehicle_type, "
+                            + "final_price, status, request_date) VALUES (?, ?, ?, ?, 'SUV', 100, ?, ?)",
+                    id, customer, agent, id, id % 4 == 0 ? "PENDING" : "APPROVED", now.minusHours(id));
+            jdbcTemplate.update("INSERT INTO booking (booking_id, contract_id, agent_id, customer_id, customer_name, pickup_date, "
+                            + "rental_days, vehicle_count, final_price, booking_date) VALUES (?, ?, ?, ?, 'C', ?, 2, 1, 80, ?)",
+                    id, id, agent, customer, now.toLocalDate().plusDays(id % 30), now.minusHours(id));
+            jdbcTemplate.update("INSERT INTO contact_message (id, first_name, email, subject, message, submitted_at) "
+                    + "VALUES (?, 'A', 'a@driveease.test', 'S', 'M', ?)", id, now.minusMinutes(id));
+        }
+        jdbcTemplate.execute("ANALYZE");
+    }
+
+    @Test
+    void agentRequestQueueUsesAgentIndex() {
+        assertIndexed(capture(() -> bookingRequestRepository.findByAgentUserId(AGENT_ID)), AGENT_ID);
+        // Either agent_id index is fine here; H2 picks the foreign key index and sorts the few rows itself
+        assertIndexed(capture(() -> bookingRequestRepository.findRecentByAgent(AGENT_ID, PageRequest.ofSize(20))),
+                AGENT_ID, 20);
+        assertIndexed(capture(() -> bookingRequestRepository.findByAgentUserIdAndRequestIdGreaterThanOrderByRequestIdAsc(
+                AGENT_ID, 0L, PageRequest.ofSize(20))), AGENT_ID, 0L, 20);
+    }
+
+    @Test
+    void customerRequestHistoryUsesCustomerIndex() {
+        assertIndexed(capture(() -> bookingRequestRepository.findByCustomerUserId(CUSTOMER_ID)), CUSTOMER_ID);
+        assertIndexed(capture(() -> bookingRequestRepository.findRecentByCustomer(CUSTOMER_ID, PageRequest.ofSize(20))),
+                CUSTOMER_ID, 20);
+    }
+
+    @Test
+    void pendingCountIsAnsweredFromIndex() {
+        assertIndexed(capture(() -> bookingRequestRepository.countPendingByAgent()), "IDX_BOOKING_REQUEST_STATUS_AGENT");
+    }
+
+    @Test
+    void vehicleSearchUsesTypeIndex() {
+        assertIndexed(capture(() -> vehicleContractRepository.findByVehicleTypeAndAvailabilityStatus("TYPE-3", true)),
+                "IDX_VEHICLE_CONTRACT_TYPE_STATUS", "TYPE-3", true);
+        assertIndexed(capture(() -> vehicleContractRepository.findAvailableSearchViewsByType("TYPE-3")),
+                "IDX_VEHICLE_CONTRACT_TYPE_STATUS", "TYPE-3");
+    }
+
+    @Test
+    void agentInventoryUsesAgentIndex() {
+        assertIndexed(capture(() -> vehicleContractRepository.findByAgentUserId(AGENT_ID)), AGENT_ID);
+    }
+
+    @Test
+    void agentBookingsUseAgentIndex() {
+        assertIndexed(capture(() -> bookingRepository.findByAgentUserId(AGENT_ID)), AGENT_ID);
+        assertIndexed(capture(() -> bookingRepository.findAgentBookingViews(AGENT_ID)), AGENT_ID);
+    }
+
+    @Test
+    void agentRosterUsesRoleIndex() {
+        assertIndexed(capture(() -> userRepository.findByRole(User.Role.AGENT)), "IDX_USER_ROLE", "AGENT");
+    }
+
+    @Test
+    void newestFirstListsReadTheDateIndex() {
+        assertIndexed(capture(() -> bookingRepository.findRecentPage(PageRequest.ofSize(20))), "IDX_BOOKING_DATE", 20);
+        assertIndexed(capture(() -> contactRepository.findRecentPage(PageRequest.ofSize(20))),
+                "IDX_CONTACT_MESSAGE_SUBMITTED", 20);
+    }
+
+    @Test
+    void contactSearchCatchUpReadsTheDateIndex() {
+        LocalDateTime since = LocalDateTime.of(2026, 10, 1, 8, 0);
+        assertIndexed(capture(() -> contactRepository.findSubmittedAfter(since, 0L, PageRequest.ofSize(20))),
+                "IDX_CONTACT_MESSAGE_SUBMITTED", since, since, 0L, 20);
+    }
+
+    /**
+     * Runs the finder and returns the first statement it sent.
+     */
+    private static String capture(Runnable finder) {
+        CapturingInspector.STATEMENTS.clear();
+        finder.run();
+        assertFalse(CapturingInspector.STATEMENTS.isEmpty(), "finder sent no SQL");
+        return CapturingInspector.STATEMENTS.get(0);
+    }
+
+    private void assertIndexed(String sql, Object... parameters) {
+        assertIndexed(sql, null, parameters);
+    }
+
+    private void assertIndexed(String sql, String expectedIndex, Object... parameters) {
+        String plan = jdbcTemplate.queryForObject("EXPLAIN " + sql, String.class, parameters);
+        assertFalse(plan.contains("tableScan"), () -> "Full table scan in plan:\n" + plan);
+        if (expectedIndex != null) {
+            assertTrue(plan.contains(expectedIndex), () -> expectedIndex + " not used:\n" + plan);
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.driveease.rental.repository;
+
+import com.driveease.rental.config.ReadReplicaRoutingDataSource;
+import com.driveease.rental.config.ReplicaHealthMonitor;
+import com.driveease.rental.model.Provider;
+import com.driveease.rental.model.VehicleContract;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * A whole request with replicas configured: the admin edit reads the provider (read-only, replica)
+ * and then saves it (read-write), which must reach the primary and not the connection the read used.
+ * The replica holds a copy of the rows, so a misrouted update would succeed there and go unnoticed.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("h2")
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:request_primary;MODE=MySQL;DB_CLOSE_DELAY=-1;NON_KEYWORDS=USER,VALUE",
+        "driveease.datasource.replica-urls=" + ReadReplicaRequestTest.REPLICA_URL,
+        "driveease.datasource.replica-check-interval=1h"
+})
+class ReadReplicaRequestTest {
+
+    static final String REPLICA_URL = "jdbc:h2:mem:request_replica;MODE=MySQL;DB_CLOSE_DELAY=-1";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ProviderRepository providerRepository;
+
+    @Autowired
+    private VehicleContractRepository contractRepository;
+
+    @Autowired
+    private ReadReplicaRoutingDataSource routingDataSource;
+
+    @Autowired
+    private ReplicaHealthMonitor healthMonitor;
+
+    private JdbcTemplate primary;
+
+    private JdbcTemplate replica;
+
+    private Long providerId;
+
+    private Long contractId;
+
+    @BeforeEach
+    void setUp() {
+        Provider provider = new Provider();
+        provider.setProviderName("Lanka Rides");
+        providerId = providerRepository.save(provider).getProviderId();
+        VehicleContract contract = new VehicleContract();
+        contract.setVehicleType("SUV");
+        contract.setBaseRatePerDay(new BigDecimal("100.00"));
+        contract.setProvider(provider);
+        contractId = contractRepository.save(contract).getContractId();
+
+        healthMonitor.check(); // fresh heartbeat on the primary, replicated below with the rows
+        primary = new JdbcTemplate(routingDataSource.getPrimary());
+        replica = new JdbcTemplate(new DriverManagerDataSource(REPLICA_URL, "sa", ""));
+        replica.execute("DROP ALL OBJECTS");
+        for (String statement : primary.queryForList("SCRIPT DROP", String.class)) {
+            replica.execute(statement);
+        }
+        healthMonitor.check();
+        assertTrue(routingDataSource.getReplicas().get(0).isHealthy());
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void writeAfterReadInOneRequestGoesToThePrimary() throws Exception {
+        mockMvc.perform(put("/api/admin/providers/" + providerId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"providerName\":\"Hill Tours\"}"))
+                .andExpect(status().isOk());
+
+        assertEquals("Hill Tours", providerName(primary));
+        assertEquals("Lanka Rides", providerName(replica));
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void contractEditIsWrittenToThePrimaryAndAnsweredWithItsProvider() throws Exception {
+        mockMvc.perform(put("/api/admin/contracts/" + contractId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"vehicleType\":\"Van\",\"baseRatePerDay\":120.00,\"availabilityStatus\":true}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.provider.providerName").value("Lanka Rides"));
+
+        assertEquals("Van", primary.queryForObject(
+                "SELECT vehicle_type FROM vehicle_contract WHERE contract_id = ?", String.class, contractId));
+        assertEquals("SUV", replica.queryForObject(
+                "SELECT vehicle_type FROM vehicle_contract WHERE contract_id = ?", String.class, contractId));
+    }
+
+    private String providerName(JdbcTemplate database) {
+        Map<String, Object> row = database.queryForMap("SELECT provider_name FROM provider WHERE provider_id = ?", providerId);
+        return (String) row.get("PROVIDER_NAME");
+    }
+}
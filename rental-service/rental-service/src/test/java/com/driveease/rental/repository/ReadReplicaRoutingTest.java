@@ -0,0 +1,154 @@
+package com.driveease.rental.repository;
+
+import com.driveease.rental.config.ReadReplicaConfig;
+import com.driveease.rental.config.ReadReplicaRoutingDataSource;
+import com.driveease.rental.config.ReplicaHealthMonitor;
+import com.driveease.rental.model.Provider;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Read/write routing against two in-memory databases.
+ * The "replica" gets the primary's schema but no rows, so every count tells which database answered.
+ * Replication of the heartbeat is simulated by copying its rows, optionally aged to fake lag.
+ */
+@DataJpaTest
+@ActiveProfiles("h2")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({ReadReplicaConfig.class, ReplicaHealthMonitor.class, ReadReplicaRoutingTest.Metrics.class})
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:routing_primary;MODE=MySQL;DB_CLOSE_DELAY=-1;NON_KEYWORDS=USER,VALUE",
+        "driveease.datasource.replica-urls=" + ReadReplicaRoutingTest.REPLICA_URL,
+        "driveease.datasource.replica-check-interval=1h"
+})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ReadReplicaRoutingTest {
+
+    // No NON_KEYWORDS here: the URL list is comma-separated (the copied schema quotes its identifiers anyway)
+    static final String REPLICA_URL = "jdbc:h2:mem:routing_replica;MODE=MySQL;DB_CLOSE_DELAY=-1";
+
+    @TestConfiguration
+    static class Metrics {
+
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+
+    @Autowired
+    private ProviderRepository providerRepository;
+
+    @Autowired
+    private ReadReplicaRoutingDataSource routingDataSource;
+
+    @Autowired
+    private ReplicaHealthMonitor healthMonitor;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private JdbcTemplate primary;
+
+    private JdbcTemplate replica;
+
+    @BeforeEach
+    void setUp() {
+        primary = new JdbcTemplate(routingDataSource.getPrimary());
+        replica = new JdbcTemplate(new DriverManagerDataSource(REPLICA_URL, "sa", ""));
+        for (String statement : primary.queryForList("SCRIPT NODATA DROP", String.class)) {
+            replica.execute(statement);
+        }
+        Provider provider = new Provider();
+        provider.setProviderName("Routed Provider");
+        providerRepository.save(provider);
+        healthMonitor.check(); // no heartbeat on the fresh replica yet: out of rotation
+    }
+
+    @Test
+    void readOnlyQueriesUseTheReplicaOnceItIsCurrent() {
+        assertEquals(primaryCount(), providerRepository.count(), "no heartbeat yet, primary serves reads");
+
+        replicateHeartbeat(0);
+        healthMonitor.check();
+
+        assertTrue(routingDataSource.getReplicas().get(0).isHealthy());
+        assertEquals(0, providerRepository.count());
+        long primaryRead = ReadReplicaRoutingDataSource.onPrimary(providerRepository::count);
+        assertEquals(primaryCount(), primaryRead);
+    }
+
+    @Test
+    void readWriteTransactionsStayOnThePrimary() {
+        replicateHeartbeat(0);
+        healthMonitor.check();
+
+        long count = new TransactionTemplate(transactionManager).execute(status -> providerRepository.count());
+
+        assertEquals(primaryCount(), count);
+    }
+
+    @Test
+    void laggingReplicaFallsBackToThePrimary() {
+        replicateHeartbeat(60_000);
+        healthMonitor.check();
+
+        ReadReplicaRoutingDataSource.Replica state = routingDataSource.getReplicas().get(0);
+        assertFalse(state.isHealthy());
+        assertTrue(state.getLagMillis() >= 60_000);
+        assertEquals(primaryCount(), providerRepository.count());
+
+        replicateHeartbeat(0);
+        healthMonitor.check();
+        assertTrue(state.isHealthy());
+    }
+
+    @Test
+    void unreachableReplicaFallsBackToThePrimary() {
+        replicateHeartbeat(0);
+        healthMonitor.check();
+        replica.execute("DROP TABLE replica_heartbeat");
+
+        healthMonitor.check();
+
+        assertFalse(routingDataSource.getReplicas().get(0).isHealthy());
+        assertEquals(primaryCount(), providerRepository.count());
+    }
+
+    private long primaryCount() {
+        return primary.queryForObject("SELECT COUNT(*) FROM provider", Long.class);
+    }
+
+    /**
+     * Copies the primary's heartbeat rows to the replica as if replication were 'lagMillis' behind.
+     */
+    private void replicateHeartbeat(long lagMillis) {
+        replica.update("DELETE FROM replica_heartbeat");
+        for (Map<String, Object> row : primary.queryForList("SELECT instance_id, beat FROM replica_heartbeat")) {
+            replica.update("INSERT INTO replica_heartbeat (instance_id, beat) VALUES (?, ?)",
+                    row.get("INSTANCE_ID"), ((Number) row.get("BEAT")).longValue() - lagMillis);
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.driveease.rental.service;
+
+import com.driveease.rental.dto.BookingSnapshot;
+import com.driveease.rental.event.BookingChangedEvent;
+import com.driveease.rental.event.ContractChangedEvent;
+import com.driveease.rental.repository.BookingRepository;
+import com.driveease.rental.repository.VehicleContractRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Checks that event-driven counter updates give the same figures as the SQL aggregates.
+ */
+class AdminSummaryRollupTest {
+
+    private BookingRepository bookingRepository;
+
+    private VehicleContractRepository contractRepository;
+
+    private AdminSummaryRollup rollup;
+
+    @BeforeEach
+    void setUp() {
+        bookingRepository = mock(BookingRepository.class);
+        contractRepository = mock(VehicleContractRepository.class);
+        when(bookingRepository.getTotalRevenue()).thenReturn(new BigDecimal("1000.00"));
+        when(bookingRepository.getTotalBookingCount()).thenReturn(4L);
+        when(contractRepository.getVehicleTypeStats()).thenReturn(rows(new Object[]{"SUV", 2L}));
+        rollup = new AdminSummaryRollup(bookingRepository, contractRepository);
+        rollup.init();
+    }
+
+    @Test
+    void bookingEventsAdjustRevenueAndCount() {
+        BookingSnapshot created = booking(10L, "250.5000");
+        rollup.onBookingChanged(BookingChangedEvent.created(created));
+        rollup.onBookingChanged(new BookingChangedEvent(created, booking(10L, "300.00")));
+        rollup.onBookingChanged(BookingChangedEvent.deleted(booking(11L, "100.00")));
+
+        Map<String, Object> summary = rollup.getSummary();
+        assertEquals(new BigDecimal("1200.00"), summary.get("totalRevenue"));
+        assertEquals(4L, summary.get("totalBookings"));
+    }
+
+    @Test
+    void contractEventsMoveFleetCountsBetweenTypes() {
+        rollup.onContractChanged(ContractChangedEvent.created(3L, "Sedan"));
+        rollup.onContractChanged(new ContractChangedEvent(1L, "SUV", "Van"));
+        rollup.onContractChanged(ContractChangedEvent.deleted(2L, "SUV"));
+
+        List<Object[]> stats = vehicleStats();
+        assertEquals(2, stats.size());
+        assertArrayEquals(new Object[]{"Sedan", 1L}, stats.get(0));
+        assertArrayEquals(new Object[]{"Van", 1L}, stats.get(1));
+    }
+
+    @Test
+    void reconcileReplacesDriftedCounters() {
+        rollup.onBookingChanged(BookingChangedEvent.created(booking(12L, "50.00")));
+        when(bookingRepository.getTotalRevenue()).thenReturn(new BigDecimal("990.00"));
+        when(bookingRepository.getTotalBookingCount()).thenReturn(5L);
+
+        rollup.reconcile();
+
+        assertEquals(new BigDecimal("990.00"), rollup.getSummary().get("totalRevenue"));
+        assertEquals(5L, rollup.getSummary().get("totalBookings"));
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Object[]> vehicleStats() {
+        return (List<Object[]>) rollup.getSummary().get("vehicleStats");
+    }
+
+    private static BookingSnapshot booking(Long id, String price) {
+        return new BookingSnapshot(id, 1L, 7L, LocalDate.of(2026, 11, 2), 3, 1, new BigDecimal(price));
+    }
+
+    private static List<Object[]> rows(Object[]... rows) {
+        return new ArrayList<>(List.of(rows));
+    }
+}
@@ -0,0 +1,156 @@
+package com.driveease.rental.service;
+
+import com.driveease.rental.dto.BookingRequestSnapshot;
+import com.driveease.rental.event.BookingRequestChangedEvent;
+import com.driveease.rental.model.BookingRequest;
+import com.driveease.rental.model.User;
+import com.driveease.rental.repository.BookingRequestRepository;
+import com.driveease.rental.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Least-loaded routing, weights, approvals and reconciliation of the agent queue counters.
+ */
+class AgentAssignmentServiceTest {
+
+    private UserRepository userRepository;
+
+    private BookingRequestRepository bookingRequestRepository;
+
+    @BeforeEach
+    void setUp() {
+        userRepository = mock(UserRepository.class);
+        bookingRequestRepository = mock(BookingRequestRepository.class);
+        when(userRepository.findByRole(User.Role.AGENT)).thenReturn(List.of(agent(1L), agent(2L), agent(3L)));
+        List<Object[]> pending = new ArrayList<>();
+        pending.add(new Object[]{1L, 4L});
+        pending.add(new Object[]{2L, 1L});
+        when(bookingRequestRepository.countPendingByAgent()).thenReturn(pending);
+    }
+
+    @Test
+    void routesToTheLeastLoadedAgent() {
+        AgentAssignmentService service = create("");
+
+        // Queues 4 / 1 / 0: agent 3 first, then 2 and 3 alternate (ties go to the lower ID)
+        List<Long> chosen = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            chosen.add(service.assign());
+        }
+
+        assertEquals(List.of(3L, 2L, 3L, 2L, 3L), chosen);
+        assertEquals(Map.of(1L, 4, 2L, 3, 3L, 3), service.getPendingCounts());
+    }
+
+    @Test
+    void weightsScaleTheShareOfEachAgent() {
+        when(bookingRequestRepository.countPendingByAgent()).thenReturn(List.of());
+        AgentAssignmentService service = create("1=2, 3=oops");
+
+        for (int i = 0; i < 40; i++) {
+            service.assign();
+        }
+
+        Map<Long, Integer> counts = service.getPendingCounts();
+        assertEquals(20, counts.get(1L));
+        assertEquals(10, counts.get(2L));
+        assertEquals(10, counts.get(3L));
+    }
+
+    @Test
+    void concurrentAssignmentsAreAllCounted() throws Exception {
+        AgentAssignmentService service = create("");
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Long>> results = new ArrayList<>();
+            for (int i = 0; i < 1000; i++) {
+                results.add(pool.submit(service::assign));
+            }
+            for (Future<Long> result : results) {
+                result.get();
+            }
+        } finally {
+            pool.shutdown();
+        }
+
+        int total = service.getPendingCounts().values().stream().mapToInt(Integer::intValue).sum();
+        assertEquals(1005, total);
+    }
+
+    @Test
+    void approvalDecrementsAndReassignmentMovesTheRequest() {
+        AgentAssignmentService service = create("");
+
+        service.onBookingRequestChanged(new BookingRequestChangedEvent(
+                snapshot(1L, BookingRequest.STATUS_PENDING), snapshot(1L, BookingRequest.STATUS_APPROVED)));
+        service.onBookingRequestChanged(new BookingRequestChangedEvent(
+                snapshot(1L, BookingRequest.STATUS_PENDING), snapshot(3L, BookingRequest.STATUS_PENDING)));
+        // Submissions are counted by assign()/recordAssigned(), not by the event
+        service.onBookingRequestChanged(BookingRequestChangedEvent.created(snapshot(2L, BookingRequest.STATUS_PENDING)));
+
+        assertEquals(Map.of(1L, 2, 2L, 1, 3L, 1), service.getPendingCounts());
+    }
+
+    @Test
+    void releaseHandsBackTheCountOfAFailedSubmission() {
+        AgentAssignmentService service = create("");
+
+        Long agent = service.assign();
+        service.release(agent);
+        service.recordAssigned(1L);
+        service.release(1L);
+        service.release(99L); // not an agent: ignored
+
+        assertEquals(Map.of(1L, 4, 2L, 1, 3L, 0), service.getPendingCounts());
+    }
+
+    @Test
+    void reconcileRestoresDatabaseCountsAndRoster() {
+        AgentAssignmentService service = create("");
+        service.assign();
+        service.recordAssigned(1L);
+        when(userRepository.findByRole(User.Role.AGENT)).thenReturn(List.of(agent(1L), agent(2L)));
+
+        service.reconcile();
+
+        assertEquals(Map.of(1L, 4, 2L, 1), service.getPendingCounts());
+    }
+
+    @Test
+    void failsWithoutAgents() {
+        when(userRepository.findByRole(User.Role.AGENT)).thenReturn(List.of());
+        AgentAssignmentService service = create("");
+
+        assertThrows(IllegalStateException.class, service::assign);
+    }
+
+    private AgentAssignmentService create(String weights) {
+        AgentAssignmentService service = new AgentAssignmentService(userRepository, bookingRequestRepository, weights);
+        service.init();
+        return service;
+    }
+
+    private static User agent(Long id) {
+        User user = new User();
+        user.setUserId(id);
+        user.setRole(User.Role.AGENT);
+        return user;
+    }
+
+    private static BookingRequestSnapshot snapshot(Long agentId, String status) {
+        return new BookingRequestSnapshot(99L, 50L, agentId, 7L, "SUV", null, status, null);
+    }
+}
@@ -0,0 +1,173 @@
+package com.driveease.rental.service;
+
+import com.driveease.rental.dto.BookingRequestSnapshot;
+import com.driveease.rental.event.BookingRequestChangedEvent;
+import com.driveease.rental.model.BookingRequest;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Per-agent routing, Last-Event-ID resume and reset of the agent dashboard event stream.
+ * Agents 1 and 2 are registered.
+ */
+class BookingRequestStreamTest {
+
+    private final AgentAssignmentService agentAssignmentService = mock(AgentAssignmentService.class);
+
+    private BookingRequestStream stream;
+
+    @BeforeEach
+    void setUp() {
+        when(agentAssignmentService.isAgent(1L)).thenReturn(true);
+        when(agentAssignmentService.isAgent(2L)).thenReturn(true);
+        stream = new BookingRequestStream(agentAssignmentService, 3, Duration.ofMinutes(1), new SimpleMeterRegistry()) {
+            @Override
+            SseEmitter newEmitter(long timeout) {
+                return new RecordingEmitter();
+            }
+        };
+    }
+
+    @Test
+    void eventsGoOnlyToTheAgentsInvolved() {
+        RecordingEmitter agent1 = subscribe(1L, null);
+        RecordingEmitter agent2 = subscribe(2L, null);
+
+        stream.onBookingRequestChanged(BookingRequestChangedEvent.created(snapshot(10L, 1L, BookingRequest.STATUS_PENDING)));
+        // Moved from agent 1 to agent 2: both dashboards are told
+        stream.onBookingRequestChanged(new BookingRequestChangedEvent(
+                snapshot(10L, 1L, BookingRequest.STATUS_PENDING), snapshot(10L, 2L, BookingRequest.STATUS_PENDING)));
+
+        assertEquals(List.of("request:10", "request:10"), agent1.events);
+        assertEquals(List.of("request:10"), agent2.events);
+        assertEquals(2, stream.getConnectionCount());
+    }
+
+    @Test
+    void reconnectWithLastEventIdReplaysOnlyMissedEvents() {
+        RecordingEmitter first = subscribe(1L, null);
+        stream.onBookingRequestChanged(BookingRequestChangedEvent.created(snapshot(10L, 1L, BookingRequest.STATUS_PENDING)));
+        String lastSeen = first.ids.get(0);
+        disconnect(first);
+
+        stream.onBookingRequestChanged(BookingRequestChangedEvent.created(snapshot(11L, 1L, BookingRequest.STATUS_PENDING)));
+        stream.onBookingRequestChanged(new BookingRequestChangedEvent(
+                snapshot(11L, 1L, BookingRequest.STATUS_PENDING), snapshot(11L, 1L, BookingRequest.STATUS_APPROVED)));
+
+        RecordingEmitter resumed = subscribe(1L, lastSeen);
+        stream.onBookingRequestChanged(BookingRequestChangedEvent.created(snapshot(12L, 1L, BookingRequest.STATUS_PENDING)));
+
+        assertEquals(List.of("request:11", "request:11", "request:12"), resumed.events);
+    }
+
+    @Test
+    void unknownOrEvictedPositionsGetAReset() {
+        RecordingEmitter first = subscribe(1L, null);
+        stream.onBookingRequestChanged(BookingRequestChangedEvent.created(snapshot(10L, 1L, BookingRequest.STATUS_PENDING)));
+        String lastSeen = first.ids.get(0);
+        // replay-size 3: four more events push the one after 'lastSeen' out of the buffer
+        for (long id = 11; id <= 14; id++) {
+            stream.onBookingRequestChanged(BookingRequestChangedEvent.created(snapshot(id, 1L, BookingRequest.STATUS_PENDING)));
+        }
+
+        assertEquals(List.of(BookingRequestStream.EVENT_RESET), subscribe(1L, lastSeen).events);
+        assertEquals(List.of(BookingRequestStream.EVENT_RESET), subscribe(1L, "previous-instance-7").events);
+        assertTrue(subscribe(1L, first.ids.get(4)).events.isEmpty());
+    }
+
+    @Test
+    void unknownAgentsGetNoChannel() {
+        assertThrows(IllegalArgumentException.class, () -> stream.subscribe(99L, null));
+        assertEquals(0, stream.getChannelCount());
+    }
+
+    @Test
+    void heartbeatDropsChannelsNobodyNeeds() {
+        RecordingEmitter agent1 = subscribe(1L, null);
+        RecordingEmitter agent2 = subscribe(2L, null);
+        stream.onBookingRequestChanged(BookingRequestChangedEvent.created(snapshot(10L, 1L, BookingRequest.STATUS_PENDING)));
+        disconnect(agent1);
+        disconnect(agent2);
+
+        stream.heartbeat();
+        // Agent 1 keeps its buffered event for a reconnect; agent 2's channel held nothing
+        assertEquals(1, stream.getChannelCount());
+        assertEquals(0, stream.getConnectionCount());
+
+        when(agentAssignmentService.isAgent(1L)).thenReturn(false);
+        stream.heartbeat();
+        assertEquals(0, stream.getChannelCount());
+
+        // A new connection gets a fresh channel that receives events again
+        RecordingEmitter reconnected = subscribe(2L, null);
+        stream.onBookingRequestChanged(BookingRequestChangedEvent.created(snapshot(11L, 2L, BookingRequest.STATUS_PENDING)));
+        assertEquals(List.of("request:11"), reconnected.events);
+    }
+
+    private RecordingEmitter subscribe(Long agentId, String lastEventId) {
+        return (RecordingEmitter) stream.subscribe(agentId, lastEventId);
+    }
+
+    /**
+     * Simulates a dropped connection: the next send fails and the stream unregisters the emitter.
+     */
+    private static void disconnect(RecordingEmitter emitter) {
+        emitter.failNextSend = true;
+    }
+
+    private static BookingRequestSnapshot snapshot(Long requestId, Long agentId, String status) {
+        return new BookingRequestSnapshot(requestId, 50L, agentId, 7L, "SUV", null, status, null);
+    }
+
+    /**
+     * Captures "name:requestId" per sent event instead of writing to a response.
+     */
+    private static final class RecordingEmitter extends SseEmitter {
+
+        private final List<String> events = new ArrayList<>();
+        private final List<String> ids = new ArrayList<>();
+        private boolean failNextSend;
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            if (failNextSend) {
+                throw new IOException("client went away");
+            }
+            Set<DataWithMediaType> parts = builder.build();
+            String name = null;
+            String id = null;
+            Object data = null;
+            for (DataWithMediaType part : parts) {
+                if (part.getData() instanceof BookingRequestSnapshot snapshot) {
+                    data = snapshot.requestId();
+                    continue;
+                }
+                for (String line : part.getData().toString().split("\n")) {
+                    if (line.startsWith("id:")) {
+                        id = line.substring(3);
+                    } else if (line.startsWith("event:")) {
+                        name = line.substring(6);
+                    }
+                }
+            }
+            if (name != null) {
+                ids.add(id);
+                events.add(data != null ? name + ":" + data : name);
+            }
+        }
+    }
+}
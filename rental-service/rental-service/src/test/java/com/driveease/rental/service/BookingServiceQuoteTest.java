@@ -0,0 +1,116 @@
+package com.driveease.rental.service;
+
+import com.driveease.rental.dto.BatchQuoteRequest;
+import com.driveease.rental.dto.BatchQuoteResponse;
+import com.driveease.rental.dto.VehicleSearchView;
+import com.driveease.rental.repository.VehicleContractRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Multi-scenario quotes: one inventory read, parallel chunks, same prices as the single-quote path.
+ */
+class BookingServiceQuoteTest {
+
+    private static final LocalDate PICKUP = LocalDate.of(2026, 12, 20);
+
+    private VehicleContractRepository contractRepository;
+
+    private AvailabilityIndex availabilityIndex;
+
+    private BookingService bookingService;
+
+    @BeforeEach
+    void setUp() {
+        contractRepository = mock(VehicleContractRepository.class);
+        availabilityIndex = mock(AvailabilityIndex.class);
+        bookingService = new BookingService(contractRepository, availabilityIndex, null, new PricingEngine(),
+                null, null, null, null, null);
+
+        // More contracts than one chunk, so the parallel path is used
+        List<VehicleSearchView> inventory = new ArrayList<>();
+        for (int i = 0; i < BookingService.QUOTE_CHUNK_SIZE * 2 + 10; i++) {
+            inventory.add(new View((long) i + 1, i % 2 == 0 ? "SUV" : "Sedan", BigDecimal.valueOf(5_000 + i, 2)));
+        }
+        when(contractRepository.findAvailableSearchViews()).thenReturn(inventory);
+        when(availabilityIndex.hasCapacity(any(), any(), anyInt(), anyInt(), anyInt())).thenCallRealMethod();
+    }
+
+    @Test
+    void pricesEveryContractForEveryScenarioFromOneRead() {
+        List<BatchQuoteRequest.Scenario> scenarios = List.of(
+                new BatchQuoteRequest.Scenario(1, 1), new BatchQuoteRequest.Scenario(7, 2));
+
+        BatchQuoteResponse response = bookingService.quoteScenarios(new BatchQuoteRequest(List.of("suv"), null, scenarios));
+
+        assertEquals(BookingService.QUOTE_CHUNK_SIZE + 5, response.vehicles().size());
+        for (int v = 0; v < response.vehicles().size(); v++) {
+            BatchQuoteResponse.Vehicle vehicle = response.vehicles().get(v);
+            assertEquals("SUV", vehicle.vehicleType());
+            assertEquals(bookingService.calculateFinalPrice(vehicle.baseRate(), 1, 1), response.prices()[v][0]);
+            assertEquals(bookingService.calculateFinalPrice(vehicle.baseRate(), 7, 2), response.prices()[v][1]);
+        }
+        verify(contractRepository, times(1)).findAvailableSearchViews();
+    }
+
+    @Test
+    void windowsWithoutEnoughFreeUnitsHaveNoPrice() {
+        // Contract 1 has 3 units, 2 of them booked on some day of the 7-day window
+        when(availabilityIndex.peakUnits(eq(1L), eq(PICKUP), eq(7))).thenReturn(2);
+        List<BatchQuoteRequest.Scenario> scenarios = List.of(new BatchQuoteRequest.Scenario(1, 1),
+                new BatchQuoteRequest.Scenario(7, 1), new BatchQuoteRequest.Scenario(7, 2));
+
+        BatchQuoteResponse response = bookingService.quoteScenarios(new BatchQuoteRequest(null, PICKUP, scenarios));
+
+        assertEquals(Long.valueOf(1L), response.vehicles().get(0).contractId());
+        assertEquals(new BigDecimal("55.0000"), response.prices()[0][0]);
+        assertEquals(bookingService.calculateFinalPrice(new BigDecimal("50.00"), 7, 1), response.prices()[0][1]);
+        assertNull(response.prices()[0][2]);
+        assertEquals(bookingService.calculateFinalPrice(new BigDecimal("50.01"), 7, 2), response.prices()[1][2]);
+    }
+
+    @Test
+    void rejectsInvalidScenarios() {
+        assertThrows(IllegalArgumentException.class,
+                () -> bookingService.quoteScenarios(new BatchQuoteRequest(null, null, List.of())));
+        assertThrows(IllegalArgumentException.class, () -> bookingService.quoteScenarios(
+                new BatchQuoteRequest(null, null, List.of(new BatchQuoteRequest.Scenario(0, 1)))));
+    }
+
+    private record View(Long contractId, String vehicleType, BigDecimal baseRatePerDay) implements VehicleSearchView {
+
+        @Override
+        public Long getContractId() { return contractId; }
+
+        @Override
+        public String getVehicleType() { return vehicleType; }
+
+        @Override
+        public BigDecimal getBaseRatePerDay() { return baseRatePerDay; }
+
+        @Override
+        public boolean isAvailabilityStatus() { return true; }
+
+        @Override
+        public String getProviderName() { return "Provider"; }
+
+        @Override
+        public int getTotalUnits() { return 3; }
+    }
+}
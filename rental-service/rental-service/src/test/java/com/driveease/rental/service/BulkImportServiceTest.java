@@ -0,0 +1,128 @@
+package com.driveease.rental.service;
+
+import com.driveease.rental.dto.ImportReport;
+import com.driveease.rental.model.Provider;
+import com.driveease.rental.model.VehicleContract;
+import com.driveease.rental.repository.ProviderRepository;
+import com.driveease.rental.repository.UserRepository;
+import com.driveease.rental.repository.VehicleContractRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Parsing, validation and chunking of bulk imports (repositories are mocked).
+ */
+class BulkImportServiceTest {
+
+    private ProviderRepository providerRepository;
+
+    private VehicleContractRepository contractRepository;
+
+    private BulkImportService importService;
+
+    @BeforeEach
+    void setUp() {
+        providerRepository = mock(ProviderRepository.class);
+        contractRepository = mock(VehicleContractRepository.class);
+        UserRepository userRepository = mock(UserRepository.class);
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+
+        Provider existing = new Provider();
+        existing.setProviderId(7L);
+        existing.setProviderName("Lanka Wheels");
+        when(providerRepository.findAll()).thenReturn(List.of(existing));
+        when(providerRepository.getReferenceById(7L)).thenReturn(existing);
+
+        importService = new BulkImportService(providerRepository, contractRepository, userRepository,
+                mock(ApplicationEventPublisher.class), new ObjectMapper(), mock(EntityManager.class), transactionManager, 2);
+    }
+
+    @Test
+    void csvContractsAreValidatedAndInsertedInChunks() throws IOException {
+        String csv = """
+                vehicleType,baseRatePerDay,allowedMileage,availabilityStatus,providerName
+                SUV,120.50,200,true,Lanka Wheels
+                "Van, 9 seats",80,,,lanka wheels
+                Sedan,abc,100,true,Lanka Wheels
+                Sedan,60.00,100,no,
+                Luxury,300.001,100,true,Lanka Wheels
+                Pickup,95,100,true,Unknown Co
+                """;
+
+        List<List<VehicleContract>> chunks = captureSavedChunks();
+        ImportReport report = importService.importContracts(stream(csv), "csv");
+
+        assertEquals(6, report.processed());
+        assertEquals(3, report.imported());
+        assertEquals(3, report.failed());
+        assertEquals(List.of(4L, 6L, 7L), report.errors().stream().map(ImportReport.RowError::line).toList());
+        assertFalse(report.errorsTruncated());
+
+        // chunk-size 2: [SUV, Van] then [Sedan]
+        assertEquals(2, chunks.size());
+        VehicleContract van = chunks.get(0).get(1);
+        assertEquals("Van, 9 seats", van.getVehicleType());
+        assertEquals(new BigDecimal("80"), van.getBaseRatePerDay());
+        assertEquals(7L, van.getProvider().getProviderId());
+        assertFalse(chunks.get(1).get(0).isAvailabilityStatus());
+    }
+
+    @Test
+    void ndjsonProvidersRejectDuplicatesAndBrokenLines() throws IOException {
+        String ndjson = """
+                {"providerName": "Ceylon Cabs", "contactDetails": "+94 11 222 3333"}
+                {"providerName": "lanka wheels"}
+
+                {"providerName": "Ceylon Cabs"}
+                not json
+                """;
+
+        ImportReport report = importService.importProviders(stream(ndjson), "ndjson");
+
+        assertEquals(4, report.processed());
+        assertEquals(1, report.imported());
+        assertEquals(List.of(2L, 4L, 5L), report.errors().stream().map(ImportReport.RowError::line).toList());
+        verify(providerRepository, times(1)).saveAll(any());
+    }
+
+    @Test
+    void rejectsUnknownFormat() {
+        assertThrows(IllegalArgumentException.class, () -> importService.importProviders(stream("x"), "xml"));
+    }
+
+    private List<List<VehicleContract>> captureSavedChunks() {
+        List<List<VehicleContract>> chunks = new ArrayList<>();
+        when(contractRepository.saveAll(any())).thenAnswer(invocation -> {
+            List<VehicleContract> chunk = new ArrayList<>(invocation.getArgument(0));
+            chunks.add(chunk);
+            return chunk;
+        });
+        return chunks;
+    }
+
+    private static ByteArrayInputStream stream(String text) {
+        return new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8));
+    }
+}
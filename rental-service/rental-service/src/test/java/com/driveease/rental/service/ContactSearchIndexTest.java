@@ -0,0 +1,145 @@
+package com.driveease.rental.service;
+
+import com.driveease.rental.dto.ContactSearchPage;
+import com.driveease.rental.model.ContactMessage;
+import com.driveease.rental.repository.ContactRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Ranking, prefix matching and snapshot round trips of the contact inbox index.
+ */
+class ContactSearchIndexTest {
+
+    @TempDir
+    Path directory;
+
+    private ContactRepository repository;
+
+    private final List<ContactMessage> stored = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(ContactRepository.class);
+        stored.clear();
+        stored.add(message(1L, "Refund request", "Please refund my deposit for the Colombo booking", "nimal@example.com"));
+        stored.add(message(2L, "Airport pickup", "Can the driver wait at the airport? Refund not needed", "kamala@example.com"));
+        stored.add(message(3L, "Question", "Is a refund possible if I cancel the airport transfer?", "sunil@example.com"));
+        when(repository.findByIdGreaterThanOrderByIdAsc(anyLong(), any())).thenAnswer(call -> {
+            long afterId = call.getArgument(0);
+            return stored.stream().filter(m -> m.getId() > afterId).toList();
+        });
+        when(repository.findSubmittedAfter(any(), anyLong(), any())).thenReturn(List.of());
+        when(repository.findAllById(any())).thenAnswer(call -> {
+            List<ContactMessage> found = new ArrayList<>();
+            Iterable<Long> ids = call.getArgument(0);
+            ids.forEach(id -> stored.stream().filter(m -> m.getId().equals(id)).forEach(found::add));
+            return found;
+        });
+        when(repository.count()).thenAnswer(call -> (long) stored.size());
+    }
+
+    @Test
+    void ranksSubjectMatchesFirstAndRequiresEveryTerm() {
+        ContactSearchIndex index = index(null);
+
+        ContactSearchPage refund = index.search("refund ", 0, 10);
+        assertEquals(3, refund.total());
+        assertEquals(1L, refund.items().get(0).getId()); // in the subject
+
+        ContactSearchPage both = index.search("REFUND airport ", 0, 10);
+        assertEquals(List.of(2L, 3L), both.items().stream().map(ContactMessage::getId).toList());
+
+        assertEquals(0, index.search("refund lorry ", 0, 10).total());
+    }
+
+    @Test
+    void lastTermMatchesAsPrefixAndSenderIsSearchable() {
+        ContactSearchIndex index = index(null);
+
+        assertEquals(2, index.search("refund air", 0, 10).total());
+        assertEquals(0, index.search("refund air ", 0, 10).total()); // finished word: exact match only
+        assertEquals(List.of(2L), index.search("kamala", 0, 10).items().stream().map(ContactMessage::getId).toList());
+    }
+
+    @Test
+    void pagesThroughMatches() {
+        ContactSearchIndex index = index(null);
+
+        ContactSearchPage second = index.search("refund", 1, 2);
+        assertEquals(3, second.total());
+        assertEquals(1, second.items().size());
+
+        // Pages outside the matches are empty, including page numbers whose offset overflows an int
+        assertTrue(index.search("refund", 2, 2).items().isEmpty());
+        assertTrue(index.search("refund", -1, 2).items().isEmpty());
+        assertTrue(index.search("refund", Integer.MAX_VALUE, 100).items().isEmpty());
+        assertEquals(3, index.search("refund", Integer.MAX_VALUE, 100).total());
+    }
+
+    @Test
+    void newMessagesAreSearchableAndSnapshotSurvivesRestart() {
+        Path snapshot = directory.resolve("contact.idx");
+        ContactSearchIndex first = index(snapshot);
+        ContactMessage added = message(4L, "Lost item", "I left my umbrella in the car", "ruwan@example.com");
+        stored.add(added);
+        first.add(added);
+        first.add(added); // duplicates are ignored
+        assertEquals(4, first.size());
+        first.saveSnapshot();
+        clearInvocations(repository);
+
+        ContactSearchIndex restarted = new ContactSearchIndex(repository, snapshot.toString());
+        restarted.init();
+
+        verify(repository, never()).findByIdGreaterThanOrderByIdAsc(anyLong(), any()); // no table scan
+        assertEquals(4, restarted.size());
+        assertEquals(List.of(4L), restarted.search("umbrella", 0, 10).items().stream().map(ContactMessage::getId).toList());
+    }
+
+    @Test
+    void snapshotMissingMessagesIsRebuilt() {
+        Path snapshot = directory.resolve("contact.idx");
+        index(snapshot).saveSnapshot();
+        stored.add(message(5L, "Invoice", "Please send the invoice", "amara@example.com"));
+
+        ContactSearchIndex restarted = new ContactSearchIndex(repository, snapshot.toString());
+        restarted.init();
+
+        assertEquals(4, restarted.size());
+        assertTrue(restarted.search("invoice", 0, 10).total() > 0);
+    }
+
+    private ContactSearchIndex index(Path snapshot) {
+        ContactSearchIndex index = new ContactSearchIndex(repository, snapshot == null ? "" : snapshot.toString());
+        index.rebuild();
+        return index;
+    }
+
+    private static ContactMessage message(Long id, String subject, String body, String email) {
+        ContactMessage message = new ContactMessage();
+        message.setId(id);
+        message.setFirstName(email.substring(0, email.indexOf('@')));
+        message.setEmail(email);
+        message.setSubject(subject);
+        message.setMessage(body);
+        message.setSubmittedAt(LocalDateTime.of(2026, 10, 1, 9, 0).plusMinutes(id));
+        return message;
+    }
+}
@@ -0,0 +1,208 @@
+package com.driveease.rental.service;
+
+import com.driveease.rental.model.EmailOutbox;
+import com.driveease.rental.repository.EmailOutboxRepository;
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.GreenMailUtil;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.thymeleaf.spring6.SpringTemplateEngine;
+import org.thymeleaf.templatemode.TemplateMode;
+import org.thymeleaf.templateresolver.ClassLoaderTemplateResolver;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Delivers outbox emails to a local fake SMTP server (GreenMail) instead of Gmail.
+ * Retry, give-up and lease tests run the real EmailOutboxService over an in-memory "email_outbox table".
+ */
+class EmailOutboxDispatcherTest {
+
+    @RegisterExtension
+    static GreenMailExtension smtp = new GreenMailExtension(ServerSetupTest.SMTP);
+
+    private EmailOutboxService outboxService;
+
+    private EmailOutboxDispatcher dispatcher;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private final Map<Long, EmailOutbox> table = new TreeMap<>();
+
+    @BeforeEach
+    void setUp() {
+        outboxService = mock(EmailOutboxService.class);
+        meterRegistry = new SimpleMeterRegistry();
+        dispatcher = dispatcher(outboxService, smtp.getSmtp().getPort());
+    }
+
+    @Test
+    void deliversClaimedBatchAndMarksItSent() {
+        when(outboxService.claimDueBatch(10)).thenReturn(List.of(
+                queued(1L, "nimal@example.com"),
+                queued(2L, "kamal@example.com")));
+
+        dispatcher.dispatchPending();
+
+        MimeMessage[] received = smtp.getReceivedMessages();
+        assertEquals(2, received.length);
+        assertTrue(GreenMailUtil.getBody(received[0]).contains("Toyota Axio"));
+        verify(outboxService).markSent(argThat(ids -> ids.size() == 2 && ids.containsAll(List.of(1L, 2L))));
+        verify(outboxService, never()).markFailed(eq(1L), anyString());
+        assertEquals(2.0, meterRegistry.get("driveease.email.outbox.deliveries").tag("outcome", "sent").counter().count());
+        assertEquals(1, meterRegistry.get("driveease.email.send").tag("outcome", "success").timer().count());
+    }
+
+    @Test
+    void failedSendIsRetriedLaterWithBackoff() throws Exception {
+        EmailOutboxService service = inMemoryOutbox();
+        table.put(1L, queued(1L, "nimal@example.com"));
+        LocalDateTime before = LocalDateTime.now();
+
+        dispatcher(service, unusedPort()).dispatchPending();
+
+        EmailOutbox email = table.get(1L);
+        assertEquals(EmailOutbox.STATUS_PENDING, email.getStatus());
+        assertEquals(1, email.getAttempts());
+        assertNotNull(email.getLastError());
+        assertFalse(email.getNextAttemptAt().isBefore(before.plusSeconds(30)));
+        assertTrue(email.getNextAttemptAt().isBefore(LocalDateTime.now().plusSeconds(31)));
+        assertTrue(service.claimDueBatch(10).isEmpty(), "not due again before the backoff has passed");
+        assertEquals(1.0, meterRegistry.get("driveease.email.outbox.deliveries").tag("outcome", "failed").counter().count());
+    }
+
+    @Test
+    void givesUpAfterMaxAttempts() throws Exception {
+        EmailOutboxService service = inMemoryOutbox();
+        EmailOutbox email = queued(1L, "nimal@example.com");
+        email.setAttempts(2);
+        table.put(1L, email);
+
+        dispatcher(service, unusedPort()).dispatchPending();
+
+        assertEquals(EmailOutbox.STATUS_FAILED, email.getStatus());
+        assertEquals(3, email.getAttempts());
+        email.setNextAttemptAt(LocalDateTime.now().minusDays(1));
+        assertTrue(service.claimDueBatch(10).isEmpty(), "failed emails are never claimed again");
+    }
+
+    @Test
+    void expiredClaimLeaseIsPickedUpAgain() {
+        EmailOutboxService service = inMemoryOutbox();
+        table.put(1L, queued(1L, "nimal@example.com"));
+
+        // A node claims the email and dies before reporting a result
+        assertEquals(1, service.claimDueBatch(10).size());
+        assertTrue(table.get(1L).getNextAttemptAt().isAfter(LocalDateTime.now().plusMinutes(4)));
+        assertTrue(service.claimDueBatch(10).isEmpty(), "leased to the first node");
+
+        // Five minutes later the lease has run out
+        table.get(1L).setNextAttemptAt(table.get(1L).getNextAttemptAt().minusMinutes(5));
+        dispatcher(service, smtp.getSmtp().getPort()).dispatchPending();
+
+        assertEquals(1, smtp.getReceivedMessages().length);
+        assertEquals(EmailOutbox.STATUS_SENT, table.get(1L).getStatus());
+        assertEquals(1, table.get(1L).getAttempts());
+    }
+
+    @Test
+    void backoffDoublesUntilTheCap() {
+        Duration base = Duration.ofSeconds(30);
+        Duration max = Duration.ofMinutes(5);
+
+        assertEquals(Duration.ofSeconds(30), EmailOutboxService.backoffDelay(1, base, max));
+        assertEquals(Duration.ofSeconds(60), EmailOutboxService.backoffDelay(2, base, max));
+        assertEquals(Duration.ofSeconds(240), EmailOutboxService.backoffDelay(4, base, max));
+        assertEquals(max, EmailOutboxService.backoffDelay(20, base, max));
+    }
+
+    private EmailOutboxDispatcher dispatcher(EmailOutboxService service, int smtpPort) {
+        JavaMailSenderImpl mailSender = new JavaMailSenderImpl();
+        mailSender.setHost("localhost");
+        mailSender.setPort(smtpPort);
+
+        ClassLoaderTemplateResolver resolver = new ClassLoaderTemplateResolver();
+        resolver.setPrefix("templates/");
+        resolver.setSuffix(".html");
+        resolver.setTemplateMode(TemplateMode.HTML);
+        SpringTemplateEngine templateEngine = new SpringTemplateEngine();
+        templateEngine.setTemplateResolver(resolver);
+
+        return new EmailOutboxDispatcher(service, new EmailService(mailSender, templateEngine, meterRegistry),
+                meterRegistry, 10);
+    }
+
+    /**
+     * The real service (5 minute lease, 30 s base backoff, 3 attempts) over the rows in 'table'.
+     * Rows are changed in place, as managed entities would be.
+     */
+    private EmailOutboxService inMemoryOutbox() {
+        EmailOutboxRepository repository = mock(EmailOutboxRepository.class);
+        when(repository.findDueForUpdate(any(), any())).thenAnswer(invocation -> {
+            LocalDateTime now = invocation.getArgument(0);
+            Pageable page = invocation.getArgument(1);
+            return table.values().stream()
+                    .filter(email -> EmailOutbox.STATUS_PENDING.equals(email.getStatus()))
+                    .filter(email -> !email.getNextAttemptAt().isAfter(now))
+                    .limit(page.getPageSize())
+                    .toList();
+        });
+        when(repository.findById(anyLong())).thenAnswer(invocation -> Optional.ofNullable(table.get(invocation.getArgument(0))));
+        when(repository.findAllById(any())).thenAnswer(invocation -> {
+            List<EmailOutbox> found = new ArrayList<>();
+            for (Long id : invocation.<Iterable<Long>>getArgument(0)) {
+                found.add(table.get(id));
+            }
+            return found;
+        });
+        return new EmailOutboxService(repository, Duration.ofMinutes(5), Duration.ofSeconds(30), Duration.ofHours(1), 3);
+    }
+
+    /**
+     * A local port nothing listens on, so every SMTP connection is refused.
+     */
+    private static int unusedPort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private static EmailOutbox queued(Long id, String recipient) {
+        EmailOutbox email = new EmailOutbox();
+        email.setId(id);
+        email.setRecipient(recipient);
+        email.setCustomerName("Nimal");
+        email.setVehicle("Toyota Axio");
+        email.setPickupDate("2026-10-20");
+        email.setPrice("16500.00");
+        return email;
+    }
+}
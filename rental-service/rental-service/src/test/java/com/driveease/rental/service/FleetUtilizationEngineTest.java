@@ -0,0 +1,137 @@
+package com.driveease.rental.service;
+
+import com.driveease.rental.dto.BookingSnapshot;
+import com.driveease.rental.dto.ContractProfile;
+import com.driveease.rental.dto.UtilizationReport;
+import com.driveease.rental.event.BookingChangedEvent;
+import com.driveease.rental.event.ContractChangedEvent;
+import com.driveease.rental.repository.BookingRepository;
+import com.driveease.rental.repository.VehicleContractRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Utilization, idle days and peak overlap from the AvailabilityIndex occupancy, before and after booking events.
+ * Fleet: contract 1 (SUV, 2 units), contract 2 (SUV, 1 unit), contract 3 (Van, 1 unit, never booked).
+ */
+class FleetUtilizationEngineTest {
+
+    private static final LocalDate FROM = LocalDate.of(2026, 1, 1);
+    private static final LocalDate TO = LocalDate.of(2026, 1, 10);
+
+    private VehicleContractRepository contractRepository;
+
+    private AvailabilityIndex availabilityIndex;
+
+    private FleetUtilizationEngine engine;
+
+    @BeforeEach
+    void setUp() {
+        BookingRepository bookingRepository = mock(BookingRepository.class);
+        contractRepository = mock(VehicleContractRepository.class);
+        when(contractRepository.findAllProfiles()).thenReturn(List.of(
+                new ContractProfile(1L, "SUV", 10L, "Lanka Rides", 5L, "agent5", 2),
+                new ContractProfile(2L, "SUV", 10L, "Lanka Rides", 6L, "agent6", 1),
+                new ContractProfile(3L, "Van", 11L, "Hill Tours", 5L, "agent5", 1)));
+        when(bookingRepository.findAllSnapshots()).thenReturn(List.of(
+                booking(1L, 1L, FROM, 3),                // Jan 1-3
+                booking(2L, 1L, FROM.plusDays(1), 2),    // Jan 2-3, overlapping: 2 units on Jan 2 and 3
+                booking(3L, 2L, FROM.plusDays(2), 1)));  // Jan 3
+        availabilityIndex = new AvailabilityIndex(bookingRepository);
+        availabilityIndex.rebuild();
+        engine = new FleetUtilizationEngine(availabilityIndex, contractRepository);
+        engine.rebuild();
+    }
+
+    @Test
+    void contractFigures() {
+        Map<String, UtilizationReport> byContract = report(FleetUtilizationEngine.GroupBy.CONTRACT);
+
+        UtilizationReport first = byContract.get("1");
+        assertEquals(5, first.bookedUnitDays());
+        assertEquals(20, first.capacityUnitDays());
+        assertEquals(25.0, first.utilizationPercent());
+        assertEquals(7, first.idleDays());
+        assertEquals(2, first.peakUnits());
+        assertEquals(FROM.plusDays(1), first.peakDate());
+
+        UtilizationReport idle = byContract.get("3");
+        assertEquals(0, idle.bookedUnitDays());
+        assertEquals(10, idle.idleDays());
+        assertEquals(0, idle.peakUnits());
+        assertNull(idle.peakDate());
+    }
+
+    @Test
+    void groupsAddUpOverlapsAcrossContracts() {
+        Map<String, UtilizationReport> byType = report(FleetUtilizationEngine.GroupBy.TYPE);
+        UtilizationReport suv = byType.get("SUV");
+        assertEquals(2, suv.contracts());
+        assertEquals(3, suv.totalUnits());
+        assertEquals(6, suv.bookedUnitDays());
+        assertEquals(20.0, suv.utilizationPercent());
+        assertEquals(7, suv.idleDays());
+        assertEquals(3, suv.peakUnits()); // Jan 3: 2 units of contract 1 + 1 of contract 2
+        assertEquals(FROM.plusDays(2), suv.peakDate());
+        assertEquals(0.0, byType.get("Van").utilizationPercent());
+
+        UtilizationReport agent = report(FleetUtilizationEngine.GroupBy.AGENT).get("5");
+        assertEquals("agent5", agent.label());
+        assertEquals(16.67, agent.utilizationPercent());
+
+        assertEquals(6, report(FleetUtilizationEngine.GroupBy.PROVIDER).get("10").bookedUnitDays());
+    }
+
+    @Test
+    void bookingEventsReachTheReportsThroughTheIndex() {
+        availabilityIndex.onBookingChanged(BookingChangedEvent.deleted(booking(2L, 1L, FROM.plusDays(1), 2)));
+        availabilityIndex.onBookingChanged(new BookingChangedEvent(booking(3L, 2L, FROM.plusDays(2), 1),
+                booking(3L, 2L, LocalDate.of(2026, 2, 1), 1)));
+
+        Map<String, UtilizationReport> byContract = report(FleetUtilizationEngine.GroupBy.CONTRACT);
+        assertEquals(3, byContract.get("1").bookedUnitDays());
+        assertEquals(1, byContract.get("1").peakUnits());
+        assertEquals(0, byContract.get("2").bookedUnitDays());
+        assertEquals(1, engine.report(LocalDate.of(2026, 2, 1), LocalDate.of(2026, 2, 28),
+                FleetUtilizationEngine.GroupBy.CONTRACT).stream()
+                .filter(r -> r.key().equals("2")).findFirst().orElseThrow().bookedUnitDays());
+    }
+
+    @Test
+    void longRangesAndDeletedContracts() {
+        UtilizationReport twentyYears = engine.report(LocalDate.of(2006, 1, 1), LocalDate.of(2025, 12, 31).plusDays(10),
+                FleetUtilizationEngine.GroupBy.TYPE).get(0);
+        assertEquals(6, twentyYears.bookedUnitDays());
+
+        when(contractRepository.findProfile(3L)).thenReturn(Optional.empty());
+        engine.onContractChanged(ContractChangedEvent.deleted(3L, "Van"));
+        assertFalse(report(FleetUtilizationEngine.GroupBy.TYPE).containsKey("Van"));
+
+        assertThrows(IllegalArgumentException.class, () -> engine.report(TO, FROM, FleetUtilizationEngine.GroupBy.TYPE));
+        assertThrows(IllegalArgumentException.class, () -> FleetUtilizationEngine.GroupBy.parse("colour"));
+    }
+
+    private Map<String, UtilizationReport> report(FleetUtilizationEngine.GroupBy groupBy) {
+        return engine.report(FROM, TO, groupBy).stream()
+                .collect(Collectors.toMap(UtilizationReport::key, Function.identity()));
+    }
+
+    private static BookingSnapshot booking(Long id, Long contractId, LocalDate pickup, int days) {
+        return new BookingSnapshot(id, contractId, 5L, pickup, days, 1, new BigDecimal("100.00"));
+    }
+}
@@ -0,0 +1,131 @@
+package com.driveease.rental.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Replay, in-flight waiting and key-reuse rules of the Idempotency-Key handling.
+ */
+class IdempotencyServiceTest {
+
+    private static final String ROUTE = "POST /api/bookings/confirm";
+
+    private final AtomicInteger executions = new AtomicInteger();
+
+    private IdempotencyService idempotencyService;
+
+    @BeforeEach
+    void setUp() {
+        idempotencyService = new IdempotencyService(100, Duration.ofHours(1), Duration.ofSeconds(5),
+                new ObjectMapper(), new SimpleMeterRegistry());
+    }
+
+    @Test
+    void retryIsAnsweredFromTheFirstResponse() {
+        ResponseEntity<?> first = idempotencyService.execute("k1", ROUTE, body(7), this::confirm).join();
+        ResponseEntity<?> retry = idempotencyService.execute("k1", ROUTE, body(7), this::confirm).join();
+
+        assertEquals(1, executions.get());
+        assertEquals(first.getBody(), retry.getBody());
+        assertNull(first.getHeaders().getFirst(IdempotencyService.REPLAYED_HEADER));
+        assertEquals("true", retry.getHeaders().getFirst(IdempotencyService.REPLAYED_HEADER));
+    }
+
+    @Test
+    void duplicateWaitsForTheRequestInFlight() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<ResponseEntity<?>> first = CompletableFuture.supplyAsync(() ->
+                idempotencyService.execute("k1", ROUTE, body(7), () -> {
+                    started.countDown();
+                    await(release);
+                    return confirm();
+                }).join());
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        CompletableFuture<ResponseEntity<?>> duplicate = idempotencyService.execute("k1", ROUTE, body(7), this::confirm);
+        assertFalse(duplicate.isDone());
+
+        release.countDown();
+        assertEquals(first.get(5, TimeUnit.SECONDS).getBody(), duplicate.get(5, TimeUnit.SECONDS).getBody());
+        assertEquals(1, executions.get());
+    }
+
+    @Test
+    void sameKeyWithAnotherBodyIsRejected() {
+        idempotencyService.execute("k1", ROUTE, body(7), this::confirm).join();
+        ResponseEntity<?> reused = idempotencyService.execute("k1", ROUTE, body(8), this::confirm).join();
+
+        assertEquals(HttpStatus.UNPROCESSABLE_ENTITY, reused.getStatusCode());
+        assertEquals(1, executions.get());
+    }
+
+    @Test
+    void fieldOrderDoesNotChangeTheFingerprint() {
+        Map<String, Object> reordered = new LinkedHashMap<>();
+        reordered.put("note", "x");
+        reordered.put("requestId", 7);
+
+        idempotencyService.execute("k1", ROUTE, body(7), this::confirm).join();
+        ResponseEntity<?> retry = idempotencyService.execute("k1", ROUTE, reordered, this::confirm).join();
+
+        assertEquals(HttpStatus.OK, retry.getStatusCode());
+        assertEquals(1, executions.get());
+    }
+
+    @Test
+    void serverErrorsAreNotReplayed() {
+        idempotencyService.execute("k1", ROUTE, body(7), () -> {
+            executions.incrementAndGet();
+            return ResponseEntity.internalServerError().body("Error: database unavailable");
+        }).join();
+        ResponseEntity<?> retry = idempotencyService.execute("k1", ROUTE, body(7), this::confirm).join();
+
+        assertEquals(HttpStatus.OK, retry.getStatusCode());
+        assertEquals(2, executions.get());
+    }
+
+    @Test
+    void requestsWithoutKeyAlwaysRun() {
+        idempotencyService.execute(null, ROUTE, body(7), this::confirm).join();
+        idempotencyService.execute(" ", ROUTE, body(7), this::confirm).join();
+
+        assertEquals(2, executions.get());
+    }
+
+    private ResponseEntity<?> confirm() {
+        return ResponseEntity.ok("Booking #" + (100 + executions.incrementAndGet()) + " confirmed");
+    }
+
+    private static Map<String, Object> body(int requestId) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("requestId", requestId);
+        body.put("note", "x");
+        return body;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
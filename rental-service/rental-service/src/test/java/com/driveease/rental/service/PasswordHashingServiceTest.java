@@ -0,0 +1,166 @@
+package com.driveease.rental.service;
+
+import com.driveease.rental.config.JwtUtils;
+import com.driveease.rental.controller.AuthController;
+import com.driveease.rental.model.User;
+import com.driveease.rental.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Admission control of the hashing pool: one thread and one queue slot, so the third concurrent task is refused,
+ * and the login endpoint turns that refusal into 429 + Retry-After.
+ * Login runs its repository work on the request executor; only the password check runs on the hashing pool.
+ */
+class PasswordHashingServiceTest {
+
+    /**
+     * Stands in for BCrypt: the "hash" is "v2:" plus the raw password, and any other prefix is an outdated cost.
+     * Records the thread of every check, which must be a hashing thread.
+     */
+    private static final PasswordEncoder PLAIN_TEXT = new PasswordEncoder() {
+        @Override
+        public String encode(CharSequence rawPassword) {
+            return "v2:" + rawPassword;
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            assertTrue(Thread.currentThread().getName().startsWith("password-hashing-"));
+            return encodedPassword.substring(3).equals(rawPassword.toString());
+        }
+
+        @Override
+        public boolean upgradeEncoding(String encodedPassword) {
+            return !encodedPassword.startsWith("v2:");
+        }
+    };
+
+    private final PasswordHashingService hashingService = new PasswordHashingService(PLAIN_TEXT, 1, 1, 7);
+
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        hashingService.shutdown();
+    }
+
+    @Test
+    void fullQueueRejectsAtOnce() throws Exception {
+        CompletableFuture<String> running = occupyPool();
+        CompletableFuture<String> queued = hashingService.encode("queued");
+
+        assertThrows(RejectedExecutionException.class, () -> hashingService.encode("rejected"));
+
+        release.countDown();
+        assertEquals("running", running.get(5, TimeUnit.SECONDS));
+        assertEquals("v2:queued", queued.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void loginAnswers429WithRetryAfterWhenThePoolIsFull() throws Exception {
+        occupyPool();
+        hashingService.encode("queued");
+        UserRepository userRepository = mock(UserRepository.class);
+        when(userRepository.findByUsername("nimal")).thenReturn(Optional.of(user("v2:secret")));
+
+        CompletableFuture<ResponseEntity<?>> response =
+                controller(userRepository, Runnable::run).login(Map.of("username", "nimal", "password", "secret"));
+
+        assertTrue(response.isDone(), "rejected at once, nothing queued");
+        assertEquals(429, response.get().getStatusCode().value());
+        assertEquals("7", response.get().getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+    }
+
+    @Test
+    void loginRehashesOnThePoolAndSavesOnTheRequestExecutor() throws Exception {
+        User user = user("v1:secret");
+        UserRepository userRepository = mock(UserRepository.class);
+        List<String> repositoryThreads = new CopyOnWriteArrayList<>();
+        when(userRepository.findByUsername("nimal")).thenAnswer(invocation -> {
+            repositoryThreads.add(Thread.currentThread().getName());
+            return Optional.of(user);
+        });
+        when(userRepository.save(user)).thenAnswer(invocation -> {
+            repositoryThreads.add(Thread.currentThread().getName());
+            return user;
+        });
+        ExecutorService requestExecutor = Executors.newSingleThreadExecutor(runnable -> new Thread(runnable, "request"));
+        try {
+            AuthController controller = controller(userRepository, requestExecutor);
+
+            ResponseEntity<?> response = controller.login(Map.of("username", "nimal", "password", "secret"))
+                    .get(5, TimeUnit.SECONDS);
+            ResponseEntity<?> wrongPassword = controller.login(Map.of("username", "nimal", "password", "guess"))
+                    .get(5, TimeUnit.SECONDS);
+
+            assertEquals(200, response.getStatusCode().value());
+            assertEquals("v2:secret", user.getPassword());
+            assertEquals(List.of("request", "request", "request"), repositoryThreads);
+            assertEquals(401, wrongPassword.getStatusCode().value());
+        } finally {
+            requestExecutor.shutdown();
+        }
+    }
+
+    private AuthController controller(UserRepository userRepository, Executor requestExecutor) {
+        AuthController controller = new AuthController();
+        JwtUtils jwtUtils = mock(JwtUtils.class);
+        when(jwtUtils.generateToken(anyString(), anyString())).thenReturn("token");
+        ReflectionTestUtils.setField(controller, "passwordHashingService", hashingService);
+        ReflectionTestUtils.setField(controller, "userRepository", userRepository);
+        ReflectionTestUtils.setField(controller, "jwtUtils", jwtUtils);
+        ReflectionTestUtils.setField(controller, "requestExecutor", requestExecutor);
+        return controller;
+    }
+
+    private static User user(String passwordHash) {
+        User user = new User();
+        user.setUsername("nimal");
+        user.setPassword(passwordHash);
+        user.setRole(User.Role.CUSTOMER);
+        return user;
+    }
+
+    /**
+     * Blocks the only hashing thread until the test releases it.
+     */
+    private CompletableFuture<String> occupyPool() throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(1);
+        CompletableFuture<String> running = hashingService.submit(() -> {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return "running";
+        });
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        return running;
+    }
+}
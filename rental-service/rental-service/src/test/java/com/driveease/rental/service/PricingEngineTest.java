@@ -0,0 +1,71 @@
+package com.driveease.rental.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * The fixed-point engine must return exactly what the original BigDecimal formula returned (value and scale).
+ */
+class PricingEngineTest {
+
+    private final PricingEngine engine = new PricingEngine();
+
+    @Test
+    void singleQuotesMatchTheBigDecimalFormula() {
+        Random random = new Random(7);
+        for (int i = 0; i < 10_000; i++) {
+            BigDecimal rate = BigDecimal.valueOf(random.nextInt(1_000_000), random.nextInt(5));
+            int days = random.nextInt(40) - 2;
+            int count = random.nextInt(10) - 2;
+            assertEquals(legacyPrice(rate, days, count), engine.quote(rate, days, count), rate + " x " + days + " x " + count);
+        }
+    }
+
+    @Test
+    void batchQuotesMatchSingleQuotes() {
+        List<BigDecimal> rates = new ArrayList<>(Arrays.asList(
+                new BigDecimal("149.99"), new BigDecimal("75"), new BigDecimal("1E+3"), null, new BigDecimal("0.005")));
+        int[] days = {1, 3, 7, 0};
+        int[] counts = {1, 2, 1, 5};
+
+        PricingEngine.QuoteMatrix matrix = engine.quoteAll(PricingEngine.RateTable.of(rates), days, counts);
+
+        for (int i = 0; i < rates.size(); i++) {
+            for (int j = 0; j < days.length; j++) {
+                BigDecimal expected = rates.get(i) == null ? null : legacyPrice(rates.get(i), days[j], counts[j]);
+                assertEquals(expected, matrix.get(i, j));
+            }
+        }
+        assertNull(matrix.get(3, 0));
+    }
+
+    @Test
+    void overflowFallsBackToBigDecimal() {
+        BigDecimal huge = new BigDecimal(Long.MAX_VALUE / 200).movePointLeft(2);
+        BigDecimal larger = new BigDecimal("123456789012345678901234567890.12");
+
+        assertEquals(legacyPrice(huge, 365, 50), engine.quote(huge, 365, 50));
+        PricingEngine.QuoteMatrix matrix = engine.quoteAll(
+                PricingEngine.RateTable.of(List.of(huge, larger)), new int[]{1, 365}, new int[]{1, 50});
+        assertEquals(legacyPrice(huge, 1, 1), matrix.get(0, 0));
+        assertEquals(legacyPrice(huge, 365, 50), matrix.get(0, 1));
+        assertEquals(legacyPrice(larger, 365, 50), matrix.get(1, 1));
+    }
+
+    /**
+     * The original BookingService.calculateFinalPrice implementation.
+     */
+    private static BigDecimal legacyPrice(BigDecimal baseRate, int days, int vehicleCount) {
+        return baseRate.multiply(new BigDecimal("1.10"))
+                .multiply(new BigDecimal(Math.max(1, days)))
+                .multiply(new BigDecimal(Math.max(1, vehicleCount)));
+    }
+}
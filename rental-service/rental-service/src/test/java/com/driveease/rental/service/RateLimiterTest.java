@@ -0,0 +1,118 @@
+package com.driveease.rental.service;
+
+import com.driveease.rental.config.JwtUtils;
+import com.driveease.rental.config.RateLimitFilter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Token bucket arithmetic on a manual clock, concurrent callers, and the servlet filter in front of the routes.
+ */
+class RateLimiterTest {
+
+    private final AtomicLong clock = new AtomicLong(1_000_000_000L);
+
+    private final RateLimiter limiter = new RateLimiter(1000, clock::get);
+
+    @Test
+    void allowsBurstThenRefillsEvenly() {
+        RateLimiter.Limit fivePerMinute = RateLimiter.Limit.parse("5/1m");
+        for (int i = 0; i < 5; i++) {
+            assertEquals(0, limiter.tryAcquire("ip:1", fivePerMinute));
+        }
+        long wait = limiter.tryAcquire("ip:1", fivePerMinute);
+        assertEquals(Duration.ofSeconds(12).toNanos(), wait); // one token every 60 s / 5
+
+        assertEquals(0, limiter.tryAcquire("ip:2", fivePerMinute)); // other clients keep their own bucket
+
+        clock.addAndGet(wait);
+        assertEquals(0, limiter.tryAcquire("ip:1", fivePerMinute));
+        assertTrue(limiter.tryAcquire("ip:1", fivePerMinute) > 0);
+
+        clock.addAndGet(Duration.ofMinutes(10).toNanos()); // idle: back to a full bucket, never more
+        for (int i = 0; i < 5; i++) {
+            assertEquals(0, limiter.tryAcquire("ip:1", fivePerMinute));
+        }
+        assertTrue(limiter.tryAcquire("ip:1", fivePerMinute) > 0);
+    }
+
+    @Test
+    void concurrentCallersNeverExceedCapacity() throws Exception {
+        RateLimiter.Limit limit = RateLimiter.Limit.parse("100/1h");
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            ConcurrentLinkedQueue<Long> results = new ConcurrentLinkedQueue<>();
+            List<Future<Boolean>> calls = IntStream.range(0, 1000)
+                    .mapToObj(i -> pool.submit(() -> results.add(limiter.tryAcquire("user:bot", limit))))
+                    .toList();
+            for (Future<Boolean> call : calls) {
+                call.get(10, TimeUnit.SECONDS);
+            }
+            assertEquals(100, results.stream().filter(wait -> wait == 0).count());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void parsesLimitSpecs() {
+        RateLimiter.Limit limit = RateLimiter.Limit.parse(" 10 / 30s ");
+        assertEquals(10, limit.capacity());
+        assertEquals(Duration.ofSeconds(30).toNanos(), limit.periodNanos());
+        assertNull(RateLimiter.Limit.parse(""));
+        assertNull(RateLimiter.Limit.parse("0"));
+        assertThrows(IllegalArgumentException.class, () -> RateLimiter.Limit.parse("ten/1m"));
+        assertThrows(IllegalArgumentException.class, () -> RateLimiter.Limit.parse("10"));
+        assertThrows(IllegalArgumentException.class, () -> RateLimiter.Limit.parse("-1/1m"));
+    }
+
+    @Test
+    void filterRejectsOverLimitWithRetryAfterAndCountsIt() throws Exception {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        JwtUtils jwtUtils = mock(JwtUtils.class);
+        when(jwtUtils.verify(anyString())).thenThrow(new IllegalArgumentException("bad token"));
+        RateLimitFilter filter = new RateLimitFilter(limiter, jwtUtils, registry, true, "10/1m", "2/1m", "0", "30/1m");
+
+        assertEquals(200, post(filter, "/api/auth/signup", "10.0.0.1").getStatus());
+        assertEquals(200, post(filter, "/api/auth/signup", "10.0.0.1").getStatus());
+        MockHttpServletResponse rejected = post(filter, "/api/auth/signup", "10.0.0.1");
+        assertEquals(429, rejected.getStatus());
+        assertEquals("30", rejected.getHeader("Retry-After"));
+        assertEquals(1.0, registry.get("driveease.ratelimit.rejected").tag("route", "signup").counter().count());
+
+        assertEquals(200, post(filter, "/api/auth/signup", "10.0.0.2").getStatus()); // another address
+        for (int i = 0; i < 10; i++) {
+            assertEquals(200, post(filter, "/api/contact/send", "10.0.0.1").getStatus()); // "0" = not limited
+        }
+    }
+
+    private static MockHttpServletResponse post(RateLimitFilter filter, String path, String address) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", path);
+        request.setRemoteAddr(address);
+        request.addHeader("Authorization", "Bearer invalid");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+}
@@ -0,0 +1,249 @@
+package com.driveease.rental.service;
+
+import com.driveease.rental.dto.BookingSnapshot;
+import com.driveease.rental.event.BookingChangedEvent;
+import com.driveease.rental.model.VehicleContract;
+import com.driveease.rental.repository.BookingRepository;
+import com.driveease.rental.repository.VehicleContractRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Capacity checks, per-contract serialization and optimistic retries of the reservation engine.
+ * The "database" is a list of booking snapshots plus a version counter for contract 1 (3 units).
+ */
+class ReservationServiceTest {
+
+    private static final Long CONTRACT_ID = 1L;
+    private static final LocalDate DAY = LocalDate.now().plusMonths(2);
+
+    private final List<BookingSnapshot> storedBookings = new CopyOnWriteArrayList<>();
+    private final AtomicLong storedVersion = new AtomicLong();
+    private final AtomicLong nextBookingId = new AtomicLong(100);
+
+    private VehicleContractRepository contractRepository;
+
+    private AvailabilityIndex availabilityIndex;
+
+    private ReservationService reservationService;
+
+    @BeforeEach
+    void setUp() {
+        contractRepository = mock(VehicleContractRepository.class);
+        BookingRepository bookingRepository = mock(BookingRepository.class);
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+
+        when(contractRepository.findById(CONTRACT_ID)).thenAnswer(invocation -> Optional.of(contract()));
+        when(contractRepository.incrementVersion(eq(CONTRACT_ID), anyLong())).thenAnswer(invocation -> {
+            long expected = invocation.getArgument(1);
+            return storedVersion.compareAndSet(expected, expected + 1) ? 1 : 0;
+        });
+        when(bookingRepository.findAllSnapshots()).thenAnswer(invocation -> List.copyOf(storedBookings));
+        when(bookingRepository.findSnapshotsByContract(CONTRACT_ID)).thenAnswer(invocation -> List.copyOf(storedBookings));
+
+        availabilityIndex = new AvailabilityIndex(bookingRepository);
+        availabilityIndex.rebuild();
+        reservationService = new ReservationService(contractRepository, bookingRepository, availabilityIndex,
+                transactionManager, 16, 3, 30, 3, Duration.ofDays(365));
+    }
+
+    @Test
+    void concurrentConfirmationsNeverOversell() throws Exception {
+        int threads = 16;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger rejected = new AtomicInteger();
+        List<Future<?>> results = new ArrayList<>();
+        try {
+            for (int i = 0; i < threads; i++) {
+                results.add(pool.submit(() -> {
+                    start.await();
+                    try {
+                        book(DAY, 3, 1);
+                    } catch (CapacityExceededException e) {
+                        rejected.incrementAndGet();
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> result : results) {
+                result.get();
+            }
+        } finally {
+            pool.shutdown();
+        }
+
+        assertEquals(3, storedBookings.size());
+        assertEquals(threads - 3, rejected.get());
+        assertEquals(3, availabilityIndex.peakUnits(CONTRACT_ID, DAY, 3));
+    }
+
+    @Test
+    void claimsOutsideTheLimitsAreRefusedBeforeAnythingIsRead() {
+        assertThrows(IllegalArgumentException.class, () -> book(DAY, 31, 1));
+        assertThrows(IllegalArgumentException.class, () -> book(DAY, 1, 4));
+        assertThrows(IllegalArgumentException.class, () -> book(LocalDate.of(9999, 12, 31), 1, 1));
+        assertThrows(IllegalArgumentException.class, () -> book(LocalDate.now().minusDays(366), 1, 1));
+        assertThrows(IllegalArgumentException.class, () -> ReservationService.Claim.of(DAY, 0, 1));
+        assertThrows(IllegalArgumentException.class, () -> ReservationService.Claim.of(null, 1, 1));
+
+        verify(contractRepository, never()).findById(any());
+        assertTrue(storedBookings.isEmpty());
+    }
+
+    @Test
+    void onlyOverlappingDaysCount() {
+        book(DAY, 3, 3);
+        book(DAY.plusDays(3), 2, 3);
+
+        assertThrows(CapacityExceededException.class, () -> book(DAY.plusDays(2), 1, 1));
+        assertEquals(2, storedBookings.size());
+    }
+
+    @Test
+    void bookingsWrittenByAnotherInstanceAreSeen() {
+        book(DAY, 1, 1);
+        // Another instance books the remaining units and bumps the version; this instance got no event
+        storedBookings.add(snapshot(DAY, 1, 2));
+        storedVersion.incrementAndGet();
+
+        assertThrows(CapacityExceededException.class, () -> book(DAY, 1, 1));
+    }
+
+    @Test
+    void versionConflictIsRetried() {
+        AtomicBoolean conflict = new AtomicBoolean(true);
+        when(contractRepository.incrementVersion(eq(CONTRACT_ID), anyLong())).thenAnswer(invocation -> {
+            if (conflict.getAndSet(false)) {
+                storedVersion.incrementAndGet(); // a concurrent writer elsewhere won the race
+                return 0;
+            }
+            long expected = invocation.getArgument(1);
+            return storedVersion.compareAndSet(expected, expected + 1) ? 1 : 0;
+        });
+        AtomicInteger writes = new AtomicInteger();
+
+        String result = reservationService.reserve(CONTRACT_ID, ReservationService.Claim.of(DAY, 1, 1), () -> {
+            writes.incrementAndGet();
+            return "ok";
+        });
+
+        assertEquals("ok", result);
+        assertEquals(2, writes.get());
+        assertEquals(2, storedVersion.get());
+    }
+
+    @Test
+    void movedBookingDoesNotCompeteWithItself() {
+        BookingSnapshot existing = book(DAY, 3, 3);
+
+        ReservationService.Claim move = new ReservationService.Claim(DAY.plusDays(1), 3, 3, existing);
+        assertEquals("moved", reservationService.reserve(CONTRACT_ID, move, () -> "moved"));
+        assertThrows(CapacityExceededException.class,
+                () -> reservationService.reserve(CONTRACT_ID, ReservationService.Claim.of(DAY.plusDays(1), 3, 3), () -> "x"));
+    }
+
+    @Test
+    void movesBuildTheirClaimFromTheRowReadUnderTheLock() {
+        BookingSnapshot existing = book(DAY, 3, 3);
+        move(existing.bookingId(), DAY.plusDays(1));
+        // A second move of the same booking, requested while it still held DAY..DAY+2, must exclude its current window
+        move(existing.bookingId(), DAY.plusDays(2));
+
+        assertEquals(0, availabilityIndex.peakUnits(CONTRACT_ID, DAY, 2));
+        assertEquals(3, availabilityIndex.peakUnits(CONTRACT_ID, DAY.plusDays(2), 3));
+        assertThrows(IllegalStateException.class,
+                () -> reservationService.checkClaim(CONTRACT_ID, ReservationService.Claim.of(DAY, 1, 1)));
+    }
+
+    @Test
+    void totalUnitsCannotDropBelowTheBusiestBookedDay() {
+        book(DAY, 3, 2);
+        book(DAY.plusDays(2), 1, 1);
+        // Bookings that have already ended do not hold units any more
+        availabilityIndex.onBookingChanged(BookingChangedEvent.created(snapshot(LocalDate.now().minusDays(10), 2, 5)));
+
+        assertThrows(CapacityExceededException.class,
+                () -> reservationService.reserve(CONTRACT_ID, null, () -> {
+                    reservationService.checkTotalUnits(CONTRACT_ID, 2);
+                    return null;
+                }));
+        reservationService.reserve(CONTRACT_ID, null, () -> {
+            reservationService.checkTotalUnits(CONTRACT_ID, 3);
+            return null;
+        });
+        assertThrows(IllegalStateException.class, () -> reservationService.checkTotalUnits(CONTRACT_ID, 3));
+    }
+
+    /**
+     * What BookingService does inside reserve(): insert the row and publish the change.
+     */
+    private BookingSnapshot book(LocalDate pickup, int days, int units) {
+        return reservationService.reserve(CONTRACT_ID, ReservationService.Claim.of(pickup, days, units), () -> {
+            BookingSnapshot booking = snapshot(pickup, days, units);
+            storedBookings.add(booking);
+            availabilityIndex.onBookingChanged(BookingChangedEvent.created(booking));
+            return booking;
+        });
+    }
+
+    /**
+     * What BookingService.updateBooking does inside reserve(): re-read the booking, check, move, publish.
+     */
+    private void move(Long bookingId, LocalDate pickup) {
+        reservationService.reserve(CONTRACT_ID, null, () -> {
+            BookingSnapshot current = storedBookings.stream()
+                    .filter(booking -> booking.bookingId().equals(bookingId)).findFirst().orElseThrow();
+            reservationService.checkClaim(CONTRACT_ID,
+                    new ReservationService.Claim(pickup, current.rentalDays(), current.vehicleCount(), current));
+            BookingSnapshot moved = new BookingSnapshot(bookingId, CONTRACT_ID, current.agentId(), pickup,
+                    current.rentalDays(), current.vehicleCount(), current.finalPrice());
+            storedBookings.set(storedBookings.indexOf(current), moved);
+            availabilityIndex.onBookingChanged(new BookingChangedEvent(current, moved));
+            return moved;
+        });
+    }
+
+    private BookingSnapshot snapshot(LocalDate pickup, int days, int units) {
+        return new BookingSnapshot(nextBookingId.getAndIncrement(), CONTRACT_ID, 9L, pickup, days, units, BigDecimal.TEN);
+    }
+
+    private VehicleContract contract() {
+        VehicleContract contract = new VehicleContract();
+        contract.setContractId(CONTRACT_ID);
+        contract.setTotalUnits(3);
+        ReflectionTestUtils.setField(contract, "version", storedVersion.get());
+        return contract;
+    }
+}
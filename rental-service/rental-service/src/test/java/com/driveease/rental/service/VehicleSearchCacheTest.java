@@ -0,0 +1,91 @@
+package com.driveease.rental.service;
+
+import com.driveease.rental.controller.AdminController;
+import com.driveease.rental.dto.ContractProfile;
+import com.driveease.rental.event.ContractChangedEvent;
+import com.driveease.rental.model.Provider;
+import com.driveease.rental.repository.ProviderRepository;
+import com.driveease.rental.repository.VehicleContractRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Eviction of cached searches by the admin endpoints: a provider edit drops the searches of the types its
+ * contracts belong to (their rows carry the provider name) and the "All" listing, nothing else.
+ * Provider 10 owns contract 1 (SUV); the Van searches belong to another provider.
+ */
+class VehicleSearchCacheTest {
+
+    private final VehicleSearchCache cache = new VehicleSearchCache(100, Duration.ofMinutes(1), new SimpleMeterRegistry());
+
+    private final AdminController controller = new AdminController();
+
+    private ProviderRepository providerRepository;
+
+    @BeforeEach
+    void setUp() {
+        providerRepository = mock(ProviderRepository.class);
+        VehicleContractRepository contractRepository = mock(VehicleContractRepository.class);
+        when(contractRepository.findProfilesByProvider(10L)).thenReturn(List.of(
+                new ContractProfile(1L, "SUV", 10L, "Lanka Rides", 5L, "agent5", 2)));
+        ApplicationEventPublisher eventPublisher = event -> cache.onContractChanged((ContractChangedEvent) event);
+        ReflectionTestUtils.setField(controller, "providerRepository", providerRepository);
+        ReflectionTestUtils.setField(controller, "contractRepository", contractRepository);
+        ReflectionTestUtils.setField(controller, "eventPublisher", eventPublisher);
+
+        for (String type : List.of("SUV", "Van", "All")) {
+            assertTrue(loads(type));
+        }
+    }
+
+    @Test
+    void providerRenameEvictsTheTypesOfItsContracts() {
+        Provider provider = new Provider();
+        provider.setProviderId(10L);
+        provider.setProviderName("Lanka Rides");
+        when(providerRepository.findById(10L)).thenReturn(Optional.of(provider));
+        when(providerRepository.save(provider)).thenReturn(provider);
+        Provider details = new Provider();
+        details.setProviderName("Lanka Rides Ltd");
+
+        controller.updateProvider(10L, details);
+
+        assertTrue(loads("suv"));
+        assertTrue(loads("All"));
+        assertFalse(loads("Van"));
+    }
+
+    @Test
+    void providerDeleteEvictsTheTypesOfItsContracts() {
+        controller.deleteProvider(10L);
+
+        assertTrue(loads("SUV"));
+        assertFalse(loads("Van"));
+    }
+
+    /**
+     * Runs a 3-day, 1-vehicle search and tells whether it had to be computed (not served from the cache).
+     */
+    private boolean loads(String type) {
+        AtomicBoolean loaded = new AtomicBoolean();
+        cache.getSearchResults(type, 3, 1, () -> {
+            loaded.set(true);
+            return List.of(Map.of("vehicleType", type));
+        });
+        return loaded.get();
+    }
+}